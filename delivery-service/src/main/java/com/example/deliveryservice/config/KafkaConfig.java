@@ -1,22 +1,147 @@
 package com.example.deliveryservice.config;
 
+import com.example.deliveryservice.dto.event.CourierAssignedEvent;
+import com.example.kafkasupport.DeadLetterReplayer;
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.KafkaEventSender;
+import com.example.kafkasupport.KafkaSupportConfiguration;
+import com.example.kafkasupport.KeyOrderedDispatcher;
+import com.example.kafkasupport.ListenerMetricsInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.avro.AvroRuntimeException;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
+@Import({KafkaSupportConfiguration.class, KafkaEventSender.class})
 public class KafkaConfig {
 
+    // Payloads that cannot be decoded fail the same way on every attempt, so they go straight to the DLT
+    private static final List<Class<? extends Exception>> NOT_RETRYABLE =
+            List.of(IOException.class, AvroRuntimeException.class, IllegalArgumentException.class);
+
+    @Value("${app.kafka.topics.restaurant-events}")
+    private String restaurantEventsTopic;
+
     @Value("${app.kafka.topics.delivery-events}")
     private String deliveryEventsTopic;
 
+    @Value("${app.kafka.partitions.delivery-events:3}")
+    private int deliveryEventsPartitions;
+
+    // Retry and dead-letter topics; at least as many as the topics they take records from
+    @Value("${app.kafka.partitions.retry-topics:3}")
+    private int retryTopicPartitions;
+
+    @Value("${app.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-delay:PT1S}")
+    private Duration retryInitialDelay;
+
+    @Value("${app.kafka.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-delay:PT1M}")
+    private Duration retryMaxDelay;
+
+    @Value("${app.kafka.consumer.key-ordered.lanes:16}")
+    private int keyOrderedLanes;
+
+    @Value("${app.kafka.consumer.key-ordered.max-pending-per-partition:500}")
+    private int keyOrderedMaxPending;
+
+    @Bean
+    public EventCodec eventCodec(ObjectMapper objectMapper) throws IOException {
+        return new EventCodec(objectMapper, CourierAssignedEvent.class.getPackageName());
+    }
+
     @Bean
     public NewTopic deliveryEventsTopic() {
         return TopicBuilder.name(deliveryEventsTopic)
-                .partitions(3)
+                .partitions(deliveryEventsPartitions)
                 .replicas(1)
                 .build();
     }
+
+    // A failed record is re-published to <topic>-retry-0, -retry-1, ... with growing delays and finally to
+    // <topic>-dlt, so the main partition keeps moving while it waits
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.consumer.key-ordered.enabled", havingValue = "false", matchIfMissing = true)
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, byte[]> kafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialDelay.toMillis(), retryMultiplier, retryMaxDelay.toMillis())
+                .suffixTopicsWithIndexValues()
+                .dltSuffix(DeadLetterReplayer.DLT_SUFFIX)
+                .autoCreateTopicsWith(retryTopicPartitions, (short) 1)
+                .notRetryOn(List.copyOf(NOT_RETRYABLE))
+                .traversingCauses()
+                .create(kafkaTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.consumer.key-ordered.enabled", havingValue = "true")
+    public NewTopic restaurantEventsDeadLetterTopic() {
+        return TopicBuilder.name(restaurantEventsTopic + DeadLetterReplayer.DLT_SUFFIX)
+                .partitions(retryTopicPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.consumer.key-ordered.enabled", havingValue = "true")
+    public KeyOrderedDispatcher keyOrderedDispatcher(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                                     ListenerMetricsInterceptor listenerMetrics,
+                                                     MeterRegistry meterRegistry) {
+        DeadLetterPublishingRecoverer deadLetterRecoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(record.topic() + DeadLetterReplayer.DLT_SUFFIX, -1));
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryAttempts - 1);
+        backOff.setInitialInterval(retryInitialDelay.toMillis());
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxDelay.toMillis());
+        return new KeyOrderedDispatcher(keyOrderedLanes, keyOrderedMaxPending, backOff, NOT_RETRYABLE,
+                deadLetterRecoverer, listenerMetrics, meterRegistry);
+    }
+
+    // Replaces Boot's default factory: record listeners run on the dispatcher's lanes instead of the container
+    // thread. Retry topics would reorder an order's events, so a failing key is parked and retried in place.
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.consumer.key-ordered.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KeyOrderedDispatcher keyOrderedDispatcher
+    ) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        // The lanes report outcomes themselves; on the container thread a record has only been queued
+        factory.setRecordInterceptor(null);
+        // No async acks: those pause the whole container until a poll is fully acknowledged, parked records
+        // included. The dispatcher acknowledges each partition in offset order itself.
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setContainerCustomizer(container ->
+                container.setupMessageListener(keyOrderedDispatcher.wrap(container)));
+        return factory;
+    }
 }
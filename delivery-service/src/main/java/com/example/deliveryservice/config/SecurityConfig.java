@@ -39,6 +39,7 @@ public class SecurityConfig {
                                 "/actuator/health",
                                 "/actuator/info"
                         ).permitAll()
+                        .requestMatchers("/actuator/deadletters/**").hasRole("ADMIN")
 
                         // Courier creation - any authenticated user can become a courier
                         .requestMatchers(HttpMethod.POST, "/api/couriers").authenticated()
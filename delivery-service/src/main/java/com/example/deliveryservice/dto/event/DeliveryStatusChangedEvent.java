@@ -1,6 +1,5 @@
 package com.example.deliveryservice.dto.event;
 
-import com.example.deliveryservice.entity.DeliveryStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,8 +17,8 @@ public class DeliveryStatusChangedEvent {
     private UUID deliveryId;
     private UUID orderId;
     private UUID courierId;
-    private DeliveryStatus previousStatus;
-    private DeliveryStatus newStatus;
+    private String previousStatus;
+    private String newStatus;
     private String notes;
     private Instant changedAt;
 }
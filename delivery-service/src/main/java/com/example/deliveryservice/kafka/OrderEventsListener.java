@@ -3,61 +3,59 @@ package com.example.deliveryservice.kafka;
 import com.example.deliveryservice.dto.event.OrderAcceptedEvent;
 import com.example.deliveryservice.dto.event.OrderReadyEvent;
 import com.example.deliveryservice.service.DeliveryService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+
+// Failures propagate to the container: KafkaConfig routes them through the retry topics and on to the DLT.
+// An ORDER_READY that overtakes its ORDER_ACCEPTED fails with ResourceNotFoundException and succeeds on retry.
+// Each event is applied once: ProcessedEventStore skips redeliveries and records the event with the delivery.
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventsListener {
 
     private final DeliveryService deliveryService;
-    private final ObjectMapper objectMapper;
+    private final EventCodec eventCodec;
+    private final ProcessedEventStore processedEvents;
 
     @KafkaListener(
             topics = "${app.kafka.topics.restaurant-events}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void handleOrderEvent(String message) {
-        try {
-            log.info("Received order event: {}", message);
+    public void handleOrderEvent(ConsumerRecord<String, byte[]> record) throws IOException {
+        String eventType = eventCodec.eventType(record);
 
-            JsonNode jsonNode = objectMapper.readTree(message);
-            String eventType = jsonNode.has("eventType") ? jsonNode.get("eventType").asText() : "";
+        log.info("Received order event: {} from {}", eventType, record.topic());
 
-            switch (eventType) {
-                case "ORDER_ACCEPTED" -> handleOrderAccepted(message);
-                case "ORDER_READY" -> handleOrderReady(message);
-                default -> log.debug("Ignoring event type: {}", eventType);
+        switch (eventType) {
+            case "ORDER_ACCEPTED" -> {
+                OrderAcceptedEvent event = eventCodec.decode(record.value(), OrderAcceptedEvent.class);
+                processedEvents.runOnce(record, eventType, () -> handleOrderAccepted(event));
+            }
+            case "ORDER_READY" -> {
+                OrderReadyEvent event = eventCodec.decode(record.value(), OrderReadyEvent.class);
+                processedEvents.runOnce(record, eventType, () -> handleOrderReady(event));
             }
-        } catch (Exception e) {
-            log.error("Error processing order event: {}", message, e);
+            default -> log.debug("Ignoring event type: {}", eventType);
         }
     }
 
-    private void handleOrderAccepted(String message) {
-        try {
-            OrderAcceptedEvent event = objectMapper.readValue(message, OrderAcceptedEvent.class);
-            log.info("Processing OrderAcceptedEvent for order: {}", event.getOrderId());
-            deliveryService.createDeliveryFromOrderAccepted(event);
-            log.info("Delivery created successfully for order: {}", event.getOrderId());
-        } catch (Exception e) {
-            log.error("Error handling OrderAcceptedEvent", e);
-        }
+    private void handleOrderAccepted(OrderAcceptedEvent event) {
+        log.info("Processing OrderAcceptedEvent for order: {}", event.getOrderId());
+        deliveryService.createDeliveryFromOrderAccepted(event);
+        log.info("Delivery created successfully for order: {}", event.getOrderId());
     }
 
-    private void handleOrderReady(String message) {
-        try {
-            OrderReadyEvent event = objectMapper.readValue(message, OrderReadyEvent.class);
-            log.info("Processing OrderReadyEvent for order: {}", event.getOrderId());
-            deliveryService.handleOrderReady(event.getOrderId());
-            log.info("Order ready handled successfully for order: {}", event.getOrderId());
-        } catch (Exception e) {
-            log.error("Error handling OrderReadyEvent", e);
-        }
+    private void handleOrderReady(OrderReadyEvent event) {
+        log.info("Processing OrderReadyEvent for order: {}", event.getOrderId());
+        deliveryService.handleOrderReady(event.getOrderId());
+        log.info("Order ready handled successfully for order: {}", event.getOrderId());
     }
 }
@@ -61,13 +61,6 @@ public class DeliveryServiceImpl implements DeliveryService {
     public DeliveryDto createDeliveryFromOrderAccepted(OrderAcceptedEvent event) {
         log.info("Creating delivery from OrderAcceptedEvent for order: {}", event.getOrderId());
 
-        if (deliveryRepository.existsByOrderId(event.getOrderId())) {
-            log.warn("Delivery for order {} already exists, skipping", event.getOrderId());
-            return deliveryMapper.toDto(
-                    deliveryRepository.findByOrderId(event.getOrderId()).orElseThrow()
-            );
-        }
-
         Delivery delivery = deliveryMapper.fromOrderAcceptedEvent(event);
         Delivery savedDelivery = deliveryRepository.save(delivery);
 
@@ -224,8 +217,8 @@ public class DeliveryServiceImpl implements DeliveryService {
                 .deliveryId(updatedDelivery.getId())
                 .orderId(updatedDelivery.getOrderId())
                 .courierId(updatedDelivery.getCourier() != null ? updatedDelivery.getCourier().getId() : null)
-                .previousStatus(previousStatus)
-                .newStatus(request.getStatus())
+                .previousStatus(previousStatus.name())
+                .newStatus(request.getStatus().name())
                 .notes(request.getCourierNotes())
                 .changedAt(Instant.now())
                 .build();
@@ -0,0 +1,6 @@
+CREATE TABLE processed_events (
+    id VARCHAR(300) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_processed_events_processed_at ON processed_events(processed_at);
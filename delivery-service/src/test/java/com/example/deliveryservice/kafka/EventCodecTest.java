@@ -0,0 +1,60 @@
+package com.example.deliveryservice.kafka;
+
+import com.example.deliveryservice.dto.event.CourierAssignedEvent;
+import com.example.deliveryservice.dto.event.DeliveryStatusChangedEvent;
+import com.example.deliveryservice.entity.DeliveryStatus;
+import com.example.kafkasupport.EventCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventCodecTest {
+
+    private EventCodec codec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        codec = new EventCodec(new ObjectMapper().findAndRegisterModules(),
+                CourierAssignedEvent.class.getPackageName());
+    }
+
+    @Test
+    @DisplayName("Should round-trip every event this service publishes")
+    void encodeDecode_PublishedEvents() throws Exception {
+        UUID deliveryId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        UUID courierId = UUID.randomUUID();
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        assertRoundTrip(CourierAssignedEvent.builder()
+                .eventType("COURIER_ASSIGNED")
+                .deliveryId(deliveryId)
+                .orderId(orderId)
+                .courierId(courierId)
+                .courierName("Alex Rider")
+                .assignedAt(now)
+                .build(), "COURIER_ASSIGNED");
+        assertRoundTrip(DeliveryStatusChangedEvent.builder()
+                .eventType("DELIVERY_STATUS_CHANGED")
+                .deliveryId(deliveryId)
+                .orderId(orderId)
+                .courierId(courierId)
+                .previousStatus(DeliveryStatus.PICKED_UP.name())
+                .newStatus(DeliveryStatus.IN_TRANSIT.name())
+                .changedAt(now)
+                .build(), "DELIVERY_STATUS_CHANGED");
+    }
+
+    private void assertRoundTrip(Object event, String eventType) throws Exception {
+        EventCodec.EncodedEvent encoded = codec.encode(event);
+
+        assertThat(encoded.eventType()).isEqualTo(eventType);
+        assertThat(codec.decode(encoded.payload(), event.getClass())).isEqualTo(event);
+    }
+}
@@ -1,23 +1,41 @@
 package com.example.deliveryservice.kafka;
 
 import com.example.deliveryservice.dto.delivery.DeliveryDto;
+import com.example.deliveryservice.dto.event.CourierAssignedEvent;
 import com.example.deliveryservice.dto.event.OrderAcceptedEvent;
 import com.example.deliveryservice.entity.DeliveryStatus;
+import com.example.deliveryservice.exception.ResourceNotFoundException;
 import com.example.deliveryservice.service.DeliveryService;
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,79 +44,148 @@ class OrderEventsListenerTest {
     @Mock
     private DeliveryService deliveryService;
 
+    @Mock
+    private ProcessedEventStore processedEvents;
+
     @InjectMocks
     private OrderEventsListener orderEventsListener;
 
     private ObjectMapper objectMapper;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules();
-        orderEventsListener = new OrderEventsListener(deliveryService, objectMapper);
+        EventCodec eventCodec = new EventCodec(objectMapper, CourierAssignedEvent.class.getPackageName());
+        orderEventsListener = new OrderEventsListener(deliveryService, eventCodec, processedEvents);
+        lenient().when(processedEvents.runOnce(any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return true;
+        });
     }
 
     @Test
     @DisplayName("Should process OrderAccepted event and create delivery")
     void handleOrderEvent_OrderAccepted_CreatesDelivery() throws Exception {
-        OrderAcceptedEvent event = OrderAcceptedEvent.builder()
-                .eventType("ORDER_ACCEPTED")
-                .orderId(UUID.randomUUID())
-                .customerId(UUID.randomUUID())
-                .restaurantId(UUID.randomUUID())
-                .deliveryAddress("123 Main St")
-                .totalPrice(BigDecimal.valueOf(25.99))
-                .acceptedAt(Instant.now())
-                .build();
-
-        String message = objectMapper.writeValueAsString(event);
+        UUID orderId = UUID.randomUUID();
+        ConsumerRecord<String, byte[]> record = encoded("OrderAcceptedEvent", Map.of(
+                "eventType", "ORDER_ACCEPTED",
+                "orderId", orderId,
+                "restaurantName", "Pizza Palace",
+                "deliveryAddress", "123 Main St"));
 
         DeliveryDto deliveryDto = DeliveryDto.builder()
                 .id(UUID.randomUUID())
-                .orderId(event.getOrderId())
+                .orderId(orderId)
                 .status(DeliveryStatus.PENDING)
                 .build();
 
         when(deliveryService.createDeliveryFromOrderAccepted(any(OrderAcceptedEvent.class)))
                 .thenReturn(deliveryDto);
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(record);
 
-        verify(deliveryService).createDeliveryFromOrderAccepted(any(OrderAcceptedEvent.class));
+        ArgumentCaptor<OrderAcceptedEvent> event = ArgumentCaptor.forClass(OrderAcceptedEvent.class);
+        verify(deliveryService).createDeliveryFromOrderAccepted(event.capture());
+        assertThat(event.getValue().getOrderId()).isEqualTo(orderId);
+        assertThat(event.getValue().getDeliveryAddress()).isEqualTo("123 Main St");
     }
 
     @Test
     @DisplayName("Should process OrderReady event")
     void handleOrderEvent_OrderReady_HandlesOrderReady() throws Exception {
         UUID orderId = UUID.randomUUID();
-        String message = String.format(
-                "{\"eventType\":\"ORDER_READY\",\"orderId\":\"%s\",\"restaurantId\":\"%s\",\"readyAt\":\"%s\"}",
-                orderId, UUID.randomUUID(), Instant.now().toString()
-        );
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(encoded("OrderReadyEvent", Map.of(
+                "eventType", "ORDER_READY",
+                "orderId", orderId)));
 
         verify(deliveryService).handleOrderReady(orderId);
     }
 
+    @Test
+    @DisplayName("Should not handle a redelivered OrderReady event again")
+    void handleOrderEvent_Redelivered_Skips() throws Exception {
+        doReturn(false).when(processedEvents).runOnce(any(), eq("ORDER_READY"), any());
+
+        orderEventsListener.handleOrderEvent(encoded("OrderReadyEvent", Map.of(
+                "eventType", "ORDER_READY",
+                "orderId", UUID.randomUUID())));
+
+        verifyNoInteractions(deliveryService);
+    }
+
+    @Test
+    @DisplayName("Should surface an OrderReady event that overtook its delivery so it is retried")
+    void handleOrderEvent_OrderReadyBeforeDelivery_Throws() {
+        UUID orderId = UUID.randomUUID();
+        doThrow(new ResourceNotFoundException("Delivery", "orderId", orderId))
+                .when(deliveryService).handleOrderReady(orderId);
+
+        assertThatThrownBy(() -> orderEventsListener.handleOrderEvent(encoded("OrderReadyEvent", Map.of(
+                "eventType", "ORDER_READY",
+                "orderId", orderId))))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should still process a JSON OrderAccepted event published before the binary format")
+    void handleOrderEvent_LegacyJson_CreatesDelivery() throws Exception {
+        OrderAcceptedEvent event = OrderAcceptedEvent.builder()
+                .eventType("ORDER_ACCEPTED")
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .deliveryAddress("123 Main St")
+                .totalPrice(BigDecimal.valueOf(25.99))
+                .acceptedAt(Instant.now())
+                .build();
+
+        orderEventsListener.handleOrderEvent(json(objectMapper.writeValueAsString(event)));
+
+        verify(deliveryService).createDeliveryFromOrderAccepted(event);
+    }
+
     @Test
     @DisplayName("Should ignore unknown event types")
     void handleOrderEvent_UnknownEventType_Ignores() throws Exception {
         String message = "{\"eventType\":\"UnknownEvent\",\"data\":\"test\"}";
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(json(message));
 
         verifyNoInteractions(deliveryService);
     }
 
     @Test
-    @DisplayName("Should handle malformed JSON gracefully")
-    void handleOrderEvent_MalformedJson_DoesNotThrow() {
+    @DisplayName("Should surface malformed payloads so they are dead-lettered")
+    void handleOrderEvent_MalformedJson_Throws() {
         String malformedMessage = "not a valid json";
 
-        // Should not throw exception
-        orderEventsListener.handleOrderEvent(malformedMessage);
+        assertThatThrownBy(() -> orderEventsListener.handleOrderEvent(json(malformedMessage)))
+                .isInstanceOf(IOException.class);
 
         verifyNoInteractions(deliveryService);
     }
+
+    // Written from the shared schema the way the restaurant service writes it, including fields this service drops
+    private ConsumerRecord<String, byte[]> encoded(String schemaName, Map<String, Object> fields) {
+        try {
+            Schema schema = new Schema.Parser().parse(getClass().getResourceAsStream("/avro/" + schemaName + ".avsc"));
+            GenericData model = new GenericData();
+            model.addLogicalTypeConversion(new Conversions.UUIDConversion());
+            GenericRecord event = new GenericData.Record(schema);
+            fields.forEach(event::put);
+            byte[] payload = new BinaryMessageEncoder<GenericRecord>(model, schema).encode(event).array();
+            ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("restaurant-events", 0, 0, null, payload);
+            record.headers().add(EventCodec.EVENT_TYPE_HEADER,
+                    fields.get("eventType").toString().getBytes(StandardCharsets.UTF_8));
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ConsumerRecord<String, byte[]> json(String message) {
+        return new ConsumerRecord<>("restaurant-events", 0, 0, null, message.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.kafkasupport;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// POST /actuator/deadletters/{topic} re-drives up to maxRecords (default 1000) dead-lettered records of a topic
+@Component
+@Endpoint(id = "deadletters")
+@RequiredArgsConstructor
+public class DeadLetterEndpoint {
+
+    private static final int DEFAULT_MAX_RECORDS = 1000;
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @WriteOperation
+    public ReplayResult replay(@Selector String topic, @Nullable Integer maxRecords) {
+        int limit = maxRecords != null ? maxRecords : DEFAULT_MAX_RECORDS;
+        if (limit <= 0) {
+            throw new InvalidEndpointRequestException("maxRecords must be positive", "maxRecords must be positive");
+        }
+        try {
+            return new ReplayResult(topic, deadLetterReplayer.replay(topic, limit));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    public record ReplayResult(String topic, int replayed) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.kafkasupport;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Re-drives dead-lettered records onto the topic they failed on, where they take the full retry path again.
+// The replay group commits only what has been re-published, so each call resumes where the previous one
+// stopped, and records dead-lettered again while a replay runs wait for the next call instead of looping.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayer {
+
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final String RETRY_HEADER_PREFIX = "retry_topic-";
+
+    private final KafkaProperties kafkaProperties;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    public int replay(String topic, int maxRecords) {
+        String deadLetterTopic = topic + DLT_SUFFIX;
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProperties())) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                throw new IllegalArgumentException("No dead-letter topic for " + topic);
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            int replayed = 0;
+            while (replayed < maxRecords && !reached(consumer, endOffsets)) {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replayed == maxRecords || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(toOriginal(topic, record)));
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                // Commit only once the broker has every re-published record, so a failed replay can be repeated
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync(offsets);
+            }
+            log.info("Replayed {} records from {} onto {}", replayed, deadLetterTopic, topic);
+            return replayed;
+        }
+    }
+
+    // Drops the dead-letter and retry bookkeeping, so the record starts over with a fresh attempt count
+    private ProducerRecord<String, byte[]> toOriginal(String topic, ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, byte[]> original = new ProducerRecord<>(topic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(KafkaHeaders.PREFIX) && !header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                original.headers().add(header);
+            }
+        }
+        return original;
+    }
+
+    private boolean reached(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private Map<String, Object> consumerProperties() {
+        Map<String, Object> properties = kafkaProperties.buildConsumerProperties(null);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-dlt-replay");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return properties;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.kafkasupport;
+
+public class KafkaBackpressureException extends RuntimeException {
+
+    public KafkaBackpressureException(String message) {
+        super(message);
+    }
+}
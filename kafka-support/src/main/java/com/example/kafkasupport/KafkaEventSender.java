@@ -0,0 +1,115 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Every direct send goes through here: the permit bound makes a slow or unreachable broker push back on
+// callers instead of filling the producer buffer, and each acknowledgement is timed and failures logged
+@Component
+@Slf4j
+public class KafkaEventSender {
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventCodec eventCodec;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlight;
+    private final Duration acquireTimeout;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public KafkaEventSender(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            EventCodec eventCodec,
+            MeterRegistry meterRegistry,
+            @Value("${app.kafka.producer.max-in-flight:1000}") int maxInFlight,
+            @Value("${app.kafka.producer.in-flight-timeout:PT2S}") Duration acquireTimeout
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.eventCodec = eventCodec;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeout = acquireTimeout;
+        Gauge.builder("kafka.producer.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Records sent but not yet acknowledged by the broker")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> send(String topic, String key, Object event) {
+        ProducerRecord<String, byte[]> record = toRecord(topic, key, event);
+        acquire(topic);
+        long started = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            complete(topic, key, started, e);
+            throw e;
+        }
+        return future.whenComplete((result, failure) -> complete(topic, key, started, failure));
+    }
+
+    // A null event is a tombstone and carries no type or id header
+    private ProducerRecord<String, byte[]> toRecord(String topic, String key, Object event) {
+        if (event == null) {
+            return new ProducerRecord<>(topic, key, null);
+        }
+        try {
+            EventCodec.EncodedEvent encoded = eventCodec.encode(event);
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, encoded.payload());
+            record.headers().add(EventCodec.EVENT_ID_HEADER, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            if (encoded.eventType() != null) {
+                record.headers().add(EventCodec.EVENT_TYPE_HEADER, encoded.eventType().getBytes(StandardCharsets.UTF_8));
+            }
+            return record;
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode " + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private void acquire(String topic) {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                meterRegistry.counter("kafka.producer.rejected", "topic", topic).increment();
+                throw new KafkaBackpressureException(
+                        "Too many events awaiting acknowledgement from Kafka; try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaBackpressureException("Interrupted while waiting to publish to " + topic);
+        }
+    }
+
+    private void complete(String topic, String key, long started, Throwable failure) {
+        inFlight.release();
+        timer(topic, failure == null ? "success" : "failure").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            log.error("Failed to publish event {} to {}: {}", key, topic, failure.getMessage());
+        }
+    }
+
+    private Timer timer(String topic, String result) {
+        return timers.computeIfAbsent(topic + '|' + result, id -> Timer.builder("kafka.producer.send")
+                .description("Time from send to broker acknowledgement")
+                .tag("topic", topic)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.kafkasupport;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+// Listener plumbing every service shares, imported by each service's KafkaConfig. Registering this package with
+// the auto-configuration packages lets the service's JPA setup find ProcessedEvent and its repository next to its
+// own. The codec is left to the services, which know where their event classes live, and so is KafkaEventSender,
+// which only the services that publish directly need.
+@Configuration(proxyBeanMethods = false)
+@AutoConfigurationPackage
+@Import({ListenerMetricsInterceptor.class, ProcessedEventStore.class, DeadLetterReplayer.class, DeadLetterEndpoint.class})
+public class KafkaSupportConfiguration {
+}
@@ -0,0 +1,319 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Key-ordered parallel consumption: records are spread over single-threaded lanes by key, so different orders are
+// handled concurrently while each order's events keep their partition order. A failing record parks its key: the
+// retry waits on a timer instead of in the lane, the key's later records queue up behind it, and the lane goes on
+// with other keys. Each partition is acknowledged up to its oldest unfinished record, so a parked record holds back
+// only its own partition's commits; the container keeps polling and pauses just a partition whose backlog of
+// unfinished records grows past the limit.
+@Slf4j
+public class KeyOrderedDispatcher {
+
+    private static final Duration DEAD_LETTER_RETRY_INTERVAL = Duration.ofSeconds(5);
+
+    private final Lane[] lanes;
+    private final ScheduledThreadPoolExecutor retries;
+    private final int maxPendingPerPartition;
+    private final BackOff backOff;
+    private final List<Class<? extends Exception>> notRetryable;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+    private final ListenerMetricsInterceptor listenerMetrics;
+    private final Map<TopicPartition, PartitionProgress> progress = new ConcurrentHashMap<>();
+    private final AtomicInteger parked = new AtomicInteger();
+
+    public KeyOrderedDispatcher(int laneCount, int maxPendingPerPartition, BackOff backOff,
+                                List<Class<? extends Exception>> notRetryable, ConsumerRecordRecoverer deadLetterRecoverer,
+                                ListenerMetricsInterceptor listenerMetrics, MeterRegistry meterRegistry) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kafka-lane-");
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    threadFactory));
+        }
+        this.retries = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("kafka-lane-retry-"));
+        this.maxPendingPerPartition = maxPendingPerPartition;
+        this.backOff = backOff;
+        this.notRetryable = notRetryable;
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.listenerMetrics = listenerMetrics;
+        Gauge.builder("kafka.listener.lanes.queued", this, KeyOrderedDispatcher::queued)
+                .description("Records waiting for a key-ordered listener lane")
+                .register(meterRegistry);
+        Gauge.builder("kafka.listener.lanes.parked", parked, AtomicInteger::get)
+                .description("Records waiting behind a key that is backing off after a failure")
+                .register(meterRegistry);
+    }
+
+    // Wraps the container's record listener so the container thread only hands records to the lanes. The
+    // container must use AckMode.MANUAL without async acks: the dispatcher acknowledges in offset order itself.
+    @SuppressWarnings("unchecked")
+    public AcknowledgingConsumerAwareMessageListener<Object, Object> wrap(MessageListenerContainer container) {
+        Object listener = container.getContainerProperties().getMessageListener();
+        if (!(listener instanceof AcknowledgingConsumerAwareMessageListener<?, ?>)) {
+            throw new IllegalStateException("Key-ordered dispatch needs a record listener, got " + listener.getClass());
+        }
+        AcknowledgingConsumerAwareMessageListener<Object, Object> delegate =
+                (AcknowledgingConsumerAwareMessageListener<Object, Object>) listener;
+        return (record, acknowledgment, consumer) -> {
+            Task task = new Task(delegate, record, track(container, record, acknowledgment));
+            task.lane.executor.execute(() -> task.lane.dispatch(task));
+        };
+    }
+
+    private Lane laneFor(Object key) {
+        return lanes[Math.floorMod(key.hashCode(), lanes.length)];
+    }
+
+    private PartitionProgress.Entry track(MessageListenerContainer container, ConsumerRecord<Object, Object> record,
+                                          Acknowledgment acknowledgment) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PartitionProgress partitionProgress = progress.compute(partition, (tp, current) -> {
+            // An offset at or below the last one seen means the partition was re-assigned or re-sought and the
+            // records are delivered again; what is still pending from before only ever commits older offsets
+            if (current == null || current.isRedelivery(record.offset())) {
+                if (current != null) {
+                    current.release();
+                }
+                return new PartitionProgress(container, tp, maxPendingPerPartition);
+            }
+            return current;
+        });
+        return partitionProgress.add(record.offset(), acknowledgment);
+    }
+
+    // Runs the listener once; true once the record is done with, false if a retry has been scheduled
+    private boolean attempt(Task task) {
+        ConsumerRecord<Object, Object> record = task.record;
+        if (task.failure != null) {
+            return deadLetter(task);
+        }
+        try {
+            task.delegate.onMessage(record, null, null);
+            listenerMetrics.success(record, null);
+            return true;
+        } catch (Exception e) {
+            task.attempts++;
+            listenerMetrics.failedDelivery(record, e, task.attempts);
+            if (task.backOffExecution == null) {
+                task.backOffExecution = backOff.start();
+            }
+            long delay = isRetryable(e) ? task.backOffExecution.nextBackOff() : BackOffExecution.STOP;
+            if (delay == BackOffExecution.STOP) {
+                log.error("Dead-lettering {}-{}@{} after {} attempts",
+                        record.topic(), record.partition(), record.offset(), task.attempts, e);
+                task.failure = e;
+                return deadLetter(task);
+            }
+            log.warn("Attempt {} failed for {}-{}@{}, retrying in {}ms: {}",
+                    task.attempts, record.topic(), record.partition(), record.offset(), delay, e.getMessage());
+            retryLater(task, delay);
+            return false;
+        }
+    }
+
+    // Keeps trying until the DLT has the record: acknowledging it otherwise would lose it
+    private boolean deadLetter(Task task) {
+        ConsumerRecord<Object, Object> record = task.record;
+        try {
+            deadLetterRecoverer.accept(record, task.failure);
+            listenerMetrics.recovered(record, task.failure);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to dead-letter {}-{}@{}, retrying: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            retryLater(task, DEAD_LETTER_RETRY_INTERVAL.toMillis());
+            return false;
+        }
+    }
+
+    // Rejected on shutdown: the record stays unacknowledged and is redelivered after the restart
+    private void retryLater(Task task, long delayMillis) {
+        retries.schedule(() -> task.lane.executor.execute(() -> task.lane.retry(task)),
+                delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isRetryable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Exception> type : notRetryable) {
+                if (type.isInstance(cause)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private double queued() {
+        return Arrays.stream(lanes).mapToInt(lane -> lane.executor.getQueue().size()).sum();
+    }
+
+    public void shutdown() throws InterruptedException {
+        retries.shutdownNow();
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Lane lane : lanes) {
+            if (!lane.executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                lane.executor.shutdownNow();
+            }
+        }
+    }
+
+    private final class Task {
+
+        private final AcknowledgingConsumerAwareMessageListener<Object, Object> delegate;
+        private final ConsumerRecord<Object, Object> record;
+        private final PartitionProgress.Entry entry;
+        private final Object key;
+        private final Lane lane;
+        private BackOffExecution backOffExecution;
+        private Exception failure;
+        private int attempts;
+
+        private Task(AcknowledgingConsumerAwareMessageListener<Object, Object> delegate,
+                     ConsumerRecord<Object, Object> record, PartitionProgress.Entry entry) {
+            this.delegate = delegate;
+            this.record = record;
+            this.entry = entry;
+            // Unkeyed records share a key per partition, which keeps them in partition order
+            this.key = record.key() != null ? record.key() : record.topic() + '-' + record.partition();
+            this.lane = laneFor(key);
+        }
+    }
+
+    // The parked map is only touched on the lane's own thread, retries included, so it needs no locking
+    private final class Lane {
+
+        private final ThreadPoolExecutor executor;
+        private final Map<Object, Deque<Task>> parkedKeys = new HashMap<>();
+
+        private Lane(ThreadPoolExecutor executor) {
+            this.executor = executor;
+        }
+
+        private void dispatch(Task task) {
+            Deque<Task> waiting = parkedKeys.get(task.key);
+            if (waiting != null) {
+                waiting.add(task);
+                parked.incrementAndGet();
+                return;
+            }
+            if (attempt(task)) {
+                task.entry.complete();
+            } else {
+                parkedKeys.put(task.key, new ArrayDeque<>());
+            }
+        }
+
+        private void retry(Task task) {
+            if (!attempt(task)) {
+                return;
+            }
+            task.entry.complete();
+            // Replays the records that waited in arrival order; one failing again parks the key anew and the rest
+            // line up behind it
+            Deque<Task> waiting = parkedKeys.remove(task.key);
+            parked.addAndGet(-waiting.size());
+            waiting.forEach(this::dispatch);
+        }
+    }
+
+    // Unfinished records of one partition in offset order. A record's acknowledgment commits everything before
+    // it, so only the newest record of the finished prefix is acknowledged.
+    private static final class PartitionProgress {
+
+        private final MessageListenerContainer container;
+        private final TopicPartition partition;
+        private final int maxPending;
+        private final Deque<Entry> pending = new ArrayDeque<>();
+        private long lastOffset = -1;
+        private boolean paused;
+
+        private PartitionProgress(MessageListenerContainer container, TopicPartition partition, int maxPending) {
+            this.container = container;
+            this.partition = partition;
+            this.maxPending = maxPending;
+        }
+
+        private synchronized boolean isRedelivery(long offset) {
+            return offset <= lastOffset;
+        }
+
+        private synchronized Entry add(long offset, Acknowledgment acknowledgment) {
+            Entry entry = new Entry(this, acknowledgment);
+            pending.add(entry);
+            lastOffset = offset;
+            if (!paused && pending.size() >= maxPending) {
+                paused = true;
+                log.warn("Pausing {} with {} unfinished records", partition, pending.size());
+                container.pausePartition(partition);
+            }
+            return entry;
+        }
+
+        private synchronized void complete(Entry entry) {
+            entry.done = true;
+            Entry newest = null;
+            while (!pending.isEmpty() && pending.peek().done) {
+                newest = pending.poll();
+            }
+            if (newest != null) {
+                newest.acknowledgment.acknowledge();
+            }
+            if (paused && pending.size() <= maxPending / 2) {
+                release();
+            }
+        }
+
+        private synchronized void release() {
+            if (paused) {
+                paused = false;
+                container.resumePartition(partition);
+            }
+        }
+
+        private static final class Entry {
+
+            private final PartitionProgress progress;
+            private final Acknowledgment acknowledgment;
+            private boolean done;
+
+            private Entry(PartitionProgress progress, Acknowledgment acknowledgment) {
+                this.progress = progress;
+                this.acknowledgment = acknowledgment;
+            }
+
+            private void complete() {
+                progress.complete(this);
+            }
+        }
+    }
+}
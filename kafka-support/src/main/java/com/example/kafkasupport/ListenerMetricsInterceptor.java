@@ -0,0 +1,79 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.KafkaBackoffException;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.listener.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Counts listener outcomes per topic and retry tier, so an error storm shows up as failures climbing through
+// retry-0, retry-1, ... and records landing on the DLT. Picked up by the default listener container factory;
+// batch error handlers and the key-ordered lanes report through the RetryListener side instead.
+@Component
+@RequiredArgsConstructor
+public class ListenerMetricsInterceptor implements RecordInterceptor<Object, Object>, RetryListener {
+
+    private static final Pattern TIERED_TOPIC = Pattern.compile("(.+)-(retry-\\d+|dlt)");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        count(record.topic(), "success");
+    }
+
+    @Override
+    public void failure(ConsumerRecord<Object, Object> record, Exception exception, Consumer<Object, Object> consumer) {
+        // A retry topic record that is not due yet is paused and redelivered, it has not failed
+        if (!causedByBackoff(exception)) {
+            count(record.topic(), "failure");
+        }
+    }
+
+    @Override
+    public void failedDelivery(ConsumerRecord<?, ?> record, Exception exception, int deliveryAttempt) {
+        count(record.topic(), "failure");
+    }
+
+    @Override
+    public void recovered(ConsumerRecord<?, ?> record, Exception exception) {
+        count(record.topic() + "-dlt", "success");
+    }
+
+    private void count(String topic, String result) {
+        counters.computeIfAbsent(topic + '|' + result, id -> {
+            Matcher tiered = TIERED_TOPIC.matcher(topic);
+            boolean isTiered = tiered.matches();
+            return Counter.builder("kafka.listener.records")
+                    .description("Records handled by Kafka listeners, by source topic and retry tier")
+                    .tag("topic", isTiered ? tiered.group(1) : topic)
+                    .tag("tier", isTiered ? tiered.group(2) : "main")
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }).increment();
+    }
+
+    private static boolean causedByBackoff(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof KafkaBackoffException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.kafkasupport;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "processed_events")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent implements Persistable<String> {
+
+    // Event type and event id, e.g. ORDER_READY:6f1c...
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    @Column(name = "processed_at", nullable = false, updatable = false)
+    private Instant processedAt;
+
+    // Always inserted, never merged: recording an event twice has to fail instead of costing a lookup first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
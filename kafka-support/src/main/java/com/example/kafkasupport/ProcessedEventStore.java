@@ -0,0 +1,133 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// Consumer-side deduplication keyed by event type and id. An event is recorded as processed in the same
+// transaction as its handler's writes, so a redelivered event is skipped while one whose handler failed runs
+// again. The filter of recently processed events answers the common "never seen" case without a query; only its
+// hits are checked against the table. Producers set the id in the event-id header; records without one are
+// identified by their offset.
+@Component
+@Slf4j
+public class ProcessedEventStore {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RecentEventFilter recentEvents;
+    private final int filterCapacity;
+    private final Duration ttl;
+    private final Duration warmUpWindow;
+
+    public ProcessedEventStore(
+            ProcessedEventRepository processedEventRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.kafka.processed-events.ttl:P7D}") Duration ttl,
+            @Value("${app.kafka.processed-events.filter-capacity:500000}") int filterCapacity,
+            @Value("${app.kafka.processed-events.filter-false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.kafka.processed-events.warm-up-window:PT1H}") Duration warmUpWindow
+    ) {
+        this.processedEventRepository = processedEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.recentEvents = new RecentEventFilter(filterCapacity, falsePositiveRate);
+        this.filterCapacity = filterCapacity;
+        this.ttl = ttl;
+        this.warmUpWindow = warmUpWindow;
+    }
+
+    // Runs before the listener containers start, so events redelivered after a restart are recognised in memory
+    @PostConstruct
+    public void warmUp() {
+        List<String> recent = processedEventRepository.findIdsProcessedSince(
+                Instant.now().minus(warmUpWindow), PageRequest.of(0, filterCapacity));
+        recent.forEach(recentEvents::add);
+        log.info("Loaded {} recently processed events into the dedup filter", recent.size());
+    }
+
+    public static String eventId(ConsumerRecord<?, ?> record, String eventType) {
+        Header header = record.headers().lastHeader(EventCodec.EVENT_ID_HEADER);
+        String id = header != null
+                ? new String(header.value(), StandardCharsets.UTF_8)
+                : record.topic() + '-' + record.partition() + '@' + record.offset();
+        return eventType + ':' + id;
+    }
+
+    public boolean isProcessed(ConsumerRecord<?, ?> record, String eventType) {
+        String eventId = eventId(record, eventType);
+        if (!recentEvents.mightContain(eventId)) {
+            count("miss");
+            return false;
+        }
+        boolean processed = processedEventRepository.existsById(eventId);
+        count(processed ? "duplicate" : "false-positive");
+        if (processed) {
+            log.info("Skipping already processed event {}", eventId);
+        }
+        return processed;
+    }
+
+    // True if the handler ran; false if the event had already been processed
+    public boolean runOnce(ConsumerRecord<?, ?> record, String eventType, Runnable handler) {
+        return !isProcessed(record, eventType) && runOnce(List.of(eventId(record, eventType)), handler);
+    }
+
+    // Runs the handler in one transaction with the events recorded as processed. If another consumer recorded one
+    // of them first, as when a rebalance hands its partition over mid-batch, nothing is written and it returns false.
+    public boolean runOnce(Collection<String> eventIds, Runnable handler) {
+        Instant now = Instant.now();
+        List<ProcessedEvent> events = eventIds.stream()
+                .distinct()
+                .map(id -> new ProcessedEvent(id, now))
+                .toList();
+        Boolean recorded = transactionTemplate.execute(status -> {
+            try {
+                processedEventRepository.saveAllAndFlush(events);
+            } catch (DataIntegrityViolationException e) {
+                status.setRollbackOnly();
+                return false;
+            }
+            handler.run();
+            return true;
+        });
+        // Processed either way, by this consumer or the one that got there first
+        events.forEach(event -> recentEvents.add(event.getId()));
+        if (!Boolean.TRUE.equals(recorded)) {
+            count("duplicate");
+            log.info("Skipping events {}, already processed by another consumer", eventIds);
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(cron = "${app.kafka.processed-events.cleanup-cron:0 45 * * * *}")
+    @Transactional
+    public void purgeExpiredEvents() {
+        int deleted = processedEventRepository.deleteProcessedBefore(Instant.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Purged {} expired processed events", deleted);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("kafka.listener.dedup", "result", result).increment();
+    }
+}
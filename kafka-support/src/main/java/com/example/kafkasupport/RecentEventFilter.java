@@ -0,0 +1,100 @@
+package com.example.kafkasupport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over recently processed event ids, kept in two fixed-size generations: once the current one has
+// taken its capacity it becomes the previous one and the old previous one is dropped, so memory stays bounded and
+// the oldest ids age out. A miss means the id was not added recently; a hit can be a false positive.
+class RecentEventFilter {
+
+    private final int capacity;
+    private final int bitCount;
+    private final int hashCount;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    RecentEventFilter(int capacity, double falsePositiveRate) {
+        if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Filter needs a positive capacity and a false positive rate below 1");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.capacity = capacity;
+        this.bitCount = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        this.current = new Generation(bitCount);
+        this.previous = new Generation(bitCount);
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        return current.mightContain(hash) || previous.mightContain(hash);
+    }
+
+    void add(String id) {
+        long hash = hash(id);
+        Generation generation = current;
+        if (generation.add(hash) >= capacity) {
+            rotate(generation);
+        }
+    }
+
+    private synchronized void rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bitCount);
+        }
+    }
+
+    // FNV-1a over the characters, then the murmur3 finalizer to spread the bits across both halves
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private final class Generation {
+
+        private final AtomicLongArray words;
+        private final AtomicInteger added = new AtomicInteger();
+
+        Generation(int bitCount) {
+            this.words = new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        boolean mightContain(long hash) {
+            for (int i = 0; i < hashCount; i++) {
+                int bit = bit(hash, i);
+                if ((words.get(bit / Long.SIZE) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int add(long hash) {
+            for (int i = 0; i < hashCount; i++) {
+                int bit = bit(hash, i);
+                long mask = 1L << bit;
+                words.getAndAccumulate(bit / Long.SIZE, mask, (word, m) -> word | m);
+            }
+            return added.incrementAndGet();
+        }
+
+        // Double hashing: the i-th probe is h1 + i * h2, which behaves like independent hash functions
+        private int bit(long hash, int i) {
+            long combined = (int) hash + (long) i * (int) (hash >>> 32);
+            return (int) Math.floorMod(combined, (long) bitCount);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeyOrderedDispatcherTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("restaurant-events", 0);
+
+    @Mock
+    private ConsumerRecordRecoverer deadLetterRecoverer;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KeyOrderedDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // "a" and "b" hash to different lanes out of four, "a" and "e" to the same one
+        dispatcher = dispatcher(new FixedBackOff(0, 2), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should handle different keys concurrently and each key in order")
+    void wrap_ParallelAcrossKeys_OrderedPerKey() throws Exception {
+        CountDownLatch secondKeyHandled = new CountDownLatch(1);
+        Map<Object, List<Long>> handled = new ConcurrentHashMap<>();
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            // The first "a" record waits for "b", which only finishes if it runs on another lane
+            if ("a".equals(record.key()) && record.offset() == 0) {
+                await(secondKeyHandled);
+            }
+            handled.computeIfAbsent(record.key(), key -> new CopyOnWriteArrayList<>()).add(record.offset());
+            if ("b".equals(record.key())) {
+                secondKeyHandled.countDown();
+            }
+        });
+        Acknowledgment last = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), mock(Acknowledgment.class), null);
+        listener.onMessage(record("a", 0, 1), mock(Acknowledgment.class), null);
+        listener.onMessage(record("b", 0, 2), mock(Acknowledgment.class), null);
+        listener.onMessage(record("a", 0, 3), last, null);
+
+        verify(last, timeout(2000)).acknowledge();
+        assertThat(handled.get("a")).containsExactly(0L, 1L, 3L);
+        assertThat(handled.get("b")).containsExactly(2L);
+        assertThat(records("success")).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a partition only up to its oldest unfinished record")
+    void wrap_AcknowledgesInOffsetOrder() {
+        CountDownLatch release = new CountDownLatch(1);
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            if ("a".equals(record.key())) {
+                await(release);
+            }
+        });
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), first, null);
+        listener.onMessage(record("b", 0, 1), second, null);
+
+        verify(second, after(200).never()).acknowledge();
+        release.countDown();
+        // Acknowledging offset 1 commits offset 0 with it
+        verify(second, timeout(2000)).acknowledge();
+        verify(first, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Should keep handling other keys, in the same lane too, while one key backs off")
+    void wrap_KeyInBackoff_OtherKeysProgress() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher = dispatcher(new FixedBackOff(60_000, 1), 100);
+        CountDownLatch sameLaneHandled = new CountDownLatch(1);
+        Map<Object, List<Long>> handled = new ConcurrentHashMap<>();
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            handled.computeIfAbsent(record.key(), key -> new CopyOnWriteArrayList<>()).add(record.offset());
+            if ("a".equals(record.key())) {
+                throw new IllegalStateException("deadlock");
+            }
+            if ("e".equals(record.key())) {
+                sameLaneHandled.countDown();
+            }
+        });
+        Acknowledgment sameLane = mock(Acknowledgment.class);
+        Acknowledgment otherPartition = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), mock(Acknowledgment.class), null);
+        listener.onMessage(record("a", 0, 1), mock(Acknowledgment.class), null);
+        listener.onMessage(record("e", 0, 2), sameLane, null);
+        listener.onMessage(record("b", 1, 0), otherPartition, null);
+
+        await(sameLaneHandled);
+        verify(otherPartition, timeout(2000)).acknowledge();
+        // "e" ran behind "a" on the same lane, but its offset stays uncommitted until "a" is done
+        verify(sameLane, after(200).never()).acknowledge();
+        assertThat(handled.get("e")).containsExactly(2L);
+        assertThat(handled.get("a")).containsExactly(0L);
+        assertThat(meterRegistry.get("kafka.listener.lanes.parked").gauge().value()).isEqualTo(1.0);
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    @DisplayName("Should replay a parked key's records in order once its retry succeeds")
+    void wrap_RetrySucceeds_ReplaysParkedRecords() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher = dispatcher(new FixedBackOff(200, 1), 2);
+        AtomicInteger attempts = new AtomicInteger();
+        List<Long> handled = new CopyOnWriteArrayList<>();
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            if (record.offset() == 0 && attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("deadlock");
+            }
+            handled.add(record.offset());
+        });
+        Acknowledgment last = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), mock(Acknowledgment.class), null);
+        listener.onMessage(record("a", 0, 1), last, null);
+
+        // Two unfinished records reach the limit of two, so fetching pauses until they are done
+        verify(container).pausePartition(PARTITION_0);
+        verify(last, timeout(2000)).acknowledge();
+        verify(container).resumePartition(PARTITION_0);
+        assertThat(handled).containsExactly(0L, 1L);
+        assertThat(meterRegistry.get("kafka.listener.lanes.parked").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry a failing record and acknowledge it once it succeeds")
+    void wrap_RetriesThenSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("deadlock");
+            }
+        });
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), acknowledgment, null);
+
+        verify(acknowledgment, timeout(2000)).acknowledge();
+        assertThat(attempts).hasValue(3);
+        verifyNoInteractions(deadLetterRecoverer);
+        assertThat(records("failure")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a record once its retries run out")
+    void wrap_RetriesExhausted_DeadLetters() {
+        ConsumerRecord<Object, Object> record = record("a", 0, 0);
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((r, ack, consumer) -> {
+            throw new IllegalStateException("deadlock");
+        });
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onMessage(record, acknowledgment, null);
+
+        verify(acknowledgment, timeout(2000)).acknowledge();
+        verify(deadLetterRecoverer).accept(same(record), any(IllegalStateException.class));
+        assertThat(records("failure")).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an undecodable record without retrying")
+    void wrap_NotRetryable_DeadLettersImmediately() {
+        AtomicInteger attempts = new AtomicInteger();
+        AcknowledgingConsumerAwareMessageListener<Object, Object> listener = wrap((record, ack, consumer) -> {
+            attempts.incrementAndGet();
+            throw new UncheckedIOException(new IOException("bad payload"));
+        });
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onMessage(record("a", 0, 0), acknowledgment, null);
+
+        verify(acknowledgment, timeout(2000)).acknowledge();
+        verify(deadLetterRecoverer).accept(any(), any());
+        assertThat(attempts).hasValue(1);
+    }
+
+    private KeyOrderedDispatcher dispatcher(BackOff backOff, int maxPendingPerPartition) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new KeyOrderedDispatcher(4, maxPendingPerPartition, backOff, List.of(IOException.class),
+                deadLetterRecoverer, new ListenerMetricsInterceptor(meterRegistry), meterRegistry);
+    }
+
+    private AcknowledgingConsumerAwareMessageListener<Object, Object> wrap(
+            AcknowledgingConsumerAwareMessageListener<Object, Object> listener) {
+        ContainerProperties properties = new ContainerProperties("restaurant-events");
+        properties.setMessageListener(listener);
+        when(container.getContainerProperties()).thenReturn(properties);
+        return dispatcher.wrap(container);
+    }
+
+    private double records(String result) {
+        return meterRegistry.find("kafka.listener.records").tag("result", result).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static ConsumerRecord<Object, Object> record(String key, int partition, long offset) {
+        return new ConsumerRecord<>("restaurant-events", partition, offset, key, new byte[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
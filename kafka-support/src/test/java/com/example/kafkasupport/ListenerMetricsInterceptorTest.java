@@ -0,0 +1,73 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.KafkaBackoffException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListenerMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ListenerMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ListenerMetricsInterceptor(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should count outcomes per source topic and retry tier")
+    void countsPerTier() {
+        interceptor.success(record("order-events"), null);
+        interceptor.failure(record("order-events"), new IllegalStateException("boom"), null);
+        interceptor.failure(record("order-events-retry-0"), new IllegalStateException("boom"), null);
+        interceptor.success(record("order-events-retry-1"), null);
+        interceptor.success(record("order-events-dlt"), null);
+
+        assertThat(count("order-events", "main", "success")).isEqualTo(1.0);
+        assertThat(count("order-events", "main", "failure")).isEqualTo(1.0);
+        assertThat(count("order-events", "retry-0", "failure")).isEqualTo(1.0);
+        assertThat(count("order-events", "retry-1", "success")).isEqualTo(1.0);
+        assertThat(count("order-events", "dlt", "success")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not count a retry record that is paused until its delay has passed")
+    void ignoresBackoff() {
+        KafkaBackoffException backoff = new KafkaBackoffException("not due",
+                new TopicPartition("order-events-retry-0", 0), "listener", System.currentTimeMillis() + 1000);
+
+        interceptor.failure(record("order-events-retry-0"), new ListenerExecutionFailedException("paused", backoff), null);
+
+        assertThat(meterRegistry.find("kafka.listener.records").counters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should count lane retries as failures and recovered records as dead-lettered")
+    void countsLaneRetries() {
+        interceptor.failedDelivery(record("order-events"), new IllegalStateException("boom"), 1);
+        interceptor.recovered(record("order-events"), new IllegalStateException("boom"));
+
+        assertThat(count("order-events", "main", "failure")).isEqualTo(1.0);
+        assertThat(count("order-events", "dlt", "success")).isEqualTo(1.0);
+    }
+
+    private double count(String topic, String tier, String result) {
+        Counter counter = meterRegistry.find("kafka.listener.records")
+                .tags("topic", topic, "tier", tier, "result", result)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static ConsumerRecord<Object, Object> record(String topic) {
+        return new ConsumerRecord<>(topic, 0, 0, null, new byte[0]);
+    }
+}
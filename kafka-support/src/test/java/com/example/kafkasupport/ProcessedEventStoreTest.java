@@ -0,0 +1,139 @@
+package com.example.kafkasupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedEventStoreTest {
+
+    @Mock
+    private ProcessedEventRepository repository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private final Set<String> table = new HashSet<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessedEventStore store;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new ProcessedEventStore(repository, transactionTemplate, meterRegistry,
+                Duration.ofDays(7), 1000, 0.01, Duration.ofHours(1));
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0))
+                        .doInTransaction(transactionStatus));
+        lenient().when(repository.existsById(any())).thenAnswer(invocation -> table.contains(invocation.<String>getArgument(0)));
+        lenient().when(repository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<ProcessedEvent> events = invocation.getArgument(0);
+            events.forEach(event -> table.add(event.getId()));
+            return events;
+        });
+    }
+
+    @Test
+    @DisplayName("Should handle a new event without looking it up and skip its redelivery")
+    void runOnce_RedeliveryIsSkipped() {
+        ConsumerRecord<String, byte[]> record = record(UUID.randomUUID().toString(), 0);
+        AtomicInteger handled = new AtomicInteger();
+
+        assertThat(store.runOnce(record, "ORDER_READY", handled::incrementAndGet)).isTrue();
+        verify(repository, never()).existsById(any());
+
+        assertThat(store.runOnce(record, "ORDER_READY", handled::incrementAndGet)).isFalse();
+        assertThat(handled).hasValue(1);
+        assertThat(meterRegistry.counter("kafka.listener.dedup", "result", "duplicate").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should run a failed event again on redelivery")
+    void runOnce_FailedHandlerIsNotRecorded() {
+        ConsumerRecord<String, byte[]> record = record(UUID.randomUUID().toString(), 0);
+        AtomicInteger attempts = new AtomicInteger();
+        Runnable handler = () -> {
+            if (attempts.incrementAndGet() == 1) {
+                // The mocked transaction does not roll back, so undo the insert the way a rollback would
+                table.clear();
+                throw new IllegalStateException("deadlock");
+            }
+        };
+
+        assertThatThrownBy(() -> store.runOnce(record, "ORDER_READY", handler)).isInstanceOf(IllegalStateException.class);
+        assertThat(store.runOnce(record, "ORDER_READY", handler)).isTrue();
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should roll back without handling when another consumer recorded the event first")
+    void runOnce_ConcurrentlyRecorded() {
+        ConsumerRecord<String, byte[]> record = record(UUID.randomUUID().toString(), 0);
+        when(repository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        AtomicInteger handled = new AtomicInteger();
+
+        assertThat(store.runOnce(record, "ORDER_READY", handled::incrementAndGet)).isFalse();
+
+        assertThat(handled).hasValue(0);
+        verify(transactionStatus).setRollbackOnly();
+    }
+
+    @Test
+    @DisplayName("Should key events by type and header id, or by offset when the header is missing")
+    void eventId_HeaderOrOffset() {
+        String id = UUID.randomUUID().toString();
+
+        assertThat(ProcessedEventStore.eventId(record(id, 7), "ORDER_READY")).isEqualTo("ORDER_READY:" + id);
+        assertThat(ProcessedEventStore.eventId(record(null, 7), "ORDER_READY"))
+                .isEqualTo("ORDER_READY:restaurant-events-0@7");
+    }
+
+    @Test
+    @DisplayName("Should recognise events processed before a restart once warmed up")
+    void warmUp_LoadsRecentEvents() {
+        ConsumerRecord<String, byte[]> record = record(UUID.randomUUID().toString(), 0);
+        String eventId = ProcessedEventStore.eventId(record, "ORDER_READY");
+        table.add(eventId);
+        when(repository.findIdsProcessedSince(any(), any())).thenReturn(List.of(eventId));
+
+        store.warmUp();
+
+        assertThat(store.isProcessed(record, "ORDER_READY")).isTrue();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String eventId, long offset) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("restaurant-events", 0, offset, "key", new byte[0]);
+        if (eventId != null) {
+            record.headers().add(EventCodec.EVENT_ID_HEADER, eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
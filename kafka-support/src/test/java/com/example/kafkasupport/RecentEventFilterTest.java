@@ -0,0 +1,46 @@
+package com.example.kafkasupport;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentEventFilterTest {
+
+    @Test
+    @DisplayName("Should find every added id and few that were never added")
+    void mightContain_NoFalseNegatives() {
+        RecentEventFilter filter = new RecentEventFilter(10_000, 0.01);
+        String[] added = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+        for (String id : added) {
+            filter.add(id);
+        }
+
+        assertThat(added).allMatch(filter::mightContain);
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    @DisplayName("Should forget the oldest ids once two generations have filled")
+    void add_OldestGenerationAgesOut() {
+        RecentEventFilter filter = new RecentEventFilter(100, 0.001);
+        filter.add("first");
+        for (int i = 0; i < 99; i++) {
+            filter.add("old-" + i);
+        }
+        assertThat(filter.mightContain("first")).isTrue();
+
+        for (int i = 0; i < 100; i++) {
+            filter.add("new-" + i);
+        }
+
+        assertThat(filter.mightContain("first")).isFalse();
+        assertThat(filter.mightContain("new-0")).isTrue();
+    }
+}
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Runs order-service.js twice, once on platform threads and once on virtual threads, and prints
+# throughput, p99 latency and peak JVM thread count for each run.
+set -euo pipefail
+
+COMPOSE_FILE=${COMPOSE_FILE:-docker-compose.full.yml}
+BASE_URL=${BASE_URL:-http://localhost:8081}
+RESULTS_DIR=${RESULTS_DIR:-load-tests/results}
+: "${TOKEN:?Set TOKEN to a CUSTOMER access token}"
+
+cd "$(dirname "$0")/.."
+mkdir -p "$RESULTS_DIR"
+
+wait_for_health() {
+    for _ in $(seq 1 60); do
+        if curl -fs "$BASE_URL/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo "order-service did not become healthy" >&2
+    exit 1
+}
+
+for mode in false true; do
+    echo "==> VIRTUAL_THREADS_ENABLED=$mode"
+    VIRTUAL_THREADS_ENABLED=$mode docker compose -f "$COMPOSE_FILE" up -d --no-deps --force-recreate order-service
+    wait_for_health
+
+    k6 run --quiet \
+        -e BASE_URL="$BASE_URL" -e TOKEN="$TOKEN" -e VUS="${VUS:-2000}" -e DURATION="${DURATION:-2m}" \
+        --summary-export "$RESULTS_DIR/virtual-$mode.json" \
+        load-tests/order-service.js
+
+    peak_threads=$(curl -fs -H "Authorization: Bearer $TOKEN" "$BASE_URL/actuator/metrics/jvm.threads.peak" \
+        | sed -n 's/.*"value":\([0-9.]*\).*/\1/p')
+    jq -r --arg mode "$mode" --arg threads "${peak_threads:-n/a}" \
+        '"virtual=\($mode)  req/s=\(.metrics.http_reqs.rate | floor)  p99=\(.metrics.http_req_duration["p(99)"] | floor)ms  failed=\(.metrics.http_req_failed.value * 100 | floor)%  peak platform threads=\($threads)"' \
+        "$RESULTS_DIR/virtual-$mode.json"
+done
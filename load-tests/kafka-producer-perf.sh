@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Measures producer throughput (events/sec) and latency against the compose Kafka broker, once with the
+# client defaults the services used before and once with the tuned producer settings from application.yml.
+set -euo pipefail
+
+COMPOSE_FILE=${COMPOSE_FILE:-docker-compose.full.yml}
+RECORDS=${RECORDS:-500000}
+THROUGHPUT=${THROUGHPUT:--1}
+TOPIC=${TOPIC:-producer-perf}
+RESULTS_DIR=${RESULTS_DIR:-load-tests/results}
+
+cd "$(dirname "$0")/.."
+mkdir -p "$RESULTS_DIR"
+
+kafka() {
+    docker compose -f "$COMPOSE_FILE" exec -T kafka "$@"
+}
+
+# JSON shaped like the order and payment events, so compression sees realistic payloads
+kafka bash -c 'for i in $(seq 1 200); do
+    printf "{\"eventType\":\"ORDER_CREATED\",\"orderId\":\"%s\",\"customerId\":\"%s\",\"restaurantId\":\"%s\",\"totalPrice\":%d.%02d,\"deliveryAddress\":\"%d Main St\",\"items\":[{\"menuItemId\":\"%s\",\"name\":\"Margherita\",\"price\":12.99,\"quantity\":%d}],\"createdAt\":\"2024-06-01T12:00:00Z\"}\n" \
+        "$(cat /proc/sys/kernel/random/uuid)" "$(cat /proc/sys/kernel/random/uuid)" "$(cat /proc/sys/kernel/random/uuid)" \
+        $((RANDOM % 90 + 10)) $((RANDOM % 100)) $i "$(cat /proc/sys/kernel/random/uuid)" $((RANDOM % 4 + 1))
+done > /tmp/events.json'
+
+kafka kafka-topics --bootstrap-server localhost:9092 --create --if-not-exists \
+    --topic "$TOPIC" --partitions 3 --replication-factor 1 > /dev/null
+
+run() {
+    local name=$1
+    shift
+    echo "==> $name"
+    kafka kafka-producer-perf-test --topic "$TOPIC" --num-records "$RECORDS" --throughput "$THROUGHPUT" \
+        --payload-file /tmp/events.json --producer-props bootstrap.servers=localhost:9092 "$@" \
+        | tee "$RESULTS_DIR/producer-$name.txt" | tail -n 1
+}
+
+run baseline acks=all linger.ms=0 batch.size=16384 compression.type=none
+run tuned acks=all linger.ms=10 batch.size=65536 compression.type=lz4 \
+    enable.idempotence=true max.in.flight.requests.per.connection=5
+run tuned-zstd acks=all linger.ms=10 batch.size=65536 compression.type=zstd \
+    enable.idempotence=true max.in.flight.requests.per.connection=5
@@ -0,0 +1,69 @@
+// Mixed read/write load against order-service, used to compare platform and virtual threads.
+// Required: TOKEN (a CUSTOMER access token). Optional: BASE_URL, VUS, DURATION.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '2000', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+const headers = {
+    'Authorization': `Bearer ${__ENV.TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'ramping-vus',
+            exec: 'readOrder',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Math.floor(VUS * 0.9) },
+                { duration: DURATION, target: Math.floor(VUS * 0.9) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+        writes: {
+            executor: 'ramping-vus',
+            exec: 'createOrder',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Math.ceil(VUS * 0.1) },
+                { duration: DURATION, target: Math.ceil(VUS * 0.1) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function orderPayload() {
+    return JSON.stringify({
+        restaurantId: '00000000-0000-0000-0000-000000000001',
+        deliveryAddress: '123 Main Street, Apt 4B, New York, NY 10001',
+        paymentMethod: 'CREDIT_CARD',
+        items: [
+            { menuItemId: '00000000-0000-0000-0000-000000000011', name: 'Margherita Pizza', quantity: 2, price: 14.99 },
+            { menuItemId: '00000000-0000-0000-0000-000000000013', name: 'Garlic Bread', quantity: 1, price: 5.99 },
+        ],
+    });
+}
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/orders`, orderPayload(), { headers });
+    if (res.status !== 201) {
+        throw new Error(`Could not create the seed order: ${res.status} ${res.body}`);
+    }
+    return { orderId: res.json('id') };
+}
+
+export function readOrder(data) {
+    const res = http.get(`${BASE_URL}/api/orders/${data.orderId}`, { headers, tags: { name: 'GET /api/orders/{id}' } });
+    check(res, { 'read 200': (r) => r.status === 200 });
+}
+
+export function createOrder() {
+    const res = http.post(`${BASE_URL}/api/orders`, orderPayload(), { headers, tags: { name: 'POST /api/orders' } });
+    check(res, { 'create 201': (r) => r.status === 201 });
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.dto.order.CreateOrderRequest;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.entity.Payment;
+import com.example.orderservice.entity.PaymentMethod;
+import com.example.orderservice.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Deterministic, realistic-looking orders shared by the benchmarks
+public final class BenchmarkOrders {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-05-01T12:00:00Z");
+
+    private BenchmarkOrders() {
+    }
+
+    public static Order order(int itemCount) {
+        Order order = Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .status(OrderStatus.CONFIRMED)
+                .deliveryAddress("221B Baker Street, London")
+                .deliveryLat(new BigDecimal("51.52377200"))
+                .deliveryLng(new BigDecimal("-0.15854700"))
+                .customerNotes("Ring the bell twice")
+                .version(3L)
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT.plusSeconds(90))
+                .confirmedAt(CREATED_AT.plusSeconds(60))
+                .build();
+
+        for (OrderItem item : items(itemCount)) {
+            order.addItem(item);
+        }
+        order.setTotalPrice(order.getItems().stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        order.setPayment(Payment.builder()
+                .id(UUID.randomUUID())
+                .order(order)
+                .amount(order.getTotalPrice())
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .status(PaymentStatus.COMPLETED)
+                .transactionId("TXN-" + UUID.randomUUID())
+                .version(1L)
+                .paidAt(CREATED_AT.plusSeconds(60))
+                .build());
+        return order;
+    }
+
+    public static List<CreateOrderRequest.OrderItemRequest> itemRequests(int itemCount) {
+        List<CreateOrderRequest.OrderItemRequest> requests = new ArrayList<>(itemCount);
+        for (OrderItem item : items(itemCount)) {
+            CreateOrderRequest.OrderItemRequest request = new CreateOrderRequest.OrderItemRequest();
+            request.setMenuItemId(item.getMenuItemId());
+            request.setName(item.getName());
+            request.setPrice(item.getPrice());
+            request.setQuantity(item.getQuantity());
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static List<OrderItem> items(int itemCount) {
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(OrderItem.builder()
+                    .id(UUID.randomUUID())
+                    .menuItemId(UUID.randomUUID())
+                    .name("Menu item " + i)
+                    .price(new BigDecimal("4.99").add(BigDecimal.valueOf(i, 2)))
+                    .quantity(1 + i % 3)
+                    .specialInstructions(i % 2 == 0 ? "No onions" : null)
+                    .createdAt(CREATED_AT)
+                    .build());
+        }
+        return items;
+    }
+}
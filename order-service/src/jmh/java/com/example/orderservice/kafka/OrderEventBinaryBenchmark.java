@@ -0,0 +1,91 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.benchmark.BenchmarkOrders;
+import com.example.orderservice.dto.event.OrderAcceptedEvent;
+import com.example.orderservice.dto.event.OrderCreatedEvent;
+import com.example.orderservice.mapper.OrderItemMapper;
+import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.mapper.PaymentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Binary counterparts of OrderEventJsonBenchmark, on the same events
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderEventBinaryBenchmark {
+
+    private EventCodec eventCodec;
+    private OrderCreatedEvent orderCreatedEvent;
+    private ConsumerRecord<String, byte[]> orderAcceptedRecord;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        eventCodec = new EventCodec(objectMapper, OrderCreatedEvent.class.getPackageName());
+        OrderMapper orderMapper = new OrderMapper(new OrderItemMapper(), new PaymentMapper());
+        orderCreatedEvent = orderMapper.toOrderCreatedEvent(BenchmarkOrders.order(5));
+
+        OrderAcceptedEvent orderAcceptedEvent = OrderAcceptedEvent.builder()
+                .eventType("ORDER_ACCEPTED")
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .restaurantName("Trattoria Roma")
+                .restaurantAddress("12 Via Appia, Rome")
+                .restaurantLat(new BigDecimal("41.85000000"))
+                .restaurantLng(new BigDecimal("12.55000000"))
+                .deliveryAddress("221B Baker Street, London")
+                .totalPrice(new BigDecimal("42.50"))
+                .estimatedPrepTimeMinutes(25)
+                .customerNotes("Ring the bell twice")
+                .acceptedAt(Instant.parse("2024-05-01T12:01:00Z"))
+                .build();
+        EventCodec.EncodedEvent encoded = eventCodec.encode(orderAcceptedEvent);
+        orderAcceptedRecord = new ConsumerRecord<>("restaurant-events", 0, 0, null, encoded.payload());
+        orderAcceptedRecord.headers().add(EventCodec.EVENT_TYPE_HEADER, encoded.eventType().getBytes(StandardCharsets.UTF_8));
+
+        System.out.printf("%nOrderCreatedEvent: %d bytes JSON, %d bytes binary; OrderAcceptedEvent: %d bytes JSON, %d bytes binary%n",
+                objectMapper.writeValueAsBytes(orderCreatedEvent).length, eventCodec.encode(orderCreatedEvent).payload().length,
+                objectMapper.writeValueAsBytes(orderAcceptedEvent).length, encoded.payload().length);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderCreatedEvent() throws Exception {
+        return eventCodec.encode(orderCreatedEvent).payload();
+    }
+
+    // The path the listeners take now: dispatch on the header, then decode once
+    @Benchmark
+    public OrderAcceptedEvent listenerHeaderThenDecode() throws Exception {
+        String eventType = eventCodec.eventType(orderAcceptedRecord);
+        if (!"ORDER_ACCEPTED".equals(eventType)) {
+            throw new IllegalStateException(eventType);
+        }
+        return eventCodec.decode(orderAcceptedRecord.value(), OrderAcceptedEvent.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.orderservice.kafka;
+
+import com.example.orderservice.benchmark.BenchmarkOrders;
+import com.example.orderservice.dto.event.OrderAcceptedEvent;
+import com.example.orderservice.dto.event.OrderCreatedEvent;
+import com.example.orderservice.mapper.OrderItemMapper;
+import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.mapper.PaymentMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderEventJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OrderCreatedEvent orderCreatedEvent;
+    private String orderAcceptedMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same defaults as the mapper Spring Boot injects into the producer and listeners
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        OrderMapper orderMapper = new OrderMapper(new OrderItemMapper(), new PaymentMapper());
+        orderCreatedEvent = orderMapper.toOrderCreatedEvent(BenchmarkOrders.order(5));
+        orderAcceptedMessage = objectMapper.writeValueAsString(OrderAcceptedEvent.builder()
+                .eventType("ORDER_ACCEPTED")
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .restaurantName("Trattoria Roma")
+                .restaurantAddress("12 Via Appia, Rome")
+                .restaurantLat(new BigDecimal("41.85000000"))
+                .restaurantLng(new BigDecimal("12.55000000"))
+                .deliveryAddress("221B Baker Street, London")
+                .totalPrice(new BigDecimal("42.50"))
+                .estimatedPrepTimeMinutes(25)
+                .customerNotes("Ring the bell twice")
+                .acceptedAt(Instant.parse("2024-05-01T12:01:00Z"))
+                .build());
+    }
+
+    @Benchmark
+    public byte[] serializeOrderCreatedEvent() throws Exception {
+        return objectMapper.writeValueAsBytes(orderCreatedEvent);
+    }
+
+    // The path OrderEventsListener takes: parse to a tree to read eventType, then bind the tree
+    @Benchmark
+    public OrderAcceptedEvent listenerReadTreeThenBind() throws Exception {
+        JsonNode jsonNode = objectMapper.readTree(orderAcceptedMessage);
+        String eventType = jsonNode.has("eventType") ? jsonNode.get("eventType").asText() : "";
+        if (!"ORDER_ACCEPTED".equals(eventType)) {
+            throw new IllegalStateException(eventType);
+        }
+        return objectMapper.treeToValue(jsonNode, OrderAcceptedEvent.class);
+    }
+
+    // Baseline for the listener path: binding straight from the message
+    @Benchmark
+    public OrderAcceptedEvent directReadValue() throws Exception {
+        return objectMapper.readValue(orderAcceptedMessage, OrderAcceptedEvent.class);
+    }
+}
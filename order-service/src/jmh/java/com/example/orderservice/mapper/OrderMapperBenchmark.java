@@ -0,0 +1,56 @@
+package com.example.orderservice.mapper;
+
+import com.example.orderservice.benchmark.BenchmarkOrders;
+import com.example.orderservice.dto.event.OrderCreatedEvent;
+import com.example.orderservice.dto.order.OrderDto;
+import com.example.orderservice.dto.order.OrderSummaryDto;
+import com.example.orderservice.entity.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private OrderMapper orderMapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderMapper = new OrderMapper(new OrderItemMapper(), new PaymentMapper());
+        order = BenchmarkOrders.order(itemCount);
+    }
+
+    @Benchmark
+    public OrderDto toDto() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public OrderSummaryDto toSummaryDto() {
+        return orderMapper.toSummaryDto(order);
+    }
+
+    @Benchmark
+    public OrderCreatedEvent toOrderCreatedEvent() {
+        return orderMapper.toOrderCreatedEvent(order);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.benchmark.BenchmarkOrders;
+import com.example.orderservice.dto.order.CreateOrderRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private List<CreateOrderRequest.OrderItemRequest> items;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkOrders.itemRequests(itemCount);
+    }
+
+    // What createOrder does: price the items, then convert once for the entity
+    @Benchmark
+    public BigDecimal calculateTotalPrice() {
+        return OrderServiceImpl.calculateTotalPrice(items).toBigDecimal();
+    }
+
+    // The previous BigDecimal stream implementation, kept as the comparison point
+    @Benchmark
+    public BigDecimal bigDecimalBaseline() {
+        return items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
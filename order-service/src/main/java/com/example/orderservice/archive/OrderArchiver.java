@@ -0,0 +1,83 @@
+package com.example.orderservice.archive;
+
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiver {
+
+    static final List<String> FINAL_STATUSES = List.of(
+            OrderStatus.DELIVERED.name(),
+            OrderStatus.CANCELLED.name(),
+            OrderStatus.REJECTED.name()
+    );
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.archive.min-age:P30D}")
+    private Duration minAge;
+
+    @Value("${app.orders.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.orders.archive.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    // Unset keeps archived orders forever
+    @Value("${app.orders.archive.retention:}")
+    private Duration retention;
+
+    // Each batch commits on its own so row locks and WAL stay bounded on large backlogs
+    @Scheduled(cron = "${app.orders.archive.cron:0 30 3 * * *}")
+    public void archiveFinalizedOrders() {
+        Instant cutoff = Instant.now().minus(minAge);
+        long total = 0;
+        int archived;
+        do {
+            Integer count = transactionTemplate.execute(
+                    status -> orderRepository.archiveFinalizedBefore(FINAL_STATUSES, cutoff, batchSize));
+            archived = count != null ? count : 0;
+            total += archived;
+        } while (archived == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} finalized orders created before {}", total, cutoff);
+        }
+    }
+
+    @Scheduled(cron = "${app.orders.archive.partition-cron:0 0 2 * * *}")
+    @Transactional
+    public void createUpcomingPartitions() {
+        int created = orderRepository.createPartitions(partitionsAhead);
+        if (created > 0) {
+            log.info("Created {} monthly order partitions", created);
+        }
+    }
+
+    // Live months are dropped once they are older than minAge and the archiver has emptied them; archive months
+    // are dropped past the retention together with their orders' items and payments
+    @Scheduled(cron = "${app.orders.archive.retention-cron:0 0 4 * * *}")
+    @Transactional
+    public void dropExpiredPartitions() {
+        Instant now = Instant.now();
+        Instant archiveBefore = retention != null ? now.minus(retention) : null;
+        int dropped = orderRepository.dropExpiredPartitions(now.minus(minAge), archiveBefore);
+        if (dropped > 0) {
+            log.info("Dropped {} expired monthly order partitions", dropped);
+        }
+    }
+}
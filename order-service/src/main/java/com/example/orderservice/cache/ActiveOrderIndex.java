@@ -0,0 +1,232 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.dto.order.OrderSummaryDto;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Active orders per restaurant, so kitchen dashboards read memory instead of scanning the orders table
+@Component
+@Slf4j
+public class ActiveOrderIndex {
+
+    public static final Set<OrderStatus> ACTIVE_STATUSES = Collections.unmodifiableSet(EnumSet.of(
+            OrderStatus.PENDING,
+            OrderStatus.CONFIRMED,
+            OrderStatus.ACCEPTED_BY_RESTAURANT,
+            OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP,
+            OrderStatus.PICKED_UP,
+            OrderStatus.IN_DELIVERY
+    ));
+
+    private static final Comparator<ActiveOrder> OLDEST_FIRST =
+            Comparator.comparing(ActiveOrder::createdAt).thenComparing(ActiveOrder::id);
+
+    private final OrderRepository orderRepository;
+
+    // Writers serialize per order on byId; readers only touch byRestaurant and never block
+    private final Map<UUID, ActiveOrder> byId = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<UUID, ActiveOrder>> byRestaurant = new ConcurrentHashMap<>();
+
+    public ActiveOrderIndex(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        Gauge.builder("order.active.index.orders", byId, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("order.active.index.restaurants", byRestaurant, Map::size)
+                .register(meterRegistry);
+    }
+
+    // Runs before listener containers and the web server start, so no write through this instance can race the
+    // initial load. Writes through other instances can, and their invalidations are not subscribed to yet; see
+    // reconcile().
+    @PostConstruct
+    public void rebuild() {
+        List<OrderSummaryDto> active = orderRepository.findSummariesByStatusIn(ACTIVE_STATUSES);
+        byId.clear();
+        byRestaurant.clear();
+        active.forEach(summary -> put(ActiveOrder.from(summary)));
+        log.info("Indexed {} active orders across {} restaurants", byId.size(), byRestaurant.size());
+    }
+
+    // Once the invalidation listener is subscribed, re-reads every order whose active state changed since the initial
+    // load, which covers changes other instances committed while this one was starting
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        Map<UUID, ActiveOrder> active = new HashMap<>();
+        orderRepository.findSummariesByStatusIn(ACTIVE_STATUSES)
+                .forEach(summary -> active.put(summary.getId(), ActiveOrder.from(summary)));
+        Set<UUID> changed = new HashSet<>();
+        active.forEach((orderId, order) -> {
+            if (!order.equals(byId.get(orderId))) {
+                changed.add(orderId);
+            }
+        });
+        byId.keySet().stream()
+                .filter(orderId -> !active.containsKey(orderId))
+                .forEach(changed::add);
+        // Each reload reads the committed row, so a write made here since the query above is not undone
+        changed.forEach(this::reload);
+        if (!changed.isEmpty()) {
+            log.info("Reconciled {} active orders changed during startup", changed.size());
+        }
+    }
+
+    public List<OrderSummaryDto> findByRestaurant(UUID restaurantId) {
+        Map<UUID, ActiveOrder> orders = byRestaurant.get(restaurantId);
+        if (orders == null) {
+            return List.of();
+        }
+        return orders.values().stream()
+                .sorted(OLDEST_FIRST)
+                .map(ActiveOrder::toSummary)
+                .toList();
+    }
+
+    // Snapshot is taken now; the caller must have the order's items loaded when it is active
+    public void track(Order order) {
+        UUID orderId = order.getId();
+        if (!ACTIVE_STATUSES.contains(order.getStatus())) {
+            afterCommit(() -> remove(orderId));
+            return;
+        }
+        ActiveOrder snapshot = ActiveOrder.from(order);
+        afterCommit(() -> put(snapshot));
+    }
+
+    public void updateStatus(UUID orderId, OrderStatus status, Instant estimatedDeliveryTime) {
+        afterCommit(() -> {
+            if (!ACTIVE_STATUSES.contains(status)) {
+                remove(orderId);
+                return;
+            }
+            ActiveOrder updated = byId.computeIfPresent(orderId,
+                    (id, existing) -> link(existing.withStatus(status, estimatedDeliveryTime)));
+            if (updated == null) {
+                reload(orderId);
+            }
+        });
+    }
+
+    public void untrack(UUID orderId) {
+        afterCommit(() -> remove(orderId));
+    }
+
+    // Picks up changes committed by other instances
+    public void reload(UUID orderId) {
+        orderRepository.findSummaryById(orderId)
+                .filter(summary -> ACTIVE_STATUSES.contains(summary.getStatus()))
+                .ifPresentOrElse(summary -> put(ActiveOrder.from(summary)), () -> remove(orderId));
+    }
+
+    private void put(ActiveOrder order) {
+        byId.compute(order.id(), (id, existing) -> {
+            if (existing != null && !existing.restaurantId().equals(order.restaurantId())) {
+                unlink(existing);
+            }
+            return link(order);
+        });
+    }
+
+    private void remove(UUID orderId) {
+        byId.computeIfPresent(orderId, (id, existing) -> {
+            unlink(existing);
+            return null;
+        });
+    }
+
+    private ActiveOrder link(ActiveOrder order) {
+        byRestaurant.compute(order.restaurantId(), (restaurantId, orders) -> {
+            Map<UUID, ActiveOrder> target = orders != null ? orders : new ConcurrentHashMap<>();
+            target.put(order.id(), order);
+            return target;
+        });
+        return order;
+    }
+
+    private void unlink(ActiveOrder order) {
+        byRestaurant.computeIfPresent(order.restaurantId(), (restaurantId, orders) -> {
+            orders.remove(order.id());
+            return orders.isEmpty() ? null : orders;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Only the fields the dashboard shows; the entity graph is never retained
+    record ActiveOrder(
+            UUID id,
+            UUID restaurantId,
+            OrderStatus status,
+            BigDecimal totalPrice,
+            String deliveryAddress,
+            int itemCount,
+            Instant createdAt,
+            Instant estimatedDeliveryTime
+    ) {
+
+        static ActiveOrder from(Order order) {
+            return new ActiveOrder(order.getId(), order.getRestaurantId(), order.getStatus(), order.getTotalPrice(),
+                    order.getDeliveryAddress(), order.getItems().size(), order.getCreatedAt(),
+                    order.getEstimatedDeliveryTime());
+        }
+
+        static ActiveOrder from(OrderSummaryDto summary) {
+            return new ActiveOrder(summary.getId(), summary.getRestaurantId(), summary.getStatus(),
+                    summary.getTotalPrice(), summary.getDeliveryAddress(),
+                    summary.getItemCount() != null ? summary.getItemCount() : 0, summary.getCreatedAt(),
+                    summary.getEstimatedDeliveryTime());
+        }
+
+        ActiveOrder withStatus(OrderStatus newStatus, Instant newEstimatedDeliveryTime) {
+            return new ActiveOrder(id, restaurantId, newStatus, totalPrice, deliveryAddress, itemCount, createdAt,
+                    newEstimatedDeliveryTime != null ? newEstimatedDeliveryTime : estimatedDeliveryTime);
+        }
+
+        OrderSummaryDto toSummary() {
+            return OrderSummaryDto.builder()
+                    .id(id)
+                    .restaurantId(restaurantId)
+                    .status(status)
+                    .totalPrice(totalPrice)
+                    .deliveryAddress(deliveryAddress)
+                    .itemCount(itemCount)
+                    .createdAt(createdAt)
+                    .estimatedDeliveryTime(estimatedDeliveryTime)
+                    .build();
+        }
+    }
+}
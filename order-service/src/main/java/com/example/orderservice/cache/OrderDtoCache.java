@@ -0,0 +1,181 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.dto.order.OrderDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Two-tier order cache. Each order has a generation that every eviction bumps; a reader notes it before loading
+// and only writes its result back if it is unchanged, so a load that read the row before a write committed cannot
+// re-cache the old state after that write's eviction.
+@Component
+@Slf4j
+public class OrderDtoCache {
+
+    private static final String KEY_PREFIX = "order-dto:";
+    private static final String GENERATION_PREFIX = "order-dto-gen:";
+    // Only has to outlive a load that is in flight when the order is evicted
+    private static final Duration GENERATION_TTL = Duration.ofMinutes(10);
+    private static final int LOCAL_GENERATION_STRIPES = 1024;
+
+    private static final RedisScript<Boolean> SET_IF_GENERATION = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[1]) or '') == ARGV[1] then
+                redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Boolean.class);
+
+    private final Cache<UUID, OrderDto> localCache;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final Duration redisTtl;
+    private final String invalidationChannel;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    // Striped so memory stays fixed; orders sharing a stripe only cost each other a skipped local put
+    private final AtomicLongArray localGenerations = new AtomicLongArray(LOCAL_GENERATION_STRIPES);
+
+    public OrderDtoCache(
+            Cache<UUID, OrderDto> orderDtoLocalCache,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.orders.redis-enabled:true}") boolean redisEnabled,
+            @Value("${app.cache.orders.redis-ttl:PT60S}") Duration redisTtl,
+            @Value("${app.cache.orders.invalidation-channel:order-cache-invalidation}") String invalidationChannel
+    ) {
+        this.localCache = orderDtoLocalCache;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.redisTtl = redisTtl;
+        this.invalidationChannel = invalidationChannel;
+        this.redisHits = Counter.builder("order.cache.redis.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("order.cache.redis.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public OrderDto get(UUID orderId, Supplier<OrderDto> loader) {
+        OrderDto cached = localCache.getIfPresent(orderId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long localGeneration = localGenerations.get(stripe(orderId));
+        RedisEntry entry = readFromRedis(orderId);
+        OrderDto order = entry.order();
+        if (order == null) {
+            order = loader.get();
+            if (entry.readable()) {
+                writeToRedis(orderId, order, entry.generation());
+            }
+        }
+
+        // Evictions bump the generation before invalidating, so one that lands around the put is caught either way
+        localCache.put(orderId, order);
+        if (localGenerations.get(stripe(orderId)) != localGeneration) {
+            localCache.invalidate(orderId);
+        }
+        return order;
+    }
+
+    // Runs after commit, so a reader that loads after the eviction sees the committed state; one that loaded
+    // before it is turned away by the generation check
+    public void evict(UUID orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(orderId);
+                }
+            });
+        } else {
+            evictNow(orderId);
+        }
+    }
+
+    public void evictLocal(UUID orderId) {
+        localGenerations.incrementAndGet(stripe(orderId));
+        localCache.invalidate(orderId);
+    }
+
+    private void evictNow(UUID orderId) {
+        evictLocal(orderId);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            String generationKey = GENERATION_PREFIX + orderId;
+            redisTemplate.opsForValue().increment(generationKey);
+            redisTemplate.expire(generationKey, GENERATION_TTL);
+            redisTemplate.delete(KEY_PREFIX + orderId);
+            redisTemplate.convertAndSend(invalidationChannel, orderId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to evict order {} from Redis: {}", orderId, e.getMessage());
+        }
+    }
+
+    // The value and the generation it may be written back under, read together
+    private RedisEntry readFromRedis(UUID orderId) {
+        if (!redisEnabled) {
+            return RedisEntry.UNREADABLE;
+        }
+        try {
+            List<String> values = redisTemplate.opsForValue()
+                    .multiGet(List.of(KEY_PREFIX + orderId, GENERATION_PREFIX + orderId));
+            String json = values != null ? values.get(0) : null;
+            String generation = values != null && values.get(1) != null ? values.get(1) : "";
+            if (json == null) {
+                redisMisses.increment();
+                return new RedisEntry(null, generation, true);
+            }
+            redisHits.increment();
+            return new RedisEntry(objectMapper.readValue(json, OrderDto.class), generation, true);
+        } catch (Exception e) {
+            log.warn("Failed to read order {} from Redis: {}", orderId, e.getMessage());
+            return RedisEntry.UNREADABLE;
+        }
+    }
+
+    private void writeToRedis(UUID orderId, OrderDto order, String generation) {
+        try {
+            Boolean written = redisTemplate.execute(SET_IF_GENERATION,
+                    List.of(GENERATION_PREFIX + orderId, KEY_PREFIX + orderId),
+                    generation, objectMapper.writeValueAsString(order), String.valueOf(redisTtl.toMillis()));
+            if (!Boolean.TRUE.equals(written)) {
+                log.debug("Not caching order {}, it was evicted while loading", orderId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to write order {} to Redis: {}", orderId, e.getMessage());
+        }
+    }
+
+    private static int stripe(UUID orderId) {
+        return Math.floorMod(orderId.hashCode(), LOCAL_GENERATION_STRIPES);
+    }
+
+    private record RedisEntry(OrderDto order, String generation, boolean readable) {
+
+        static final RedisEntry UNREADABLE = new RedisEntry(null, null, false);
+    }
+}
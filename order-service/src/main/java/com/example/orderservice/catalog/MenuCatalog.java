@@ -0,0 +1,96 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.dto.event.MenuItemChangedEvent;
+import com.example.orderservice.dto.order.CreateOrderRequest;
+import com.example.orderservice.exception.InvalidOrderItemException;
+import com.example.orderservice.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Local replica of restaurant menus, fed from the compacted menu-catalog topic, so orders are priced
+// from the restaurant's own prices without a call to restaurant-service
+@Component
+@Slf4j
+public class MenuCatalog {
+
+    private final Map<UUID, CatalogItem> items = new ConcurrentHashMap<>();
+    private final Counter unvalidatedOrders;
+
+    private volatile boolean loaded;
+
+    public MenuCatalog(MeterRegistry meterRegistry) {
+        Gauge.builder("order.menu.catalog.items", items, Map::size)
+                .register(meterRegistry);
+        this.unvalidatedOrders = Counter.builder("order.menu.catalog.unvalidated")
+                .description("Orders accepted at client prices because the catalog was not loaded")
+                .register(meterRegistry);
+    }
+
+    // An empty log after replay means restaurant-service never published; refusing every order would be worse
+    public boolean isReady() {
+        return loaded && !items.isEmpty();
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    // A null event is a tombstone. Older versions are dropped so a startup snapshot racing a live edit
+    // cannot bring back a stale price.
+    public void apply(UUID menuItemId, MenuItemChangedEvent event) {
+        if (event == null) {
+            items.remove(menuItemId);
+            return;
+        }
+        CatalogItem incoming = CatalogItem.from(event);
+        items.merge(menuItemId, incoming, (existing, candidate) -> candidate.isOlderThan(existing) ? existing : candidate);
+    }
+
+    // Replaces the client's name and price with the catalog's, rejecting the order when the customer was
+    // shown a price that is no longer current
+    public void priceItems(UUID restaurantId, List<CreateOrderRequest.OrderItemRequest> requestItems) {
+        if (!isReady()) {
+            unvalidatedOrders.increment();
+            log.warn("Menu catalog not loaded; accepting client prices for restaurant {}", restaurantId);
+            return;
+        }
+
+        for (CreateOrderRequest.OrderItemRequest requestItem : requestItems) {
+            CatalogItem item = items.get(requestItem.getMenuItemId());
+            if (item == null || !item.restaurantId().equals(restaurantId)) {
+                throw new InvalidOrderItemException(
+                        "Menu item " + requestItem.getMenuItemId() + " is not on the menu of restaurant " + restaurantId);
+            }
+            if (!item.available()) {
+                throw new InvalidOrderItemException("Menu item '" + item.name() + "' is not available");
+            }
+            if (!Money.of(requestItem.getPrice()).equals(item.price())) {
+                throw new InvalidOrderItemException(
+                        "Price of '" + item.name() + "' has changed to " + item.price().toBigDecimal());
+            }
+            requestItem.setName(item.name());
+            requestItem.setPrice(item.price().toBigDecimal());
+        }
+    }
+
+    record CatalogItem(UUID restaurantId, String name, Money price, boolean available, Instant updatedAt) {
+
+        static CatalogItem from(MenuItemChangedEvent event) {
+            return new CatalogItem(event.getRestaurantId(), event.getName(), Money.of(event.getPrice()),
+                    event.isAvailable(), event.getUpdatedAt());
+        }
+
+        boolean isOlderThan(CatalogItem other) {
+            return updatedAt != null && other.updatedAt != null && updatedAt.isBefore(other.updatedAt);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.orderservice.catalog;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.dto.event.MenuItemChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Replays the compacted menu-catalog topic into MenuCatalog, then keeps tailing it. Every instance reads
+// every partition, so the consumer is assigned directly and has no group or committed offsets.
+@Component
+@ConditionalOnProperty(name = "app.menu-catalog.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class MenuCatalogReplicator implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    private final MenuCatalog menuCatalog;
+    private final KafkaProperties kafkaProperties;
+    private final EventCodec eventCodec;
+
+    @Value("${app.kafka.topics.menu-catalog}")
+    private String menuCatalogTopic;
+
+    @Value("${app.menu-catalog.startup-timeout:PT30S}")
+    private Duration startupTimeout;
+
+    private final CountDownLatch initialLoad = new CountDownLatch(1);
+    private volatile boolean running;
+    private volatile KafkaConsumer<String, byte[]> consumer;
+    private Thread thread;
+
+    // Starts ahead of the listener containers and the web server and waits for the replay, so the first
+    // order is already priced from the catalog; past the timeout the service starts degraded
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "menu-catalog-replicator");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            if (!initialLoad.await(startupTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Menu catalog not loaded within {}; orders use client prices until it is", startupTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        KafkaConsumer<String, byte[]> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        try {
+            thread.join(RETRY_BACKOFF.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void run() {
+        while (running) {
+            try (KafkaConsumer<String, byte[]> kafkaConsumer = new KafkaConsumer<>(consumerProperties())) {
+                consumer = kafkaConsumer;
+                replicate(kafkaConsumer);
+            } catch (WakeupException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Menu catalog replication failed, retrying in {}: {}", RETRY_BACKOFF, e.getMessage());
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    private void replicate(KafkaConsumer<String, byte[]> kafkaConsumer) {
+        List<TopicPartition> partitions = kafkaConsumer.partitionsFor(menuCatalogTopic).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        if (partitions.isEmpty()) {
+            throw new IllegalStateException("Topic " + menuCatalogTopic + " has no partitions yet");
+        }
+
+        kafkaConsumer.assign(partitions);
+        kafkaConsumer.seekToBeginning(partitions);
+        Map<TopicPartition, Long> endOffsets = kafkaConsumer.endOffsets(partitions);
+        long started = System.nanoTime();
+        long replayed = 0;
+        boolean caughtUp = false;
+
+        while (running) {
+            for (ConsumerRecord<String, byte[]> record : kafkaConsumer.poll(POLL_TIMEOUT)) {
+                apply(record);
+                replayed++;
+            }
+            if (!caughtUp && reached(kafkaConsumer, endOffsets)) {
+                caughtUp = true;
+                menuCatalog.markLoaded();
+                initialLoad.countDown();
+                log.info("Menu catalog loaded {} records in {} ms", replayed,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        }
+    }
+
+    private void apply(ConsumerRecord<String, byte[]> record) {
+        try {
+            MenuItemChangedEvent event = record.value() != null
+                    ? eventCodec.decode(record.value(), MenuItemChangedEvent.class)
+                    : null;
+            menuCatalog.apply(UUID.fromString(record.key()), event);
+        } catch (Exception e) {
+            log.error("Skipping malformed menu catalog record at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    private boolean reached(KafkaConsumer<String, byte[]> kafkaConsumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> kafkaConsumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private Map<String, Object> consumerProperties() {
+        Map<String, Object> properties = kafkaProperties.buildConsumerProperties(null);
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.CLIENT_ID_CONFIG, "order-service-menu-catalog");
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        // Large fetches: the replay is a bulk scan of small records, not latency-sensitive polling
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        properties.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 50 * 1024 * 1024);
+        properties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 10 * 1024 * 1024);
+        return properties;
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_BACKOFF.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.cache.ActiveOrderIndex;
+import com.example.orderservice.cache.OrderDtoCache;
+import com.example.orderservice.dto.order.OrderDto;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public Cache<UUID, OrderDto> orderDtoLocalCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.orders.local-max-size:50000}") long maxSize,
+            @Value("${app.cache.orders.local-ttl:PT5S}") Duration ttl
+    ) {
+        Cache<UUID, OrderDto> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "order-dto-local");
+    }
+
+    // Other instances drop their local copy, re-read the order's active-index entry and push the new status to
+    // the order's streams they serve when it changes here
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.orders.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer orderCacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            OrderDtoCache orderDtoCache,
+            ActiveOrderIndex activeOrderIndex,
+            OrderStatusBroadcaster orderStatusBroadcaster,
+            OrderRepository orderRepository,
+            @Value("${app.cache.orders.invalidation-channel:order-cache-invalidation}") String channel
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> {
+                    UUID orderId = UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8));
+                    orderDtoCache.evictLocal(orderId);
+                    activeOrderIndex.reload(orderId);
+                    orderStatusBroadcaster.relay(orderId, () -> orderRepository.findStatusById(orderId));
+                },
+                new ChannelTopic(channel)
+        );
+        return container;
+    }
+}
@@ -2,21 +2,34 @@ package com.example.orderservice.controller;
 
 import com.example.orderservice.dto.order.*;
 import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.exception.InvalidExportRequestException;
+import com.example.orderservice.idempotency.IdempotencyStore;
+import com.example.orderservice.service.OrderExportService;
 import com.example.orderservice.service.OrderService;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,17 +40,24 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Create a new order")
     public ResponseEntity<OrderDto> createOrder(
             @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request
     ) {
         UUID customerId = UUID.fromString(jwt.getSubject());
-        OrderDto order = orderService.createOrder(customerId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(customerId, request));
+        }
+        return idempotencyStore.execute("create-order", customerId.toString(), idempotencyKey, request, OrderDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(customerId, request)));
     }
 
     @GetMapping("/{orderId}")
@@ -54,6 +74,27 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrderByIdForCustomer(orderId, customerId));
     }
 
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Stream order status changes as Server-Sent Events")
+    public Flux<ServerSentEvent<OrderStatusEvent>> streamOrderEvents(
+            @PathVariable UUID orderId,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        // Checked up front so a missing or foreign order fails the request instead of the stream
+        getOrder(orderId, jwt);
+        return orderStatusBroadcaster.stream(orderId, () -> toStatusEvent(getOrder(orderId, jwt).getBody()));
+    }
+
+    @PostMapping("/lookup")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RESTAURANT_OWNER', 'COURIER')")
+    @Operation(summary = "Look up many orders by ID in one request")
+    public ResponseEntity<OrderLookupResponse> lookupOrders(
+            @Valid @RequestBody OrderLookupRequest request
+    ) {
+        return ResponseEntity.ok(orderService.lookupOrders(request.getOrderIds()));
+    }
+
     @GetMapping("/my-orders")
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Get current user's orders")
@@ -65,6 +106,18 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByCustomer(customerId, pageable));
     }
 
+    @GetMapping("/my-orders/scroll")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Scroll current user's orders by cursor (no total count)")
+    public ResponseEntity<OrderSummarySlice> scrollMyOrders(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        UUID customerId = UUID.fromString(jwt.getSubject());
+        return ResponseEntity.ok(orderService.scrollOrdersByCustomer(customerId, cursor, size));
+    }
+
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get orders by customer ID (Admin only)")
@@ -75,6 +128,17 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByCustomer(customerId, pageable));
     }
 
+    @GetMapping("/customer/{customerId}/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scroll orders by customer ID by cursor (Admin only, no total count)")
+    public ResponseEntity<OrderSummarySlice> scrollOrdersByCustomer(
+            @PathVariable UUID customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.scrollOrdersByCustomer(customerId, cursor, size));
+    }
+
     @GetMapping("/restaurant/{restaurantId}")
     @PreAuthorize("hasAnyRole('RESTAURANT_OWNER', 'ADMIN')")
     @Operation(summary = "Get orders by restaurant ID")
@@ -85,6 +149,17 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByRestaurant(restaurantId, pageable));
     }
 
+    @GetMapping("/restaurant/{restaurantId}/scroll")
+    @PreAuthorize("hasAnyRole('RESTAURANT_OWNER', 'ADMIN')")
+    @Operation(summary = "Scroll orders by restaurant ID by cursor (no total count)")
+    public ResponseEntity<OrderSummarySlice> scrollOrdersByRestaurant(
+            @PathVariable UUID restaurantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.scrollOrdersByRestaurant(restaurantId, cursor, size));
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all orders (Admin only)")
@@ -94,6 +169,36 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders(pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scroll all orders by cursor (Admin only, no total count)")
+    public ResponseEntity<OrderSummarySlice> scrollAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.scrollAllOrders(cursor, size));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream orders with their items as NDJSON or CSV (Admin only)")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "NDJSON") OrderExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new InvalidExportRequestException("Export range start must be before its end");
+        }
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders-export." + format.getFileExtension() + "\"");
+        orderExportService.exportOrders(from, to, format, response.getOutputStream());
+    }
+
     @GetMapping("/restaurant/{restaurantId}/active")
     @PreAuthorize("hasAnyRole('RESTAURANT_OWNER', 'ADMIN')")
     @Operation(summary = "Get active orders for a restaurant")
@@ -113,6 +218,17 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByStatus(status, pageable));
     }
 
+    @GetMapping("/status/{status}/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scroll orders by status by cursor (Admin only, no total count)")
+    public ResponseEntity<OrderSummarySlice> scrollOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.scrollOrdersByStatus(status, cursor, size));
+    }
+
     @PatchMapping("/{orderId}/status")
     @PreAuthorize("hasAnyRole('RESTAURANT_OWNER', 'COURIER', 'ADMIN')")
     @Operation(summary = "Update order status")
@@ -169,4 +285,12 @@ public class OrderController {
         var roles = (List<?>) realmAccess.get("roles");
         return roles != null && roles.contains(role);
     }
+
+    private static OrderStatusEvent toStatusEvent(OrderDto order) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .status(order.getStatus())
+                .occurredAt(order.getUpdatedAt())
+                .build();
+    }
 }
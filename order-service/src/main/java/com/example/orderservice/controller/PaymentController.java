@@ -4,6 +4,8 @@ import com.example.orderservice.dto.payment.PaymentDto;
 import com.example.orderservice.dto.payment.ProcessPaymentRequest;
 import com.example.orderservice.dto.payment.RefundRequest;
 import com.example.orderservice.dto.payment.UpdatePaymentRequest;
+import com.example.orderservice.entity.PaymentStatus;
+import com.example.orderservice.idempotency.IdempotencyStore;
 import com.example.orderservice.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +20,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.UUID;
 
 @RestController
@@ -27,14 +30,21 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping("/process")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Process a payment for an order")
+    @Operation(summary = "Process a payment for an order (202 while the provider call is in flight)")
     public ResponseEntity<PaymentDto> processPayment(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody ProcessPaymentRequest request
     ) {
-        return ResponseEntity.ok(paymentService.processPayment(request));
+        if (idempotencyKey == null) {
+            return toResponse(paymentService.processPayment(request));
+        }
+        return idempotencyStore.execute("process-payment", jwt.getSubject(), idempotencyKey, request, PaymentDto.class,
+                () -> toResponse(paymentService.processPayment(request)));
     }
 
     @GetMapping("/{paymentId}")
@@ -88,4 +98,13 @@ public class PaymentController {
     public ResponseEntity<PaymentDto> cancelPayment(@PathVariable UUID paymentId) {
         return ResponseEntity.ok(paymentService.cancelPayment(paymentId));
     }
+
+    private ResponseEntity<PaymentDto> toResponse(PaymentDto payment) {
+        if (payment.getStatus() == PaymentStatus.PROCESSING) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/" + payment.getId()))
+                    .body(payment);
+        }
+        return ResponseEntity.ok(payment);
+    }
 }
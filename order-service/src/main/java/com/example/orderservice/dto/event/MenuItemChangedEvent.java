@@ -0,0 +1,25 @@
+package com.example.orderservice.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MenuItemChangedEvent {
+
+    private String eventType;
+    private UUID menuItemId;
+    private UUID restaurantId;
+    private String name;
+    private BigDecimal price;
+    private boolean available;
+    private Instant updatedAt;
+}
@@ -57,6 +57,7 @@ public class CreateOrderRequest {
 
         @NotNull(message = "Price is required")
         @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+        @Digits(integer = 8, fraction = 2, message = "Price must have at most 2 decimal places")
         private BigDecimal price;
 
         @Min(value = 1, message = "Quantity must be at least 1")
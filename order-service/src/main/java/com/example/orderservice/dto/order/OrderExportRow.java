@@ -0,0 +1,32 @@
+package com.example.orderservice.dto.order;
+
+import com.example.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderExportRow {
+
+    private UUID orderId;
+    private UUID customerId;
+    private UUID restaurantId;
+    private OrderStatus status;
+    private BigDecimal totalPrice;
+    private Instant createdAt;
+    private Instant deliveredAt;
+    private Instant cancelledAt;
+    private UUID itemId;
+    private UUID menuItemId;
+    private String itemName;
+    private Integer quantity;
+    private BigDecimal itemPrice;
+}
@@ -0,0 +1,25 @@
+package com.example.orderservice.dto.order;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderLookupRequest {
+
+    public static final int MAX_ORDER_IDS = 500;
+
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = MAX_ORDER_IDS, message = "At most " + MAX_ORDER_IDS + " order IDs can be looked up at once")
+    private List<@NotNull(message = "Order ID must not be null") UUID> orderIds;
+}
@@ -0,0 +1,30 @@
+package com.example.orderservice.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderLookupResponse {
+
+    private List<OrderLookupResult> results;
+    private List<UUID> missingIds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class OrderLookupResult {
+
+        private UUID orderId;
+        private boolean found;
+        private OrderDto order;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderservice.dto.order;
+
+import com.example.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusEvent {
+
+    private UUID orderId;
+    private OrderStatus status;
+    private Instant occurredAt;
+}
@@ -0,0 +1,20 @@
+package com.example.orderservice.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummarySlice {
+
+    private List<OrderSummaryDto> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,71 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 400)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "response_location", length = 500)
+    private String responseLocation;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Identifies the request holding an unfinished claim, which only that request may complete or release
+    @Column(name = "lease_token")
+    private UUID leaseToken;
+
+    // An unfinished claim past this point was abandoned and can be taken over
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    // save() always inserts a built record instead of merging it over a row another request claimed first
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private boolean newRecord = true;
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newRecord = false;
+    }
+
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+}
@@ -2,6 +2,9 @@ package com.example.orderservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.PartitionKey;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -54,6 +57,11 @@ public class Order {
     @Column(name = "estimated_delivery_time")
     private Instant estimatedDeliveryTime;
 
+    @Version
+    private Long version;
+
+    // Added to the WHERE of entity updates and deletes so they touch one monthly partition
+    @PartitionKey
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private Instant createdAt = Instant.now();
@@ -65,13 +73,28 @@ public class Order {
     @Column(name = "confirmed_at")
     private Instant confirmedAt;
 
+    @Column(name = "accepted_at")
+    private Instant acceptedAt;
+
+    @Column(name = "ready_at")
+    private Instant readyAt;
+
+    @Column(name = "picked_up_at")
+    private Instant pickedUpAt;
+
     @Column(name = "delivered_at")
     private Instant deliveredAt;
 
     @Column(name = "cancelled_at")
     private Instant cancelledAt;
 
+    // Partition key flipped only by OrderArchiver; hot-path queries filter on it so the archive is pruned
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("false")
+    private boolean archived;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
 
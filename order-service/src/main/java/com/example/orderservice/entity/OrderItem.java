@@ -1,5 +1,6 @@
 package com.example.orderservice.entity;
 
+import com.example.orderservice.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -45,6 +46,6 @@ public class OrderItem {
     private Instant createdAt = Instant.now();
 
     public BigDecimal getSubtotal() {
-        return price.multiply(BigDecimal.valueOf(quantity));
+        return Money.lineTotal(price, quantity).toBigDecimal();
     }
 }
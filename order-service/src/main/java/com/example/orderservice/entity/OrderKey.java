@@ -0,0 +1,25 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One row per order id, written by a trigger when the order is inserted; id lookups read createdAt from here
+// so PostgreSQL only probes the partition that can hold the order
+@Entity
+@Table(name = "order_keys")
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderKey {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
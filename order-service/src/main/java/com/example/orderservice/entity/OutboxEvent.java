@@ -0,0 +1,51 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "event_key", nullable = false)
+    private String eventKey;
+
+    // JSON payload of rows written before the binary format; new rows set payloadBinary instead
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "payload_binary")
+    private byte[] payloadBinary;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    // Set while a relay is sending the row; an expired claim means that relay gave up or died
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+}
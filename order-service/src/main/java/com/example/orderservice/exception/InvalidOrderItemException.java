@@ -0,0 +1,8 @@
+package com.example.orderservice.exception;
+
+public class InvalidOrderItemException extends RuntimeException {
+
+    public InvalidOrderItemException(String message) {
+        super(message);
+    }
+}
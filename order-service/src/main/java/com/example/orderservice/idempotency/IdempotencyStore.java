@@ -0,0 +1,213 @@
+package com.example.orderservice.idempotency;
+
+import com.example.orderservice.entity.IdempotencyRecord;
+import com.example.orderservice.exception.IdempotencyKeyInProgressException;
+import com.example.orderservice.exception.InvalidIdempotencyKeyException;
+import com.example.orderservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+
+    // Completed responses never change, so the hot set can serve replays without a round trip
+    private final Cache<String, StoredResponse> hotResponses;
+
+    public IdempotencyStore(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${app.idempotency.lease:PT1M}") Duration lease,
+            @Value("${app.idempotency.local-max-size:10000}") long localMaxSize,
+            @Value("${app.idempotency.local-ttl:PT10M}") Duration localTtl
+    ) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.hotResponses = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl.compareTo(ttl) < 0 ? localTtl : ttl)
+                .build();
+    }
+
+    public <T> ResponseEntity<T> execute(String scope, String principal, String key, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = scope + ":" + principal + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse hot = hotResponses.getIfPresent(id);
+        if (hot != null) {
+            return replay(hot, requestHash, responseType);
+        }
+
+        Claim claim = claim(id, requestHash);
+        if (claim.existing() != null) {
+            IdempotencyRecord record = claim.existing();
+            if (!record.isCompleted()) {
+                if (!record.getRequestHash().equals(requestHash)) {
+                    throw mismatch();
+                }
+                throw inProgress();
+            }
+            StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody(), record.getResponseLocation());
+            hotResponses.put(id, stored);
+            return replay(stored, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Failed requests release the key so a retry runs the write path again
+            transactionTemplate.executeWithoutResult(
+                    status -> idempotencyRecordRepository.release(id, claim.leaseToken()));
+            throw e;
+        }
+
+        URI location = response.getHeaders().getLocation();
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                serialize(response.getBody()), location != null ? location.toString() : null);
+        Integer completed = transactionTemplate.execute(status -> idempotencyRecordRepository.complete(
+                id, claim.leaseToken(), stored.status(), stored.body(), stored.location()));
+        if (completed != null && completed == 1) {
+            hotResponses.put(id, stored);
+        } else {
+            log.warn("{} {} outlived its lease and was taken over; its response is not stored", IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return response;
+    }
+
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Claims are inserted, never merged, so of two racing requests the second fails on the primary key. An existing
+    // key is taken over only once its record expired or its unfinished claim outlived the lease.
+    private Claim claim(String id, String requestHash) {
+        Instant now = Instant.now();
+        UUID leaseToken = UUID.randomUUID();
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(
+                    IdempotencyRecord.builder()
+                            .id(id)
+                            .requestHash(requestHash)
+                            .expiresAt(now.plus(ttl))
+                            .leaseToken(leaseToken)
+                            .leaseExpiresAt(now.plus(lease))
+                            .build()));
+            return new Claim(leaseToken, null);
+        } catch (DataIntegrityViolationException e) {
+            // Already claimed; the key is ours only if that claim expired or was abandoned
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (idempotencyRecordRepository.takeOver(id, requestHash, now, now.plus(ttl), leaseToken,
+                    now.plus(lease)) == 1) {
+                return new Claim(leaseToken, null);
+            }
+            // A failed request may have released the key in between; the client retries
+            return new Claim(null, idempotencyRecordRepository.findById(id).orElseThrow(this::inProgress));
+        });
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw mismatch();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            builder.header(HttpHeaders.LOCATION, stored.location());
+        }
+        return builder.body(deserialize(stored.body(), responseType));
+    }
+
+    private IdempotencyKeyInProgressException inProgress() {
+        return new IdempotencyKeyInProgressException(
+                "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+    }
+
+    private InvalidIdempotencyKeyException mismatch() {
+        return new InvalidIdempotencyKeyException(
+                IDEMPOTENCY_KEY_HEADER + " was already used with a different request body");
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash request for idempotency check", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store idempotent response", e);
+        }
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return body != null ? objectMapper.readValue(body, responseType) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to replay idempotent response", e);
+        }
+    }
+
+    // leaseToken is set when this request owns the key, existing when an earlier request does
+    private record Claim(UUID leaseToken, IdempotencyRecord existing) {
+    }
+
+    private record StoredResponse(String requestHash, int status, String body, String location) {
+    }
+}
@@ -9,7 +9,6 @@ import com.example.orderservice.entity.Payment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -19,7 +18,7 @@ import java.time.Instant;
 @Slf4j
 public class OrderEventProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventWriter outboxEventWriter;
 
     @Value("${app.kafka.topics.order-events}")
     private String orderEventsTopic;
@@ -27,26 +26,19 @@ public class OrderEventProducer {
     @Value("${app.kafka.topics.payment-events}")
     private String paymentEventsTopic;
 
-    public void sendOrderCreatedEvent(OrderCreatedEvent event) {
-        log.info("Sending ORDER_CREATED event for order: {}", event.getOrderId());
-        kafkaTemplate.send(orderEventsTopic, event.getOrderId().toString(), event);
+    public void enqueueOrderCreatedEvent(OrderCreatedEvent event) {
+        log.info("Enqueueing ORDER_CREATED event for order: {}", event.getOrderId());
+        outboxEventWriter.write(orderEventsTopic, event.getOrderId(), event.getEventType(), event);
     }
 
-    public void sendOrderCancelledEvent(Order order, String reason) {
-        OrderCancelledEvent event = OrderCancelledEvent.builder()
-                .eventType("ORDER_CANCELLED")
-                .orderId(order.getId())
-                .customerId(order.getCustomerId())
-                .restaurantId(order.getRestaurantId())
-                .cancellationReason(reason)
-                .cancelledAt(Instant.now())
-                .build();
+    public void enqueueOrderCancelledEvent(Order order, String reason) {
+        OrderCancelledEvent event = buildOrderCancelledEvent(order, reason);
 
-        log.info("Sending ORDER_CANCELLED event for order: {}", order.getId());
-        kafkaTemplate.send(orderEventsTopic, order.getId().toString(), event);
+        log.info("Enqueueing ORDER_CANCELLED event for order: {}", order.getId());
+        outboxEventWriter.write(orderEventsTopic, order.getId(), event.getEventType(), event);
     }
 
-    public void sendPaymentCompletedEvent(Payment payment) {
+    public void enqueuePaymentCompletedEvent(Payment payment) {
         PaymentCompletedEvent event = PaymentCompletedEvent.builder()
                 .eventType("PAYMENT_COMPLETED")
                 .paymentId(payment.getId())
@@ -58,11 +50,11 @@ public class OrderEventProducer {
                 .paidAt(payment.getPaidAt())
                 .build();
 
-        log.info("Sending PAYMENT_COMPLETED event for order: {}", payment.getOrder().getId());
-        kafkaTemplate.send(paymentEventsTopic, payment.getOrder().getId().toString(), event);
+        log.info("Enqueueing PAYMENT_COMPLETED event for order: {}", payment.getOrder().getId());
+        outboxEventWriter.write(paymentEventsTopic, payment.getOrder().getId(), event.getEventType(), event);
     }
 
-    public void sendPaymentFailedEvent(Payment payment, String reason) {
+    public void enqueuePaymentFailedEvent(Payment payment, String reason) {
         PaymentFailedEvent event = PaymentFailedEvent.builder()
                 .eventType("PAYMENT_FAILED")
                 .paymentId(payment.getId())
@@ -74,7 +66,18 @@ public class OrderEventProducer {
                 .failedAt(Instant.now())
                 .build();
 
-        log.info("Sending PAYMENT_FAILED event for order: {}", payment.getOrder().getId());
-        kafkaTemplate.send(paymentEventsTopic, payment.getOrder().getId().toString(), event);
+        log.info("Enqueueing PAYMENT_FAILED event for order: {}", payment.getOrder().getId());
+        outboxEventWriter.write(paymentEventsTopic, payment.getOrder().getId(), event.getEventType(), event);
+    }
+
+    private OrderCancelledEvent buildOrderCancelledEvent(Order order, String reason) {
+        return OrderCancelledEvent.builder()
+                .eventType("ORDER_CANCELLED")
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .restaurantId(order.getRestaurantId())
+                .cancellationReason(reason)
+                .cancelledAt(Instant.now())
+                .build();
     }
 }
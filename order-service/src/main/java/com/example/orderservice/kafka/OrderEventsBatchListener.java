@@ -0,0 +1,147 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
+import com.example.orderservice.dto.event.DeliveryStatusChangedEvent;
+import com.example.orderservice.dto.event.OrderAcceptedEvent;
+import com.example.orderservice.dto.event.OrderReadyEvent;
+import com.example.orderservice.dto.event.OrderRejectedEvent;
+import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderTransition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.kafka.consumer.batch-listener", havingValue = "true")
+public class OrderEventsBatchListener {
+
+    private final OrderService orderService;
+    private final EventCodec eventCodec;
+    private final ProcessedEventStore processedEvents;
+
+    @KafkaListener(
+            topics = {"${app.kafka.topics.restaurant-events}", "${app.kafka.topics.delivery-events}"},
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleEventBatch(List<ConsumerRecord<String, byte[]>> records) {
+        Map<UUID, ConsumerRecord<String, byte[]>> firstRecords = new HashMap<>();
+        Map<UUID, List<String>> eventIds = new HashMap<>();
+        ConsumerRecord<String, byte[]> undecodable = null;
+        Exception decodeFailure = null;
+        Map<UUID, OrderTransition> byOrder = new LinkedHashMap<>();
+        Instant now = Instant.now();
+
+        // Stops at an event that cannot be decoded: the events before it are applied, and the error handler
+        // commits them, dead-letters that event without retrying and redelivers the rest
+        for (ConsumerRecord<String, byte[]> record : records) {
+            String eventType;
+            OrderTransition transition;
+            try {
+                eventType = eventCodec.eventType(record);
+                transition = toTransition(record, eventType, now);
+            } catch (Exception e) {
+                undecodable = record;
+                decodeFailure = e;
+                break;
+            }
+            if (transition != null && !processedEvents.isProcessed(record, eventType)) {
+                firstRecords.putIfAbsent(transition.getOrderId(), record);
+                eventIds.computeIfAbsent(transition.getOrderId(), orderId -> new ArrayList<>())
+                        .add(ProcessedEventStore.eventId(record, eventType));
+                byOrder.merge(transition.getOrderId(), transition, OrderTransition::mergedWith);
+            }
+        }
+
+        apply(byOrder.values(), firstRecords, eventIds, records.size());
+
+        if (undecodable != null) {
+            throw new BatchListenerFailedException("Undecodable order event", decodeFailure, undecodable);
+        }
+    }
+
+    private void apply(Collection<OrderTransition> transitions, Map<UUID, ConsumerRecord<String, byte[]>> firstRecords,
+                       Map<UUID, List<String>> eventIds, int eventCount) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+
+        log.info("Received {} order events, applying {} coalesced transitions", eventCount, transitions.size());
+
+        try {
+            List<String> allEventIds = eventIds.values().stream().flatMap(List::stream).toList();
+            if (processedEvents.runOnce(allEventIds, () -> orderService.applyTransitions(transitions))) {
+                return;
+            }
+            log.info("Part of the batch was already processed, applying it per order");
+        } catch (Exception e) {
+            log.error("Batch apply failed, falling back to per-order transactions: {}", e.getMessage(), e);
+        }
+
+        // Transitions are in order of each order's first event, so every order before a failing one is applied
+        // and every order after it is redelivered when the error handler seeks back to its first event
+        for (OrderTransition transition : transitions) {
+            try {
+                processedEvents.runOnce(eventIds.get(transition.getOrderId()),
+                        () -> orderService.applyTransitions(List.of(transition)));
+            } catch (Exception ex) {
+                throw new BatchListenerFailedException("Failed to apply transition to " + transition.getStatus()
+                        + " for order " + transition.getOrderId(), ex, firstRecords.get(transition.getOrderId()));
+            }
+        }
+    }
+
+    private OrderTransition toTransition(ConsumerRecord<String, byte[]> record, String eventType, Instant now)
+            throws IOException {
+        switch (eventType) {
+            case "ORDER_ACCEPTED": {
+                OrderAcceptedEvent event = eventCodec.decode(record.value(), OrderAcceptedEvent.class);
+                return event.getOrderId() != null
+                        ? OrderTransition.accepted(event.getOrderId(), event.getEstimatedPrepTimeMinutes(), now)
+                        : null;
+            }
+            case "ORDER_REJECTED": {
+                OrderRejectedEvent event = eventCodec.decode(record.value(), OrderRejectedEvent.class);
+                return event.getOrderId() != null
+                        ? OrderTransition.rejected(event.getOrderId(), event.getRejectionReason(), now)
+                        : null;
+            }
+            case "ORDER_READY": {
+                OrderReadyEvent event = eventCodec.decode(record.value(), OrderReadyEvent.class);
+                return event.getOrderId() != null ? OrderTransition.ready(event.getOrderId(), now) : null;
+            }
+            case "DELIVERY_STATUS_CHANGED": {
+                DeliveryStatusChangedEvent event = eventCodec.decode(record.value(), DeliveryStatusChangedEvent.class);
+                if (event.getOrderId() == null) {
+                    return null;
+                }
+                OrderTransition transition = OrderTransition.fromDeliveryStatus(
+                        event.getOrderId(), event.getNewStatus() != null ? event.getNewStatus() : "", now);
+                if (transition == null) {
+                    log.warn("Unknown delivery status: {}", event.getNewStatus());
+                }
+                return transition;
+            }
+            default:
+                log.debug("Ignoring event type: {}", eventType);
+                return null;
+        }
+    }
+}
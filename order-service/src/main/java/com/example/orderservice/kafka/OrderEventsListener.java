@@ -1,54 +1,57 @@
 package com.example.orderservice.kafka;
 
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
 import com.example.orderservice.dto.event.DeliveryStatusChangedEvent;
 import com.example.orderservice.dto.event.OrderAcceptedEvent;
 import com.example.orderservice.dto.event.OrderReadyEvent;
 import com.example.orderservice.dto.event.OrderRejectedEvent;
 import com.example.orderservice.service.OrderService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+
+// Failures propagate to the container: KafkaConfig routes them through the retry topics and on to the DLT.
+// Each event is applied once: ProcessedEventStore skips redeliveries and records the event with the update.
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "app.kafka.consumer.batch-listener", havingValue = "false", matchIfMissing = true)
 public class OrderEventsListener {
 
     private final OrderService orderService;
-    private final ObjectMapper objectMapper;
+    private final EventCodec eventCodec;
+    private final ProcessedEventStore processedEvents;
 
     @KafkaListener(
             topics = "${app.kafka.topics.restaurant-events}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void handleRestaurantEvents(String message) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(message);
-            String eventType = jsonNode.has("eventType") ? jsonNode.get("eventType").asText() : "";
+    public void handleRestaurantEvents(ConsumerRecord<String, byte[]> record) throws IOException {
+        String eventType = eventCodec.eventType(record);
 
-            log.info("Received restaurant event: {}", eventType);
+        log.info("Received restaurant event: {} from {}", eventType, record.topic());
 
-            switch (eventType) {
-                case "ORDER_ACCEPTED":
-                    OrderAcceptedEvent acceptedEvent = objectMapper.treeToValue(jsonNode, OrderAcceptedEvent.class);
-                    handleOrderAccepted(acceptedEvent);
-                    break;
-                case "ORDER_REJECTED":
-                    OrderRejectedEvent rejectedEvent = objectMapper.treeToValue(jsonNode, OrderRejectedEvent.class);
-                    handleOrderRejected(rejectedEvent);
-                    break;
-                case "ORDER_READY":
-                    OrderReadyEvent readyEvent = objectMapper.treeToValue(jsonNode, OrderReadyEvent.class);
-                    handleOrderReady(readyEvent);
-                    break;
-                default:
-                    log.debug("Ignoring unknown restaurant event type: {}", eventType);
-            }
-        } catch (Exception e) {
-            log.error("Error processing restaurant event: {}", e.getMessage(), e);
+        switch (eventType) {
+            case "ORDER_ACCEPTED":
+                OrderAcceptedEvent acceptedEvent = eventCodec.decode(record.value(), OrderAcceptedEvent.class);
+                processedEvents.runOnce(record, eventType, () -> handleOrderAccepted(acceptedEvent));
+                break;
+            case "ORDER_REJECTED":
+                OrderRejectedEvent rejectedEvent = eventCodec.decode(record.value(), OrderRejectedEvent.class);
+                processedEvents.runOnce(record, eventType, () -> handleOrderRejected(rejectedEvent));
+                break;
+            case "ORDER_READY":
+                OrderReadyEvent readyEvent = eventCodec.decode(record.value(), OrderReadyEvent.class);
+                processedEvents.runOnce(record, eventType, () -> handleOrderReady(readyEvent));
+                break;
+            default:
+                log.debug("Ignoring unknown restaurant event type: {}", eventType);
         }
     }
 
@@ -56,21 +59,16 @@ public class OrderEventsListener {
             topics = "${app.kafka.topics.delivery-events}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void handleDeliveryEvents(String message) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(message);
-            String eventType = jsonNode.has("eventType") ? jsonNode.get("eventType").asText() : "";
+    public void handleDeliveryEvents(ConsumerRecord<String, byte[]> record) throws IOException {
+        String eventType = eventCodec.eventType(record);
 
-            log.info("Received delivery event: {}", eventType);
+        log.info("Received delivery event: {} from {}", eventType, record.topic());
 
-            if ("DELIVERY_STATUS_CHANGED".equals(eventType)) {
-                DeliveryStatusChangedEvent event = objectMapper.treeToValue(jsonNode, DeliveryStatusChangedEvent.class);
-                handleDeliveryStatusChanged(event);
-            } else {
-                log.debug("Ignoring delivery event type: {}", eventType);
-            }
-        } catch (Exception e) {
-            log.error("Error processing delivery event: {}", e.getMessage(), e);
+        if ("DELIVERY_STATUS_CHANGED".equals(eventType)) {
+            DeliveryStatusChangedEvent event = eventCodec.decode(record.value(), DeliveryStatusChangedEvent.class);
+            processedEvents.runOnce(record, eventType, () -> handleDeliveryStatusChanged(event));
+        } else {
+            log.debug("Ignoring delivery event type: {}", eventType);
         }
     }
 
@@ -0,0 +1,45 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventCodec eventCodec;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(String topic, UUID aggregateId, String eventType, Object event) {
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .topic(topic)
+                .eventKey(aggregateId.toString())
+                .payloadBinary(encode(event))
+                .build();
+
+        outboxEventRepository.save(outboxEvent);
+        log.debug("Stored {} event for aggregate {} in outbox", eventType, aggregateId);
+    }
+
+    private byte[] encode(Object event) {
+        try {
+            return eventCodec.encode(event).payload();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode outbox event: " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
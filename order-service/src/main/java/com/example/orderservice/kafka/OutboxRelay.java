@@ -0,0 +1,185 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // Longer than a batch can take to send, so a claim only lapses when its relay has stopped
+    @Value("${app.outbox.claim-lease-ms:60000}")
+    private long claimLeaseMs;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relayPendingEvents() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 * * * *}")
+    @Transactional
+    public void purgePublishedEvents() {
+        Instant cutoff = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+        int deleted = outboxEventRepository.deletePublishedBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events older than {}", deleted, cutoff);
+        }
+    }
+
+    // Rows are claimed in one short transaction and marked in another, so no row lock is held while waiting on Kafka
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> published = send(batch);
+        Set<UUID> publishedIds = new HashSet<>(published);
+        List<UUID> unpublished = batch.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !publishedIds.contains(id))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!published.isEmpty()) {
+                outboxEventRepository.markPublished(published, Instant.now());
+            }
+            // Released rather than left to lapse, so the next poll retries them first
+            if (!unpublished.isEmpty()) {
+                outboxEventRepository.releaseClaims(unpublished);
+            }
+        });
+
+        log.debug("Relayed {}/{} outbox events", published.size(), batch.size());
+        return published.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> candidates = outboxEventRepository.findClaimableForUpdate(now, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        // An older event of the same aggregate is being sent by another relay, or is locked by one claiming it
+        // right now; its successors wait until it is published
+        Set<UUID> blocked = new HashSet<>(outboxEventRepository.findAggregatesWithEarlierPendingEvents(
+                candidates.stream().map(OutboxEvent::getId).toList()));
+        List<OutboxEvent> batch = candidates.stream()
+                .filter(event -> !blocked.contains(event.getAggregateId()))
+                .toList();
+        if (!batch.isEmpty()) {
+            outboxEventRepository.claim(batch.stream().map(OutboxEvent::getId).toList(),
+                    now.plusMillis(claimLeaseMs));
+        }
+        return batch;
+    }
+
+    // Different aggregates are pipelined, but an aggregate's events go out one at a time, each once the previous
+    // one is acknowledged, so a failed event is never overtaken by a later one for the same order
+    private List<UUID> send(List<OutboxEvent> batch) {
+        Map<UUID, Deque<OutboxEvent>> pending = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            pending.computeIfAbsent(event.getAggregateId(), id -> new ArrayDeque<>()).add(event);
+        }
+
+        List<UUID> published = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        while (!pending.isEmpty()) {
+            Map<OutboxEvent, CompletableFuture<SendResult<String, byte[]>>> round = new LinkedHashMap<>();
+            for (Deque<OutboxEvent> events : pending.values()) {
+                round.put(events.peek(), sendAsync(events.peek()));
+            }
+
+            for (Map.Entry<OutboxEvent, CompletableFuture<SendResult<String, byte[]>>> sent : round.entrySet()) {
+                OutboxEvent event = sent.getKey();
+                try {
+                    sent.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    published.add(event.getId());
+                    Deque<OutboxEvent> events = pending.get(event.getAggregateId());
+                    events.poll();
+                    if (events.isEmpty()) {
+                        pending.remove(event.getAggregateId());
+                    }
+                } catch (ExecutionException | TimeoutException e) {
+                    Deque<OutboxEvent> heldBack = pending.remove(event.getAggregateId());
+                    log.warn("Failed to relay {} event {} for aggregate {}, will retry it and the {} after it: {}",
+                            event.getEventType(), event.getId(), event.getAggregateId(), heldBack.size() - 1,
+                            e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return published;
+                }
+            }
+        }
+        return published;
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> sendAsync(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(toRecord(event));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Rows written before the binary format still hold JSON and go out as-is, without the type header. The row id
+    // is the event id, so a row relayed again after a lost acknowledgement is recognised as the same event.
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record;
+        if (event.getPayloadBinary() == null) {
+            record = new ProducerRecord<>(event.getTopic(), event.getEventKey(),
+                    event.getPayload().getBytes(StandardCharsets.UTF_8));
+        } else {
+            record = new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.getPayloadBinary());
+            record.headers().add(EventCodec.EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+        }
+        record.headers().add(EventCodec.EVENT_ID_HEADER, event.getId().toString().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.orderservice.metrics;
+
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BacklogMetrics implements MeterBinder {
+
+    private static final String RECORDS_LAG = "records-lag";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    private final AtomicLong outboxPending = new AtomicLong();
+    private final AtomicLong outboxOldestAgeMillis = new AtomicLong();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("order.outbox.backlog", outboxPending, AtomicLong::get)
+                .description("Outbox events not yet relayed to Kafka")
+                .register(registry);
+        Gauge.builder("order.outbox.oldest.age", outboxOldestAgeMillis, AtomicLong::get)
+                .description("Age of the oldest unrelayed outbox event")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("order.consumer.backlog", this, BacklogMetrics::consumerLag)
+                .description("Records behind the log end across every partition the listeners own")
+                .register(registry);
+    }
+
+    // Scrapes read the cached values; the count hits the partial unpublished index, not the table
+    @Scheduled(fixedDelayString = "${app.metrics.backlog-refresh-ms:15000}")
+    public void refreshOutboxBacklog() {
+        try {
+            outboxPending.set(outboxEventRepository.countByPublishedAtIsNull());
+            outboxOldestAgeMillis.set(outboxEventRepository.findOldestUnpublishedCreatedAt()
+                    .map(oldest -> Duration.between(oldest, Instant.now()).toMillis())
+                    .orElse(0L));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh outbox backlog: {}", e.getMessage());
+        }
+    }
+
+    // Summed from the consumers' own per-partition lag, which they update on every fetch
+    double consumerLag() {
+        double lag = 0;
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+                for (Map.Entry<MetricName, ? extends Metric> metric : clientMetrics.entrySet()) {
+                    if (RECORDS_LAG.equals(metric.getKey().name())
+                            && metric.getValue().metricValue() instanceof Double value && !value.isNaN()) {
+                        lag += value;
+                    }
+                }
+            }
+        }
+        return lag;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderservice.metrics;
+
+import com.example.orderservice.entity.Order;
+
+import java.time.Instant;
+
+// Stage timestamps of one order; a stage the order skipped or has not reached is null
+public record OrderLifecycle(
+        Instant createdAt,
+        Instant confirmedAt,
+        Instant acceptedAt,
+        Instant readyAt,
+        Instant pickedUpAt,
+        Instant deliveredAt
+) {
+
+    public static OrderLifecycle of(Order order) {
+        return new OrderLifecycle(order.getCreatedAt(), order.getConfirmedAt(), order.getAcceptedAt(),
+                order.getReadyAt(), order.getPickedUpAt(), order.getDeliveredAt());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.orderservice.metrics;
+
+import com.example.orderservice.entity.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+@Component
+public class OrderMetrics {
+
+    private final Map<OrderStatus, Counter> transitions = new EnumMap<>(OrderStatus.class);
+    private final Map<Leg, Timer> legs = new EnumMap<>(Leg.class);
+
+    // Every meter is registered up front so a status or leg nobody reached yet still reports zero
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        for (OrderStatus status : OrderStatus.values()) {
+            transitions.put(status, Counter.builder("order.status.transitions")
+                    .description("Orders moved into a status")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+        for (Leg leg : Leg.values()) {
+            legs.put(leg, Timer.builder("order.lifecycle")
+                    .description("Time a delivered order spent between two lifecycle stages")
+                    .tag("leg", leg.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofSeconds(1))
+                    .maximumExpectedValue(Duration.ofHours(4))
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordTransition(OrderStatus status) {
+        afterCommit(() -> transitions.get(status).increment());
+    }
+
+    // Recorded once per order at delivery, when every stage it went through has its timestamp
+    public void recordDelivered(OrderLifecycle lifecycle) {
+        afterCommit(() -> {
+            for (Leg leg : Leg.values()) {
+                Instant start = leg.from.apply(lifecycle);
+                Instant end = leg.to.apply(lifecycle);
+                if (start != null && end != null && !end.isBefore(start)) {
+                    legs.get(leg).record(Duration.between(start, end));
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    enum Leg {
+        CREATED_TO_CONFIRMED("created_to_confirmed", OrderLifecycle::createdAt, OrderLifecycle::confirmedAt),
+        CONFIRMED_TO_ACCEPTED("confirmed_to_accepted", OrderLifecycle::confirmedAt, OrderLifecycle::acceptedAt),
+        ACCEPTED_TO_READY("accepted_to_ready", OrderLifecycle::acceptedAt, OrderLifecycle::readyAt),
+        READY_TO_PICKED_UP("ready_to_picked_up", OrderLifecycle::readyAt, OrderLifecycle::pickedUpAt),
+        PICKED_UP_TO_DELIVERED("picked_up_to_delivered", OrderLifecycle::pickedUpAt, OrderLifecycle::deliveredAt),
+        CREATED_TO_DELIVERED("created_to_delivered", OrderLifecycle::createdAt, OrderLifecycle::deliveredAt);
+
+        private final String tag;
+        private final Function<OrderLifecycle, Instant> from;
+        private final Function<OrderLifecycle, Instant> to;
+
+        Leg(String tag, Function<OrderLifecycle, Instant> from, Function<OrderLifecycle, Instant> to) {
+            this.tag = tag;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.orderservice.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amount in minor units (cents) of the platform currency. Arithmetic is exact and overflow-checked;
+// BigDecimal only appears when converting at the JPA and JSON boundaries.
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long BASIS_POINTS = 10_000;
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    // Throws ArithmeticException for more than two decimal places instead of silently rounding
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).movePointRight(SCALE).longValueExact());
+    }
+
+    public static Money lineTotal(BigDecimal unitPrice, int quantity) {
+        return of(unitPrice).times(quantity);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor));
+    }
+
+    // Rate in basis points (1250 = 12.5%), rounded half-up to the nearest minor unit; for fees and discounts
+    public Money percentage(int basisPoints) {
+        long scaled = Math.multiplyExact(minorUnits, basisPoints);
+        long quotient = scaled / BASIS_POINTS;
+        long remainder = scaled % BASIS_POINTS;
+        if (Math.abs(remainder) * 2 >= BASIS_POINTS) {
+            quotient += Long.signum(scaled);
+        }
+        return new Money(quotient);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    // Claims a key whose record expired or whose unfinished claim outlived its lease; 0 when it is still held
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.responseStatus = NULL, " +
+            "r.responseBody = NULL, r.responseLocation = NULL, r.expiresAt = :expiresAt, " +
+            "r.leaseToken = :leaseToken, r.leaseExpiresAt = :leaseExpiresAt " +
+            "WHERE r.id = :id AND (r.expiresAt <= :now " +
+            "OR (r.responseStatus IS NULL AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt <= :now)))")
+    int takeOver(@Param("id") String id, @Param("requestHash") String requestHash, @Param("now") Instant now,
+                 @Param("expiresAt") Instant expiresAt, @Param("leaseToken") UUID leaseToken,
+                 @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body, " +
+            "r.responseLocation = :location, r.leaseToken = NULL, r.leaseExpiresAt = NULL " +
+            "WHERE r.id = :id AND r.leaseToken = :leaseToken AND r.responseStatus IS NULL")
+    int complete(@Param("id") String id, @Param("leaseToken") UUID leaseToken, @Param("status") int status,
+                 @Param("body") String body, @Param("location") String location);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.id = :id AND r.leaseToken = :leaseToken AND r.responseStatus IS NULL")
+    int release(@Param("id") String id, @Param("leaseToken") UUID leaseToken);
+}
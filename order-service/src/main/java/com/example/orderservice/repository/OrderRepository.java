@@ -1,18 +1,27 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.order.OrderExportRow;
+import com.example.orderservice.dto.order.OrderSummaryDto;
 import com.example.orderservice.entity.Order;
 import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.metrics.OrderLifecycle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
@@ -29,6 +38,100 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     List<Order> findByStatusIn(List<OrderStatus> statuses);
 
+    // Builds summaries in one statement; the correlated count keeps items from being loaded per order
+    String SUMMARY_SELECT = "SELECT new com.example.orderservice.dto.order.OrderSummaryDto(" +
+            "o.id, o.restaurantId, o.status, o.totalPrice, o.deliveryAddress, " +
+            "(SELECT CAST(COUNT(i) AS Integer) FROM OrderItem i WHERE i.order = o), " +
+            "o.createdAt, o.estimatedDeliveryTime) FROM Order o ";
+
+    String KEYSET_BEFORE = "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ";
+
+    String KEYSET_ORDER = "ORDER BY o.createdAt DESC, o.id DESC";
+
+    // Looks the order's created_at up in order_keys so PostgreSQL prunes the scan to the month holding the order
+    String BY_ID = "o.id = :id AND o.createdAt = (SELECT k.createdAt FROM OrderKey k WHERE k.id = :id) ";
+
+    @Override
+    @Query("SELECT o FROM Order o WHERE " + BY_ID)
+    Optional<Order> findById(@Param("id") UUID id);
+
+    @Override
+    @Query("SELECT COUNT(o) > 0 FROM Order o WHERE " + BY_ID)
+    boolean existsById(@Param("id") UUID id);
+
+    @Query(value = SUMMARY_SELECT + "WHERE o.customerId = :customerId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customerId = :customerId")
+    Page<OrderSummaryDto> findSummariesByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE o.restaurantId = :restaurantId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.restaurantId = :restaurantId")
+    Page<OrderSummaryDto> findSummariesByRestaurantId(@Param("restaurantId") UUID restaurantId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<OrderSummaryDto> findSummariesByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummaryDto> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.archived = false AND o.status IN :statuses")
+    List<OrderSummaryDto> findSummariesByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query(SUMMARY_SELECT + "WHERE " + BY_ID)
+    Optional<OrderSummaryDto> findSummaryById(@Param("id") UUID id);
+
+    @Query("SELECT o.status FROM Order o WHERE " + BY_ID)
+    Optional<OrderStatus> findStatusById(@Param("id") UUID id);
+
+    @Query("SELECT new com.example.orderservice.metrics.OrderLifecycle(" +
+            "o.createdAt, o.confirmedAt, o.acceptedAt, o.readyAt, o.pickedUpAt, o.deliveredAt) " +
+            "FROM Order o WHERE " + BY_ID)
+    Optional<OrderLifecycle> findLifecycleById(@Param("id") UUID id);
+
+    @Query(SUMMARY_SELECT + "WHERE o.customerId = :customerId " + KEYSET_ORDER)
+    List<OrderSummaryDto> findFirstSummariesByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.customerId = :customerId AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<OrderSummaryDto> findSummariesByCustomerIdBefore(
+            @Param("customerId") UUID customerId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE o.restaurantId = :restaurantId " + KEYSET_ORDER)
+    List<OrderSummaryDto> findFirstSummariesByRestaurantId(@Param("restaurantId") UUID restaurantId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.restaurantId = :restaurantId AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<OrderSummaryDto> findSummariesByRestaurantIdBefore(
+            @Param("restaurantId") UUID restaurantId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE o.status = :status " + KEYSET_ORDER)
+    List<OrderSummaryDto> findFirstSummariesByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.status = :status AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<OrderSummaryDto> findSummariesByStatusBefore(
+            @Param("status") OrderStatus status,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY_SELECT + KEYSET_ORDER)
+    List<OrderSummaryDto> findFirstSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<OrderSummaryDto> findAllSummariesBefore(
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
     @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.createdAt DESC")
     List<Order> findRecentOrdersByCustomer(@Param("customerId") UUID customerId, Pageable pageable);
 
@@ -38,17 +141,126 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("statuses") List<OrderStatus> statuses
     );
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE " + BY_ID)
     Optional<Order> findByIdWithItems(@Param("id") UUID id);
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items LEFT JOIN FETCH o.payment WHERE o.id = :id")
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items LEFT JOIN FETCH o.payment WHERE " + BY_ID)
     Optional<Order> findByIdWithItemsAndPayment(@Param("id") UUID id);
 
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.payment WHERE " + BY_ID)
+    Optional<Order> findByIdWithPayment(@Param("id") UUID id);
+
+    // Driven by order_keys so each order is probed in the one month that holds it, as BY_ID does for a single id
+    @Query("SELECT o FROM OrderKey k JOIN Order o ON o.id = k.id AND o.createdAt = k.createdAt " +
+            "LEFT JOIN FETCH o.payment WHERE k.id IN :ids")
+    List<Order> findAllWithPaymentByIdIn(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.customerId = :customerId AND o.status = :status")
     long countByCustomerIdAndStatus(@Param("customerId") UUID customerId, @Param("status") OrderStatus status);
 
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :start AND :end")
     List<Order> findOrdersCreatedBetween(@Param("start") Instant start, @Param("end") Instant end);
 
+    // Forward-only cursor over flat rows: nothing enters the persistence context, so heap stays flat
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.orderservice.dto.order.OrderExportRow(" +
+            "o.id, o.customerId, o.restaurantId, o.status, o.totalPrice, o.createdAt, o.deliveredAt, o.cancelledAt, " +
+            "i.id, i.menuItemId, i.name, i.quantity, i.price) " +
+            "FROM Order o LEFT JOIN o.items i " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+            "ORDER BY o.createdAt, o.id")
+    Stream<OrderExportRow> streamExportRows(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Bumps the version so concurrent entity-based writers fail their optimistic check
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, " +
+            "o.confirmedAt = COALESCE(o.confirmedAt, :confirmedAt), " +
+            "o.acceptedAt = COALESCE(:acceptedAt, o.acceptedAt), " +
+            "o.estimatedDeliveryTime = COALESCE(:estimatedDeliveryTime, o.estimatedDeliveryTime), " +
+            "o.readyAt = COALESCE(:readyAt, o.readyAt), " +
+            "o.pickedUpAt = COALESCE(:pickedUpAt, o.pickedUpAt), " +
+            "o.deliveredAt = COALESCE(:deliveredAt, o.deliveredAt), " +
+            "o.cancelledAt = COALESCE(:cancelledAt, o.cancelledAt), " +
+            "o.updatedAt = :updatedAt, " +
+            "o.version = o.version + 1 " +
+            "WHERE " + BY_ID + "AND o.archived = false AND o.status IN :fromStatuses")
+    int transitionStatus(
+            @Param("id") UUID id,
+            @Param("fromStatuses") Collection<OrderStatus> fromStatuses,
+            @Param("status") OrderStatus status,
+            @Param("confirmedAt") Instant confirmedAt,
+            @Param("acceptedAt") Instant acceptedAt,
+            @Param("estimatedDeliveryTime") Instant estimatedDeliveryTime,
+            @Param("readyAt") Instant readyAt,
+            @Param("pickedUpAt") Instant pickedUpAt,
+            @Param("deliveredAt") Instant deliveredAt,
+            @Param("cancelledAt") Instant cancelledAt,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    // For a transition the status guard turned away, such as an acceptance retried after the order moved on: its
+    // stage timestamps still belong on the order, so each one is filled in where the order has none. Testing the
+    // parameter through COALESCE gives it the column's type when it is bound as null.
+    @Modifying
+    @Query("UPDATE Order o SET " +
+            "o.confirmedAt = COALESCE(o.confirmedAt, :confirmedAt), " +
+            "o.acceptedAt = COALESCE(o.acceptedAt, :acceptedAt), " +
+            "o.estimatedDeliveryTime = COALESCE(o.estimatedDeliveryTime, :estimatedDeliveryTime), " +
+            "o.readyAt = COALESCE(o.readyAt, :readyAt), " +
+            "o.pickedUpAt = COALESCE(o.pickedUpAt, :pickedUpAt), " +
+            "o.updatedAt = :updatedAt, " +
+            "o.version = o.version + 1 " +
+            "WHERE " + BY_ID + "AND o.archived = false AND (" +
+            "(o.confirmedAt IS NULL AND COALESCE(o.confirmedAt, :confirmedAt) IS NOT NULL) OR " +
+            "(o.acceptedAt IS NULL AND COALESCE(o.acceptedAt, :acceptedAt) IS NOT NULL) OR " +
+            "(o.estimatedDeliveryTime IS NULL AND COALESCE(o.estimatedDeliveryTime, :estimatedDeliveryTime) IS NOT NULL) OR " +
+            "(o.readyAt IS NULL AND COALESCE(o.readyAt, :readyAt) IS NOT NULL) OR " +
+            "(o.pickedUpAt IS NULL AND COALESCE(o.pickedUpAt, :pickedUpAt) IS NOT NULL))")
+    int fillMissingStageTimestamps(
+            @Param("id") UUID id,
+            @Param("confirmedAt") Instant confirmedAt,
+            @Param("acceptedAt") Instant acceptedAt,
+            @Param("estimatedDeliveryTime") Instant estimatedDeliveryTime,
+            @Param("readyAt") Instant readyAt,
+            @Param("pickedUpAt") Instant pickedUpAt,
+            @Param("updatedAt") Instant updatedAt
+    );
+
     boolean existsByCustomerIdAndStatusIn(UUID customerId, List<OrderStatus> statuses);
+
+    // The key's ON DELETE CASCADE removes the order's items and payment with it; the order row is deleted after
+    // it with deleteOrderRow, since the key is what BY_ID routes through
+    @Modifying
+    @Query(value = "DELETE FROM order_keys WHERE id = :id", nativeQuery = true)
+    int deleteOrderKey(@Param("id") UUID id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id = :id AND o.createdAt = :createdAt")
+    int deleteOrderRow(@Param("id") UUID id, @Param("createdAt") Instant createdAt);
+
+    // Moves one batch of finalized orders with their items and payment into the archive partitions;
+    // changing the partition key relocates the rows and SKIP LOCKED keeps concurrent archivers apart
+    @Modifying
+    @Query(value = "WITH batch AS (" +
+            "SELECT id FROM orders WHERE archived = FALSE AND status IN (:statuses) AND created_at < :cutoff " +
+            "ORDER BY created_at LIMIT :batchSize FOR UPDATE SKIP LOCKED), " +
+            "archived_items AS (UPDATE order_items SET archived = TRUE " +
+            "WHERE archived = FALSE AND order_id IN (SELECT id FROM batch)), " +
+            "archived_payments AS (UPDATE payments SET archived = TRUE " +
+            "WHERE archived = FALSE AND order_id IN (SELECT id FROM batch)) " +
+            "UPDATE orders SET archived = TRUE WHERE archived = FALSE AND id IN (SELECT id FROM batch)",
+            nativeQuery = true)
+    int archiveFinalizedBefore(
+            @Param("statuses") Collection<String> statuses,
+            @Param("cutoff") Instant cutoff,
+            @Param("batchSize") int batchSize
+    );
+
+    @Query(value = "SELECT create_order_partitions(:monthsAhead)", nativeQuery = true)
+    int createPartitions(@Param("monthsAhead") int monthsAhead);
+
+    // A null archiveBefore keeps every archive month
+    @Query(value = "SELECT drop_expired_order_partitions(CAST(:liveBefore AS TIMESTAMP), CAST(:archiveBefore AS TIMESTAMP))",
+            nativeQuery = true)
+    int dropExpiredPartitions(@Param("liveBefore") Instant liveBefore, @Param("archiveBefore") Instant archiveBefore);
 }
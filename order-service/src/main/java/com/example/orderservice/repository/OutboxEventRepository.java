@@ -0,0 +1,57 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // SKIP LOCKED (-2) lets several relay instances claim from the outbox without blocking each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL " +
+            "AND (e.claimedUntil IS NULL OR e.claimedUntil <= :now) ORDER BY e.createdAt ASC")
+    List<OutboxEvent> findClaimableForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    // Aggregates of the given events that have an older unpublished event outside them
+    @Query("SELECT DISTINCT e.aggregateId FROM OutboxEvent e, OutboxEvent b " +
+            "WHERE b.id IN :ids AND e.aggregateId = b.aggregateId AND e.publishedAt IS NULL " +
+            "AND e.createdAt < b.createdAt AND e.id NOT IN :ids")
+    List<UUID> findAggregatesWithEarlierPendingEvents(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<UUID> ids, @Param("claimedUntil") Instant claimedUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids")
+    int releaseClaims(@Param("ids") Collection<UUID> ids);
+
+    long countByPublishedAtIsNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.publishedAt IS NULL")
+    Optional<Instant> findOldestUnpublishedCreatedAt();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<UUID> ids, @Param("publishedAt") Instant publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,4 +27,8 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     Page<Payment> findByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
 
     boolean existsByOrderId(UUID orderId);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.updatedAt < :cutoff ORDER BY p.updatedAt ASC")
+    List<UUID> findIdsByStatusUpdatedBefore(@Param("status") PaymentStatus status, @Param("cutoff") Instant cutoff,
+                                            Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.order.OrderExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface OrderExportService {
+
+    long exportOrders(Instant from, Instant to, OrderExportFormat format, OutputStream out) throws IOException;
+}
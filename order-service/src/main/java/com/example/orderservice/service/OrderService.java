@@ -5,6 +5,7 @@ import com.example.orderservice.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,8 +25,18 @@ public interface OrderService {
 
     Page<OrderSummaryDto> getOrdersByStatus(OrderStatus status, Pageable pageable);
 
+    OrderSummarySlice scrollOrdersByCustomer(UUID customerId, String cursor, int size);
+
+    OrderSummarySlice scrollOrdersByRestaurant(UUID restaurantId, String cursor, int size);
+
+    OrderSummarySlice scrollAllOrders(String cursor, int size);
+
+    OrderSummarySlice scrollOrdersByStatus(OrderStatus status, String cursor, int size);
+
     List<OrderSummaryDto> getActiveOrdersByRestaurant(UUID restaurantId);
 
+    OrderLookupResponse lookupOrders(List<UUID> orderIds);
+
     OrderDto updateOrderStatus(UUID orderId, UpdateOrderStatusRequest request);
 
     OrderDto cancelOrder(UUID orderId, UUID customerId, CancelOrderRequest request);
@@ -45,4 +56,6 @@ public interface OrderService {
     void handleOrderReady(UUID orderId);
 
     void handleDeliveryStatusChanged(UUID orderId, String newStatus);
+
+    void applyTransitions(Collection<OrderTransition> transitions);
 }
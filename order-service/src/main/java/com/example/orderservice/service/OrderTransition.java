@@ -0,0 +1,206 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.entity.Payment;
+import com.example.orderservice.entity.PaymentStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Builder
+public class OrderTransition {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCE_STATUSES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus target : OrderStatus.values()) {
+            Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus source : OrderStatus.values()) {
+                if (!isFinal(source) && lifecycleRank(source) < lifecycleRank(target)) {
+                    sources.add(source);
+                }
+            }
+            SOURCE_STATUSES.put(target, Collections.unmodifiableSet(sources));
+        }
+    }
+
+    private final UUID orderId;
+    private final OrderStatus status;
+    private final Instant confirmedAt;
+    private final Instant acceptedAt;
+    private final Instant estimatedDeliveryTime;
+    private final Instant readyAt;
+    private final Instant pickedUpAt;
+    private final Instant deliveredAt;
+    private final Instant cancelledAt;
+    private final String rejectionReason;
+    private final boolean releasePayment;
+
+    public static OrderTransition accepted(UUID orderId, Integer estimatedPrepTimeMinutes, Instant now) {
+        return OrderTransition.builder()
+                .orderId(orderId)
+                .status(OrderStatus.ACCEPTED_BY_RESTAURANT)
+                .confirmedAt(now)
+                .acceptedAt(now)
+                .estimatedDeliveryTime(estimatedPrepTimeMinutes != null
+                        ? now.plus(estimatedPrepTimeMinutes + 30, ChronoUnit.MINUTES)
+                        : null)
+                .build();
+    }
+
+    public static OrderTransition rejected(UUID orderId, String reason, Instant now) {
+        return OrderTransition.builder()
+                .orderId(orderId)
+                .status(OrderStatus.REJECTED)
+                .rejectionReason(reason)
+                .cancelledAt(now)
+                .releasePayment(true)
+                .build();
+    }
+
+    public static OrderTransition ready(UUID orderId, Instant now) {
+        return OrderTransition.builder()
+                .orderId(orderId)
+                .status(OrderStatus.READY_FOR_PICKUP)
+                .readyAt(now)
+                .build();
+    }
+
+    public static OrderTransition fromDeliveryStatus(UUID orderId, String deliveryStatus, Instant now) {
+        OrderTransition.OrderTransitionBuilder builder = OrderTransition.builder().orderId(orderId);
+        switch (deliveryStatus) {
+            case "PICKED_UP":
+                return builder.status(OrderStatus.PICKED_UP).pickedUpAt(now).build();
+            case "IN_TRANSIT":
+                return builder.status(OrderStatus.IN_DELIVERY).build();
+            case "DELIVERED":
+                return builder.status(OrderStatus.DELIVERED).deliveredAt(now).build();
+            case "CANCELLED":
+                return builder.status(OrderStatus.CANCELLED).cancelledAt(now).build();
+            default:
+                return null;
+        }
+    }
+
+    // The furthest status in the lifecycle wins so a late event cannot move the order backwards;
+    // timestamps and the payment release from every folded transition are kept
+    public OrderTransition mergedWith(OrderTransition later) {
+        boolean laterWins = lifecycleRank(later.status) >= lifecycleRank(status);
+        return OrderTransition.builder()
+                .orderId(orderId)
+                .status(laterWins ? later.status : status)
+                .confirmedAt(firstNonNull(confirmedAt, later.confirmedAt))
+                .acceptedAt(firstNonNull(acceptedAt, later.acceptedAt))
+                .estimatedDeliveryTime(firstNonNull(later.estimatedDeliveryTime, estimatedDeliveryTime))
+                .readyAt(firstNonNull(readyAt, later.readyAt))
+                .pickedUpAt(firstNonNull(pickedUpAt, later.pickedUpAt))
+                .deliveredAt(firstNonNull(deliveredAt, later.deliveredAt))
+                .cancelledAt(firstNonNull(cancelledAt, later.cancelledAt))
+                .rejectionReason(firstNonNull(later.rejectionReason, rejectionReason))
+                .releasePayment(releasePayment || later.releasePayment)
+                .build();
+    }
+
+    // Statuses this transition may move an order out of; duplicates and stale events fall outside it
+    public Set<OrderStatus> allowedSourceStatuses() {
+        return SOURCE_STATUSES.get(status);
+    }
+
+    public boolean canApplyFrom(OrderStatus current) {
+        return allowedSourceStatuses().contains(current);
+    }
+
+    // Timestamps of the stages before the final one; a late transition can still contribute these
+    public boolean hasStageTimestamps() {
+        return confirmedAt != null || acceptedAt != null || estimatedDeliveryTime != null
+                || readyAt != null || pickedUpAt != null;
+    }
+
+    // For an order this transition can no longer move: records the stage timestamps it lacks, same as
+    // OrderRepository.fillMissingStageTimestamps, and reports whether any was missing
+    public boolean fillMissingStageTimestamps(Order order) {
+        boolean filled = false;
+        if (confirmedAt != null && order.getConfirmedAt() == null) {
+            order.setConfirmedAt(confirmedAt);
+            filled = true;
+        }
+        if (acceptedAt != null && order.getAcceptedAt() == null) {
+            order.setAcceptedAt(acceptedAt);
+            filled = true;
+        }
+        if (estimatedDeliveryTime != null && order.getEstimatedDeliveryTime() == null) {
+            order.setEstimatedDeliveryTime(estimatedDeliveryTime);
+            filled = true;
+        }
+        if (readyAt != null && order.getReadyAt() == null) {
+            order.setReadyAt(readyAt);
+            filled = true;
+        }
+        if (pickedUpAt != null && order.getPickedUpAt() == null) {
+            order.setPickedUpAt(pickedUpAt);
+            filled = true;
+        }
+        return filled;
+    }
+
+    public void applyTo(Order order) {
+        order.setStatus(status);
+        // A payment confirmation already on the order is kept so the created-to-confirmed leg stays accurate
+        if (confirmedAt != null && order.getConfirmedAt() == null) {
+            order.setConfirmedAt(confirmedAt);
+        }
+        if (acceptedAt != null) {
+            order.setAcceptedAt(acceptedAt);
+        }
+        if (estimatedDeliveryTime != null) {
+            order.setEstimatedDeliveryTime(estimatedDeliveryTime);
+        }
+        if (readyAt != null) {
+            order.setReadyAt(readyAt);
+        }
+        if (pickedUpAt != null) {
+            order.setPickedUpAt(pickedUpAt);
+        }
+        if (deliveredAt != null) {
+            order.setDeliveredAt(deliveredAt);
+        }
+        if (cancelledAt != null) {
+            order.setCancelledAt(cancelledAt);
+        }
+        if (rejectionReason != null) {
+            order.setRejectionReason(rejectionReason);
+        }
+
+        Payment payment = order.getPayment();
+        if (releasePayment && payment != null) {
+            if (payment.getStatus() == PaymentStatus.COMPLETED) {
+                payment.setStatus(PaymentStatus.REFUNDED);
+                payment.setRefundedAt(cancelledAt != null ? cancelledAt : Instant.now());
+            } else {
+                payment.setStatus(PaymentStatus.CANCELLED);
+            }
+        }
+    }
+
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED || status == OrderStatus.REJECTED;
+    }
+
+    private static int lifecycleRank(OrderStatus status) {
+        return isFinal(status) ? Integer.MAX_VALUE : status.ordinal();
+    }
+
+    private static <T> T firstNonNull(T first, T second) {
+        return first != null ? first : second;
+    }
+}
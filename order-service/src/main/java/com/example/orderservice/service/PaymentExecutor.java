@@ -0,0 +1,67 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.exception.PaymentQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Not exposed as an Executor bean so Boot's applicationTaskExecutor stays in place for MVC async requests
+@Component
+@Slf4j
+public class PaymentExecutor {
+
+    private final ExecutorService executor;
+    private final Counter rejected;
+
+    public PaymentExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.payments.async.workers:32}") int workers,
+            @Value("${app.payments.async.queue-capacity:500}") int queueCapacity
+    ) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("payment-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        // executor.active, executor.queued and executor.queue.remaining show how close the pool is to saturation
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "payment.processor");
+        this.rejected = Counter.builder("payment.processor.rejected")
+                .register(meterRegistry);
+    }
+
+    public void submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Async payment task failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PaymentQueueFullException("Payment processing is at capacity, please retry shortly");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Payment workers did not finish within 30s; unfinished payments stay PROCESSING until reconciled");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.payment.ProcessPaymentRequest;
+
+import java.util.UUID;
+
+public interface PaymentProvider {
+
+    // The payment id is the provider's reference for the charge, so a repeated call does not charge twice
+    boolean charge(UUID paymentId, ProcessPaymentRequest request);
+
+    // The outcome of an earlier charge, for payments whose result was never recorded
+    ChargeStatus findCharge(UUID paymentId);
+
+    enum ChargeStatus {
+        SUCCEEDED,
+        DECLINED,
+        NOT_FOUND
+    }
+}
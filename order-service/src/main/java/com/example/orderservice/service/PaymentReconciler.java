@@ -0,0 +1,51 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.entity.PaymentStatus;
+import com.example.orderservice.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// A payment stays PROCESSING only while its charge is in flight; one that outlives stale-after lost its worker,
+// its record step or the provider's answer, and is finished here from the provider's side
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciler {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+
+    @Value("${app.payments.reconcile.stale-after:PT10M}")
+    private Duration staleAfter;
+
+    @Value("${app.payments.reconcile.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.payments.reconcile.interval:PT1M}",
+            initialDelayString = "${app.payments.reconcile.interval:PT1M}")
+    public void reconcileStalePayments() {
+        List<UUID> stale = paymentRepository.findIdsByStatusUpdatedBefore(
+                PaymentStatus.PROCESSING, Instant.now().minus(staleAfter), PageRequest.of(0, batchSize));
+        int reconciled = 0;
+        for (UUID paymentId : stale) {
+            try {
+                paymentService.reconcilePayment(paymentId);
+                reconciled++;
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile payment {}, will retry: {}", paymentId, e.getMessage());
+            }
+        }
+        if (!stale.isEmpty()) {
+            log.info("Reconciled {}/{} payments stuck in PROCESSING", reconciled, stale.size());
+        }
+    }
+}
@@ -24,4 +24,6 @@ public interface PaymentService {
     PaymentDto refundPayment(UUID paymentId, RefundRequest request);
 
     PaymentDto cancelPayment(UUID paymentId);
+
+    void reconcilePayment(UUID paymentId);
 }
@@ -0,0 +1,112 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.dto.order.OrderExportFormat;
+import com.example.orderservice.dto.order.OrderExportRow;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.OrderExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER = "order_id,customer_id,restaurant_id,status,total_price,created_at," +
+            "delivered_at,cancelled_at,item_id,menu_item_id,item_name,quantity,item_price";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    // The cursor only stays open inside a transaction, and PostgreSQL only honours the fetch size with autocommit off
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(Instant from, Instant to, OrderExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == OrderExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        try (Stream<OrderExportRow> stream = orderRepository.streamExportRows(from, to)) {
+            Iterator<OrderExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                OrderExportRow row = iterator.next();
+                if (format == OrderExportFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} order rows between {} and {} as {}", rows, from, to, format);
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getOrderId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getCustomerId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getRestaurantId()));
+        writer.write(',');
+        writer.write(row.getStatus().name());
+        writer.write(',');
+        writer.write(row.getTotalPrice().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(row.getCreatedAt()));
+        writer.write(',');
+        writer.write(nullToEmpty(row.getDeliveredAt()));
+        writer.write(',');
+        writer.write(nullToEmpty(row.getCancelledAt()));
+        writer.write(',');
+        writer.write(nullToEmpty(row.getItemId()));
+        writer.write(',');
+        writer.write(nullToEmpty(row.getMenuItemId()));
+        writer.write(',');
+        writer.write(escapeCsv(row.getItemName()));
+        writer.write(',');
+        writer.write(nullToEmpty(row.getQuantity()));
+        writer.write(',');
+        writer.write(row.getItemPrice() != null ? row.getItemPrice().toPlainString() : "");
+        writer.write('\n');
+    }
+
+    private String nullToEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Spreadsheets run a cell starting with one of these as a formula, so such text is forced to stay text
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.orderservice.service.impl;
 
+import com.example.orderservice.cache.ActiveOrderIndex;
+import com.example.orderservice.cache.OrderDtoCache;
 import com.example.orderservice.dto.payment.PaymentDto;
 import com.example.orderservice.dto.payment.ProcessPaymentRequest;
 import com.example.orderservice.dto.payment.RefundRequest;
@@ -11,18 +13,30 @@ import com.example.orderservice.entity.PaymentStatus;
 import com.example.orderservice.exception.InvalidPaymentStateException;
 import com.example.orderservice.exception.OrderNotFoundException;
 import com.example.orderservice.exception.PaymentNotFoundException;
+import com.example.orderservice.exception.PaymentQueueFullException;
 import com.example.orderservice.kafka.OrderEventProducer;
 import com.example.orderservice.mapper.PaymentMapper;
+import com.example.orderservice.metrics.OrderMetrics;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.PaymentExecutor;
+import com.example.orderservice.service.PaymentProvider;
 import com.example.orderservice.service.PaymentService;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -30,23 +44,59 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "payment.service", histogram = true)
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentMapper paymentMapper;
     private final OrderEventProducer orderEventProducer;
+    private final OrderDtoCache orderDtoCache;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
+    private final ActiveOrderIndex activeOrderIndex;
+    private final OrderMetrics orderMetrics;
+    private final PaymentProvider paymentProvider;
+    private final PaymentExecutor paymentExecutor;
+    private final TransactionTemplate transactionTemplate;
 
+    @Value("${app.payments.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    @Value("${app.payments.record.max-attempts:3}")
+    private int recordMaxAttempts;
+
+    @Value("${app.payments.record.backoff:PT0.5S}")
+    private Duration recordBackoff;
+
+    // The provider call runs between two short transactions so PSP latency never pins a connection
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto processPayment(ProcessPaymentRequest request) {
         log.info("Processing payment for order: {}", request.getOrderId());
 
-        Order order = orderRepository.findById(request.getOrderId())
-                .orElseThrow(() -> new OrderNotFoundException("Order not found: " + request.getOrderId()));
+        PaymentDto reserved = transactionTemplate.execute(status -> reservePayment(request.getOrderId()));
+        UUID paymentId = reserved.getId();
+
+        if (!asyncEnabled) {
+            return chargeAndRecord(reserved, request);
+        }
+
+        try {
+            paymentExecutor.submit(() -> chargeAndRecord(reserved, request));
+        } catch (PaymentQueueFullException e) {
+            transactionTemplate.executeWithoutResult(status -> releaseReservation(paymentId));
+            throw e;
+        }
+        return reserved;
+    }
+
+    private PaymentDto reservePayment(UUID orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
 
         Payment payment = order.getPayment();
         if (payment == null) {
-            throw new PaymentNotFoundException("No payment found for order: " + request.getOrderId());
+            throw new PaymentNotFoundException("No payment found for order: " + orderId);
         }
 
         if (payment.getStatus() != PaymentStatus.PENDING) {
@@ -55,7 +105,87 @@ public class PaymentServiceImpl implements PaymentService {
             );
         }
 
-        boolean paymentSuccess = simulatePaymentProcessing(request);
+        // PROCESSING also keeps a second request for the same order from charging twice
+        payment.setStatus(PaymentStatus.PROCESSING);
+        Payment savedPayment = paymentRepository.save(payment);
+        return paymentMapper.toDto(savedPayment);
+    }
+
+    private void releaseReservation(UUID paymentId) {
+        paymentRepository.findById(paymentId)
+                .filter(payment -> payment.getStatus() == PaymentStatus.PROCESSING)
+                .ifPresent(payment -> {
+                    payment.setStatus(PaymentStatus.PENDING);
+                    paymentRepository.save(payment);
+                });
+    }
+
+    private PaymentDto chargeAndRecord(PaymentDto reserved, ProcessPaymentRequest request) {
+        UUID paymentId = reserved.getId();
+        boolean paymentSuccess;
+        try {
+            paymentSuccess = paymentProvider.charge(paymentId, request);
+        } catch (RuntimeException e) {
+            // A timeout or provider error does not mean the charge failed; the reconciler asks the provider later
+            log.error("Payment provider call failed for payment {} of order {}, leaving it PROCESSING: {}",
+                    paymentId, request.getOrderId(), e.getMessage());
+            return reserved;
+        }
+
+        return recordWithRetry(paymentId, paymentSuccess);
+    }
+
+    // Finishes a payment left PROCESSING, by a provider error, a failed record step or a worker task dropped at
+    // shutdown, from what the provider says became of its charge. A charge the provider never received is released
+    // for a new attempt.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcilePayment(UUID paymentId) {
+        PaymentProvider.ChargeStatus charge = paymentProvider.findCharge(paymentId);
+        log.info("Reconciling payment {} stuck in PROCESSING, provider reports {}", paymentId, charge);
+        switch (charge) {
+            case SUCCEEDED -> recordWithRetry(paymentId, true);
+            case DECLINED -> recordWithRetry(paymentId, false);
+            case NOT_FOUND -> transactionTemplate.executeWithoutResult(status -> releaseReservation(paymentId));
+        }
+    }
+
+    // The money has already moved, so a transient database failure must not leave the payment PROCESSING
+    private PaymentDto recordWithRetry(UUID paymentId, boolean paymentSuccess) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> recordPaymentResult(paymentId, paymentSuccess));
+            } catch (DataAccessException | TransactionException e) {
+                if (attempt >= recordMaxAttempts) {
+                    log.error("Failed to record the result of payment {} after {} attempts; the reconciler will finish it",
+                            paymentId, attempt, e);
+                    throw e;
+                }
+                log.warn("Failed to record the result of payment {} (attempt {}), retrying: {}",
+                        paymentId, attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(recordBackoff.multipliedBy(attempt).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording a payment result", e);
+        }
+    }
+
+    private PaymentDto recordPaymentResult(UUID paymentId, boolean paymentSuccess) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
+        Order order = payment.getOrder();
+
+        if (payment.getStatus() != PaymentStatus.PROCESSING) {
+            log.warn("Payment {} left PROCESSING while the provider call was in flight: {}", paymentId, payment.getStatus());
+            return paymentMapper.toDto(payment);
+        }
 
         if (paymentSuccess) {
             payment.setStatus(PaymentStatus.COMPLETED);
@@ -65,22 +195,28 @@ public class PaymentServiceImpl implements PaymentService {
             order.setStatus(OrderStatus.CONFIRMED);
             order.setConfirmedAt(Instant.now());
 
-            log.info("Payment completed successfully for order: {}", request.getOrderId());
+            log.info("Payment completed successfully for order: {}", order.getId());
 
-            orderEventProducer.sendPaymentCompletedEvent(payment);
+            orderEventProducer.enqueuePaymentCompletedEvent(payment);
         } else {
             payment.setStatus(PaymentStatus.FAILED);
             payment.setFailureReason("Payment processing failed");
 
-            log.warn("Payment failed for order: {}", request.getOrderId());
+            log.warn("Payment failed for order: {}", order.getId());
 
-            orderEventProducer.sendPaymentFailedEvent(payment, "Payment processing failed");
+            orderEventProducer.enqueuePaymentFailedEvent(payment, "Payment processing failed");
         }
 
-        paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
         orderRepository.save(order);
+        orderDtoCache.evict(order.getId());
+        if (paymentSuccess) {
+            activeOrderIndex.updateStatus(order.getId(), order.getStatus(), order.getEstimatedDeliveryTime());
+            orderStatusBroadcaster.publish(order.getId(), order.getStatus());
+            orderMetrics.recordTransition(order.getStatus());
+        }
 
-        return paymentMapper.toDto(payment);
+        return paymentMapper.toDto(savedPayment);
     }
 
     @Override
@@ -122,6 +258,7 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setPaymentMethod(request.getPaymentMethod());
 
         Payment savedPayment = paymentRepository.save(payment);
+        orderDtoCache.evict(payment.getOrder().getId());
         log.info("Payment {} updated successfully", paymentId);
 
         return paymentMapper.toDto(savedPayment);
@@ -145,6 +282,7 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setFailureReason("Refund: " + request.getReason());
 
         Payment savedPayment = paymentRepository.save(payment);
+        orderDtoCache.evict(payment.getOrder().getId());
         log.info("Payment {} refunded successfully", paymentId);
 
         return paymentMapper.toDto(savedPayment);
@@ -166,20 +304,12 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setStatus(PaymentStatus.CANCELLED);
 
         Payment savedPayment = paymentRepository.save(payment);
+        orderDtoCache.evict(payment.getOrder().getId());
         log.info("Payment {} cancelled successfully", paymentId);
 
         return paymentMapper.toDto(savedPayment);
     }
 
-    private boolean simulatePaymentProcessing(ProcessPaymentRequest request) {
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        return true;
-    }
-
     private String generateTransactionId() {
         return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
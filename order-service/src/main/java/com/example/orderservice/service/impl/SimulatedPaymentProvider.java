@@ -0,0 +1,36 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.dto.payment.ProcessPaymentRequest;
+import com.example.orderservice.service.PaymentProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Component
+public class SimulatedPaymentProvider implements PaymentProvider {
+
+    private final Cache<UUID, ChargeStatus> charges = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    @Override
+    public boolean charge(UUID paymentId, ProcessPaymentRequest request) {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        charges.put(paymentId, ChargeStatus.SUCCEEDED);
+        return true;
+    }
+
+    @Override
+    public ChargeStatus findCharge(UUID paymentId) {
+        ChargeStatus status = charges.getIfPresent(paymentId);
+        return status != null ? status : ChargeStatus.NOT_FOUND;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.orderservice.stream;
+
+import com.example.orderservice.dto.order.OrderStatusEvent;
+import com.example.orderservice.entity.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class OrderStatusBroadcaster {
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    // One shared timer keeps idle connections alive instead of a scheduled task per subscriber
+    private final Flux<ServerSentEvent<OrderStatusEvent>> heartbeats;
+
+    public OrderStatusBroadcaster(
+            MeterRegistry meterRegistry,
+            @Value("${app.orders.stream.heartbeat-interval:PT15S}") Duration heartbeatInterval
+    ) {
+        this.heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<OrderStatusEvent>builder().comment("keepalive").build())
+                .share();
+        Gauge.builder("order.stream.subscribers", subscribers, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("order.stream.channels", channels, Map::size)
+                .register(meterRegistry);
+    }
+
+    // The listener is registered before current is read, so a status committed in between, a final one included,
+    // still reaches the stream: either the read sees it or the replayed update delivers it
+    public Flux<ServerSentEvent<OrderStatusEvent>> stream(UUID orderId, Supplier<OrderStatusEvent> current) {
+        return Flux.using(() -> listen(orderId), listener -> {
+            OrderStatusEvent snapshot = current.get();
+            if (isFinal(snapshot.getStatus())) {
+                return Flux.just(toSse(snapshot));
+            }
+
+            Flux<ServerSentEvent<OrderStatusEvent>> updates = listener.updates
+                    .skipWhile(event -> event.getStatus() == snapshot.getStatus())
+                    // A slow client only needs the newest status, not every intermediate one
+                    .onBackpressureLatest()
+                    .map(this::toSse)
+                    .share();
+            return Flux.concat(
+                    Flux.just(toSse(snapshot)),
+                    Flux.merge(updates, heartbeats.takeUntilOther(updates.ignoreElements()))
+            );
+        }, Listener::close);
+    }
+
+    public void publish(UUID orderId, OrderStatus status) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emit(orderId, status);
+                }
+            });
+        } else {
+            emit(orderId, status);
+        }
+    }
+
+    // Transitions committed on other instances only reach this one as cache invalidations, so the current status is
+    // re-read here; only orders someone streams from this instance are read at all
+    public void relay(UUID orderId, Supplier<Optional<OrderStatus>> current) {
+        if (!channels.containsKey(orderId)) {
+            return;
+        }
+        current.get().ifPresent(status -> emit(orderId, status));
+    }
+
+    private Listener listen(UUID orderId) {
+        Channel channel = channels.compute(orderId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel();
+            target.subscribers++;
+            return target;
+        });
+        subscribers.incrementAndGet();
+        return new Listener(orderId, channel);
+    }
+
+    private void release(UUID orderId, Channel channel) {
+        subscribers.decrementAndGet();
+        channels.computeIfPresent(orderId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+
+    private void emit(UUID orderId, OrderStatus status) {
+        Channel channel = channels.get(orderId);
+        if (channel == null) {
+            return;
+        }
+
+        OrderStatusEvent event = OrderStatusEvent.builder()
+                .orderId(orderId)
+                .status(status)
+                .occurredAt(Instant.now())
+                .build();
+        // Emission is serialized per order so concurrent publishers cannot trip the sink's non-serialized guard.
+        // This runs after the caller's commit, so a failed emission is logged rather than thrown back at it.
+        Sinks.EmitResult result;
+        synchronized (channel) {
+            // The instance that applied a transition hears of it twice, from its own commit and from the relay
+            if (status == channel.lastStatus) {
+                return;
+            }
+            channel.lastStatus = status;
+            result = channel.sink.tryEmitNext(event);
+            if (isFinal(status)) {
+                Sinks.EmitResult completion = channel.sink.tryEmitComplete();
+                result = result.isFailure() ? result : completion;
+                channels.remove(orderId, channel);
+            }
+        }
+        if (result == Sinks.EmitResult.OK) {
+            log.debug("Pushed status {} of order {} to {} subscribers", status, orderId, channel.sink.currentSubscriberCount());
+        } else if (result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            // The last subscriber disconnected between the lookup and the emission
+            log.debug("No subscribers left for status {} of order {}", status, orderId);
+        } else {
+            log.warn("Failed to push status {} of order {}: {}", status, orderId, result);
+        }
+    }
+
+    private ServerSentEvent<OrderStatusEvent> toSse(OrderStatusEvent event) {
+        return ServerSentEvent.<OrderStatusEvent>builder()
+                .event("status")
+                .data(event)
+                .build();
+    }
+
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED || status == OrderStatus.REJECTED;
+    }
+
+    private static class Channel {
+
+        private final Sinks.Many<OrderStatusEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+        private OrderStatus lastStatus;
+    }
+
+    // Connected to the channel as soon as it is created; keeps the latest update until the stream subscribes
+    private final class Listener {
+
+        private final UUID orderId;
+        private final Channel channel;
+        private final ConnectableFlux<OrderStatusEvent> updates;
+        private final Disposable connection;
+
+        private Listener(UUID orderId, Channel channel) {
+            this.orderId = orderId;
+            this.channel = channel;
+            this.updates = channel.sink.asFlux().replay(1);
+            this.connection = updates.connect();
+        }
+
+        private void close() {
+            connection.dispose();
+            release(orderId, channel);
+        }
+    }
+}
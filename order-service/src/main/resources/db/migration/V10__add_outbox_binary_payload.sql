@@ -0,0 +1,4 @@
+-- New outbox rows hold the event already encoded in the binary format the relay publishes. payload keeps the
+-- JSON of rows written before this migration, so the relay can still publish them
+ALTER TABLE outbox_events ADD COLUMN payload_binary BYTEA;
+ALTER TABLE outbox_events ALTER COLUMN payload DROP NOT NULL;
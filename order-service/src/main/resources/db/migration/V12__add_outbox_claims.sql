@@ -0,0 +1,5 @@
+-- The relay claims rows for a lease instead of holding their row locks while it waits on Kafka; claims left by a
+-- relay that died mid-batch lapse and the rows are picked up again
+ALTER TABLE outbox_events ADD COLUMN claimed_until TIMESTAMP;
+
+CREATE INDEX idx_outbox_events_unpublished_aggregate ON outbox_events(aggregate_id, created_at) WHERE published_at IS NULL;
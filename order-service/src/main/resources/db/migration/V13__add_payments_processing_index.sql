@@ -0,0 +1,2 @@
+-- The payment reconciler looks for PROCESSING payments that have not moved for a while
+CREATE INDEX idx_payments_processing_updated_at ON payments(updated_at) WHERE status = 'PROCESSING';
@@ -0,0 +1,4 @@
+-- An unfinished claim belongs to the request holding lease_token until lease_expires_at; after that it was
+-- abandoned and another request may take the key over
+ALTER TABLE idempotency_keys ADD COLUMN lease_token UUID;
+ALTER TABLE idempotency_keys ADD COLUMN lease_expires_at TIMESTAMP;
@@ -0,0 +1,148 @@
+-- V8 left the partitioned tables keyed on (id, archived[, created_at]), so nothing stopped an id from repeating
+-- across partitions, items and payments lost their FK, and an id lookup had to probe every partition.
+--
+-- order_keys holds each order id once with its created_at. Its primary key makes order ids globally unique, it is
+-- the FK target for items and payments again, and id lookups read created_at from it so PostgreSQL prunes the
+-- orders scan to the one month that can hold the row. A trigger on orders_live fills it; archiving moves rows
+-- into orders_archive, which is outside orders_live, so a move does not register the id twice. Keys are only
+-- removed by retention, together with the archived month they belong to.
+--
+-- The archive side is re-partitioned by month as well, so retention can drop whole months instead of deleting
+-- rows one by one.
+
+CREATE TABLE order_keys (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE orders DETACH PARTITION orders_archive;
+ALTER TABLE orders_archive RENAME TO orders_archive_unpartitioned;
+
+CREATE TABLE orders_archive PARTITION OF orders FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+CREATE TABLE orders_archive_default PARTITION OF orders_archive DEFAULT;
+
+-- One archive month for every live month that already exists; older rows land in orders_archive_default
+DO $$
+DECLARE
+    live_partition TEXT;
+    month_start TIMESTAMP;
+BEGIN
+    FOR live_partition IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders_live'::regclass AND c.relname ~ '^orders_live_\d{4}_\d{2}$'
+    LOOP
+        month_start := to_date(right(live_partition, 7), 'YYYY_MM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders_archive FOR VALUES FROM (%L) TO (%L)',
+                'orders_archive_' || right(live_partition, 7), month_start, month_start + INTERVAL '1 month');
+    END LOOP;
+END;
+$$;
+
+INSERT INTO orders (id, customer_id, restaurant_id, status, total_price, delivery_address, delivery_lat,
+        delivery_lng, customer_notes, rejection_reason, estimated_delivery_time, created_at, updated_at,
+        confirmed_at, accepted_at, ready_at, picked_up_at, delivered_at, cancelled_at, version, archived)
+SELECT id, customer_id, restaurant_id, status, total_price, delivery_address, delivery_lat,
+        delivery_lng, customer_notes, rejection_reason, estimated_delivery_time, created_at, updated_at,
+        confirmed_at, accepted_at, ready_at, picked_up_at, delivered_at, cancelled_at, version, archived
+FROM orders_archive_unpartitioned;
+
+DROP TABLE orders_archive_unpartitioned;
+
+-- Fails the migration if V8 already let an id in twice
+INSERT INTO order_keys (id, created_at)
+SELECT id, created_at FROM orders;
+
+CREATE OR REPLACE FUNCTION register_order_key() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO order_keys (id, created_at) VALUES (NEW.id, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orders_live_register_key AFTER INSERT ON orders_live
+    FOR EACH ROW EXECUTE FUNCTION register_order_key();
+
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order_key
+    FOREIGN KEY (order_id) REFERENCES order_keys(id) ON DELETE CASCADE;
+ALTER TABLE payments ADD CONSTRAINT fk_payments_order_key
+    FOREIGN KEY (order_id) REFERENCES order_keys(id) ON DELETE CASCADE;
+
+-- Items and payments are only partitioned on archived, so the live primary key already covers every live id;
+-- a new live row just must not reuse an id that was archived. Rows never move back out of the archive.
+CREATE OR REPLACE FUNCTION reject_archived_id() RETURNS TRIGGER AS $$
+DECLARE
+    archived_exists BOOLEAN;
+BEGIN
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE id = $1)', TG_ARGV[0]) INTO archived_exists USING NEW.id;
+    IF archived_exists THEN
+        RAISE EXCEPTION 'duplicate key value: id % already exists in %', NEW.id, TG_ARGV[0]
+            USING ERRCODE = 'unique_violation';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER order_items_live_unique_id AFTER INSERT ON order_items_live
+    FOR EACH ROW EXECUTE FUNCTION reject_archived_id('order_items_archive');
+CREATE TRIGGER payments_live_unique_id AFTER INSERT ON payments_live
+    FOR EACH ROW EXECUTE FUNCTION reject_archived_id('payments_archive');
+
+-- Now creates the archive month next to each live month
+CREATE OR REPLACE FUNCTION create_order_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    current_month TIMESTAMP := date_trunc('month', LOCALTIMESTAMP);
+    month_start TIMESTAMP;
+    side TEXT;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := current_month + make_interval(months => i);
+        FOREACH side IN ARRAY ARRAY['live', 'archive'] LOOP
+            partition_name := 'orders_' || side || '_' || to_char(month_start, 'YYYY_MM');
+            IF to_regclass(partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                        partition_name, 'orders_' || side, month_start, month_start + INTERVAL '1 month');
+                created := created + 1;
+            END IF;
+        END LOOP;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Drops the live months that ended before live_before and that the archiver has emptied, and, unless
+-- archive_before is NULL, the archive months that ended before it. An archive month takes its keys with it,
+-- which cascades to the archived items and payments of those orders. Returns how many partitions were dropped.
+CREATE OR REPLACE FUNCTION drop_expired_order_partitions(live_before TIMESTAMP, archive_before TIMESTAMP)
+RETURNS INTEGER AS $$
+DECLARE
+    expired RECORD;
+    has_rows BOOLEAN;
+    dropped INTEGER := 0;
+BEGIN
+    FOR expired IN
+        SELECT p.relname AS side, c.relname AS name
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname IN ('orders_live', 'orders_archive')
+          AND c.relname ~ '_\d{4}_\d{2}$'
+          AND to_date(right(c.relname, 7), 'YYYY_MM') + INTERVAL '1 month'
+                <= CASE p.relname WHEN 'orders_live' THEN live_before ELSE archive_before END
+        ORDER BY c.relname
+    LOOP
+        IF expired.side = 'orders_live' THEN
+            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', expired.name) INTO has_rows;
+            CONTINUE WHEN has_rows;
+        ELSE
+            EXECUTE format('DELETE FROM order_keys k USING %I a WHERE k.id = a.id', expired.name);
+        END IF;
+        EXECUTE format('DROP TABLE %I', expired.name);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_order_partitions(3);
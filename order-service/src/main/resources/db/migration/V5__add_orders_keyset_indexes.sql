@@ -0,0 +1,11 @@
+-- Composite indexes backing keyset pagination on (created_at, id).
+-- They supersede the single-column indexes on the same leading columns.
+CREATE INDEX idx_orders_customer_created_id ON orders(customer_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_restaurant_created_id ON orders(restaurant_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_status_created_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX idx_orders_created_id ON orders(created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_orders_customer_id;
+DROP INDEX IF EXISTS idx_orders_restaurant_id;
+DROP INDEX IF EXISTS idx_orders_status;
+DROP INDEX IF EXISTS idx_orders_created_at;
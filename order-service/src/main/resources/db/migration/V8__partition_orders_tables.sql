@@ -0,0 +1,143 @@
+-- Orders are split into a live side, range-partitioned by month on created_at, and an archive side that
+-- OrderArchiver moves finalized orders into. Items and payments follow their order into the archive, so the
+-- hot working set is the live partitions and their indexes only.
+--
+-- A primary key on a partitioned table must contain the partition keys, so orders(id) can no longer be the
+-- target of a foreign key. Items and payments lose their FK; JPA cascades removal from Order.
+
+CREATE TABLE orders_partitioned (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    customer_id UUID NOT NULL,
+    restaurant_id UUID NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    total_price DECIMAL(10, 2) NOT NULL,
+    delivery_address VARCHAR(500) NOT NULL,
+    delivery_lat DECIMAL(10, 8),
+    delivery_lng DECIMAL(11, 8),
+    customer_notes TEXT,
+    rejection_reason TEXT,
+    estimated_delivery_time TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    confirmed_at TIMESTAMP,
+    delivered_at TIMESTAMP,
+    cancelled_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived BOOLEAN NOT NULL DEFAULT FALSE
+) PARTITION BY LIST (archived);
+
+CREATE TABLE orders_live PARTITION OF orders_partitioned FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE orders_archive PARTITION OF orders_partitioned FOR VALUES IN (TRUE);
+CREATE TABLE orders_live_default PARTITION OF orders_live DEFAULT;
+
+CREATE TABLE order_items_partitioned (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    menu_item_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 1,
+    special_instructions TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    archived BOOLEAN NOT NULL DEFAULT FALSE
+) PARTITION BY LIST (archived);
+
+CREATE TABLE order_items_live PARTITION OF order_items_partitioned FOR VALUES IN (FALSE);
+CREATE TABLE order_items_archive PARTITION OF order_items_partitioned FOR VALUES IN (TRUE);
+
+CREATE TABLE payments_partitioned (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    transaction_id VARCHAR(255),
+    failure_reason TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    paid_at TIMESTAMP,
+    refunded_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived BOOLEAN NOT NULL DEFAULT FALSE
+) PARTITION BY LIST (archived);
+
+CREATE TABLE payments_live PARTITION OF payments_partitioned FOR VALUES IN (FALSE);
+CREATE TABLE payments_archive PARTITION OF payments_partitioned FOR VALUES IN (TRUE);
+
+-- Creates the monthly live partitions from the current month through months_ahead; returns how many were added.
+-- Partitions must exist before rows for their month arrive, otherwise those rows land in orders_live_default.
+CREATE OR REPLACE FUNCTION create_order_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    current_month TIMESTAMP := date_trunc('month', LOCALTIMESTAMP);
+    month_start TIMESTAMP;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := current_month + make_interval(months => i);
+        partition_name := 'orders_live_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders_live FOR VALUES FROM (%L) TO (%L)',
+                    partition_name, month_start, month_start + INTERVAL '1 month');
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    month_start TIMESTAMP := (SELECT date_trunc('month', MIN(created_at)) FROM orders);
+BEGIN
+    WHILE month_start < date_trunc('month', LOCALTIMESTAMP) LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders_live FOR VALUES FROM (%L) TO (%L)',
+                'orders_live_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END;
+$$;
+
+SELECT create_order_partitions(3);
+
+-- Rows are copied before any index exists so the load does not maintain them row by row
+INSERT INTO orders_partitioned (id, customer_id, restaurant_id, status, total_price, delivery_address,
+        delivery_lat, delivery_lng, customer_notes, rejection_reason, estimated_delivery_time, created_at,
+        updated_at, confirmed_at, delivered_at, cancelled_at, version)
+SELECT id, customer_id, restaurant_id, status, total_price, delivery_address,
+        delivery_lat, delivery_lng, customer_notes, rejection_reason, estimated_delivery_time, created_at,
+        updated_at, confirmed_at, delivered_at, cancelled_at, version
+FROM orders;
+
+INSERT INTO order_items_partitioned (id, order_id, menu_item_id, name, price, quantity, special_instructions, created_at)
+SELECT id, order_id, menu_item_id, name, price, quantity, special_instructions, created_at
+FROM order_items;
+
+INSERT INTO payments_partitioned (id, order_id, amount, payment_method, status, transaction_id, failure_reason,
+        created_at, updated_at, paid_at, refunded_at, version)
+SELECT id, order_id, amount, payment_method, status, transaction_id, failure_reason,
+        created_at, updated_at, paid_at, refunded_at, version
+FROM payments;
+
+DROP TABLE order_items;
+DROP TABLE payments;
+DROP TABLE orders;
+
+ALTER TABLE orders_partitioned RENAME TO orders;
+ALTER TABLE order_items_partitioned RENAME TO order_items;
+ALTER TABLE payments_partitioned RENAME TO payments;
+
+ALTER TABLE orders ADD CONSTRAINT orders_pkey PRIMARY KEY (id, archived, created_at);
+CREATE INDEX idx_orders_customer_created_id ON orders(customer_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_restaurant_created_id ON orders(restaurant_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_status_created_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX idx_orders_created_id ON orders(created_at DESC, id DESC);
+
+ALTER TABLE order_items ADD CONSTRAINT order_items_pkey PRIMARY KEY (id, archived);
+CREATE INDEX idx_order_items_order_id ON order_items(order_id);
+CREATE INDEX idx_order_items_menu_item_id ON order_items(menu_item_id);
+
+ALTER TABLE payments ADD CONSTRAINT payments_pkey PRIMARY KEY (id, archived);
+CREATE INDEX idx_payments_order_id ON payments(order_id);
+CREATE INDEX idx_payments_status ON payments(status);
+CREATE INDEX idx_payments_transaction_id ON payments(transaction_id);
@@ -0,0 +1,5 @@
+-- Stage timestamps for the lifecycle latency histograms; added on the partitioned parent so every
+-- live and archive partition picks them up. Orders already past a stage keep NULL for it.
+ALTER TABLE orders ADD COLUMN accepted_at TIMESTAMP;
+ALTER TABLE orders ADD COLUMN ready_at TIMESTAMP;
+ALTER TABLE orders ADD COLUMN picked_up_at TIMESTAMP;
@@ -0,0 +1,94 @@
+package com.example.orderservice.archive;
+
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiverTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderArchiver orderArchiver;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderArchiver, "minAge", Duration.ofDays(30));
+        ReflectionTestUtils.setField(orderArchiver, "batchSize", 100);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should archive in batches until a partial batch drains the backlog")
+    void archiveFinalizedOrders_DrainsBacklog() {
+        when(orderRepository.archiveFinalizedBefore(eq(OrderArchiver.FINAL_STATUSES), any(Instant.class), eq(100)))
+                .thenReturn(100, 100, 42);
+
+        orderArchiver.archiveFinalizedOrders();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(orderRepository, times(3)).archiveFinalizedBefore(any(), cutoff.capture(), eq(100));
+        verify(transactionTemplate, times(3)).execute(any());
+        assertThat(cutoff.getAllValues()).containsOnly(cutoff.getValue());
+        assertThat(cutoff.getValue()).isBefore(Instant.now().minus(Duration.ofDays(29)));
+    }
+
+    @Test
+    @DisplayName("Should stop after one pass when nothing is old enough")
+    void archiveFinalizedOrders_NothingToArchive() {
+        when(orderRepository.archiveFinalizedBefore(any(), any(), anyInt())).thenReturn(0);
+
+        orderArchiver.archiveFinalizedOrders();
+
+        verify(orderRepository, times(1)).archiveFinalizedBefore(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should drop only emptied live months when no archive retention is set")
+    void dropExpiredPartitions_KeepsArchiveByDefault() {
+        orderArchiver.dropExpiredPartitions();
+
+        ArgumentCaptor<Instant> liveBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(orderRepository).dropExpiredPartitions(liveBefore.capture(), isNull());
+        assertThat(liveBefore.getValue()).isBefore(Instant.now().minus(Duration.ofDays(29)));
+    }
+
+    @Test
+    @DisplayName("Should drop archive months older than the retention")
+    void dropExpiredPartitions_AppliesRetention() {
+        ReflectionTestUtils.setField(orderArchiver, "retention", Duration.ofDays(365));
+
+        orderArchiver.dropExpiredPartitions();
+
+        ArgumentCaptor<Instant> archiveBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(orderRepository).dropExpiredPartitions(any(Instant.class), archiveBefore.capture());
+        assertThat(archiveBefore.getValue())
+                .isBefore(Instant.now().minus(Duration.ofDays(364)))
+                .isAfter(Instant.now().minus(Duration.ofDays(366)));
+    }
+}
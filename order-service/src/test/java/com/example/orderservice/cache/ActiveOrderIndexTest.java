@@ -0,0 +1,189 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.dto.order.OrderSummaryDto;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveOrderIndexTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ActiveOrderIndex index;
+    private UUID restaurantId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ActiveOrderIndex(orderRepository, meterRegistry);
+        restaurantId = UUID.randomUUID();
+        now = Instant.now();
+    }
+
+    @Test
+    @DisplayName("Should load active orders at startup and return them oldest first")
+    void rebuild_LoadsActiveOrders() {
+        OrderSummaryDto newer = summary(UUID.randomUUID(), OrderStatus.PENDING, now);
+        OrderSummaryDto older = summary(UUID.randomUUID(), OrderStatus.PREPARING, now.minusSeconds(60));
+        when(orderRepository.findSummariesByStatusIn(ActiveOrderIndex.ACTIVE_STATUSES)).thenReturn(List.of(newer, older));
+
+        index.rebuild();
+
+        assertThat(index.findByRestaurant(restaurantId))
+                .extracting(OrderSummaryDto::getId)
+                .containsExactly(older.getId(), newer.getId());
+        assertThat(index.findByRestaurant(UUID.randomUUID())).isEmpty();
+        assertThat(meterRegistry.get("order.active.index.orders").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should pick up orders other instances changed while this one was starting")
+    void reconcile_ReloadsOrdersChangedDuringStartup() {
+        OrderSummaryDto unchanged = summary(UUID.randomUUID(), OrderStatus.PENDING, now);
+        OrderSummaryDto advanced = summary(UUID.randomUUID(), OrderStatus.PENDING, now);
+        OrderSummaryDto delivered = summary(UUID.randomUUID(), OrderStatus.IN_DELIVERY, now);
+        OrderSummaryDto created = summary(UUID.randomUUID(), OrderStatus.PENDING, now);
+        OrderSummaryDto advancedNow = summary(advanced.getId(), OrderStatus.PREPARING, now);
+        when(orderRepository.findSummariesByStatusIn(ActiveOrderIndex.ACTIVE_STATUSES))
+                .thenReturn(List.of(unchanged, advanced, delivered))
+                .thenReturn(List.of(unchanged, advancedNow, created));
+        when(orderRepository.findSummaryById(advanced.getId())).thenReturn(Optional.of(advancedNow));
+        when(orderRepository.findSummaryById(delivered.getId()))
+                .thenReturn(Optional.of(summary(delivered.getId(), OrderStatus.DELIVERED, now)));
+        when(orderRepository.findSummaryById(created.getId())).thenReturn(Optional.of(created));
+        index.rebuild();
+
+        index.reconcile();
+
+        assertThat(index.findByRestaurant(restaurantId))
+                .extracting(OrderSummaryDto::getId, OrderSummaryDto::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(unchanged.getId(), OrderStatus.PENDING),
+                        tuple(advanced.getId(), OrderStatus.PREPARING),
+                        tuple(created.getId(), OrderStatus.PENDING));
+        verify(orderRepository, never()).findSummaryById(unchanged.getId());
+    }
+
+    @Test
+    @DisplayName("Should index a new order with its item count")
+    void track_NewOrder() {
+        Order order = order(OrderStatus.PENDING);
+
+        index.track(order);
+
+        List<OrderSummaryDto> active = index.findByRestaurant(restaurantId);
+        assertThat(active).hasSize(1);
+        assertThat(active.get(0).getItemCount()).isEqualTo(2);
+        assertThat(active.get(0).getTotalPrice()).isEqualByComparingTo("25.99");
+    }
+
+    @Test
+    @DisplayName("Should update status in place and drop the order once it is final")
+    void updateStatus_MovesThroughLifecycle() {
+        Order order = order(OrderStatus.PENDING);
+        index.track(order);
+        Instant eta = now.plusSeconds(1800);
+
+        index.updateStatus(order.getId(), OrderStatus.ACCEPTED_BY_RESTAURANT, eta);
+
+        OrderSummaryDto accepted = index.findByRestaurant(restaurantId).get(0);
+        assertThat(accepted.getStatus()).isEqualTo(OrderStatus.ACCEPTED_BY_RESTAURANT);
+        assertThat(accepted.getEstimatedDeliveryTime()).isEqualTo(eta);
+        assertThat(accepted.getItemCount()).isEqualTo(2);
+
+        index.updateStatus(order.getId(), OrderStatus.DELIVERED, null);
+
+        assertThat(index.findByRestaurant(restaurantId)).isEmpty();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should load an unknown order from the database when it becomes active")
+    void updateStatus_UnknownOrder_Reloads() {
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.findSummaryById(orderId))
+                .thenReturn(Optional.of(summary(orderId, OrderStatus.CONFIRMED, now)));
+
+        index.updateStatus(orderId, OrderStatus.CONFIRMED, null);
+
+        assertThat(index.findByRestaurant(restaurantId))
+                .extracting(OrderSummaryDto::getId)
+                .containsExactly(orderId);
+    }
+
+    @Test
+    @DisplayName("Should drop an order that another instance finalized")
+    void reload_FinalizedElsewhere_Removes() {
+        Order order = order(OrderStatus.PREPARING);
+        index.track(order);
+        when(orderRepository.findSummaryById(order.getId()))
+                .thenReturn(Optional.of(summary(order.getId(), OrderStatus.CANCELLED, now)));
+
+        index.reload(order.getId());
+
+        assertThat(index.findByRestaurant(restaurantId)).isEmpty();
+        assertThat(meterRegistry.get("order.active.index.restaurants").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should remove a deleted order")
+    void untrack_RemovesOrder() {
+        Order order = order(OrderStatus.PENDING);
+        index.track(order);
+
+        index.untrack(order.getId());
+
+        assertThat(index.findByRestaurant(restaurantId)).isEmpty();
+    }
+
+    private Order order(OrderStatus status) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(OrderItem.builder().build());
+        items.add(OrderItem.builder().build());
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(restaurantId)
+                .status(status)
+                .totalPrice(new BigDecimal("25.99"))
+                .deliveryAddress("123 Main St")
+                .items(items)
+                .createdAt(now)
+                .build();
+    }
+
+    private OrderSummaryDto summary(UUID orderId, OrderStatus status, Instant createdAt) {
+        return OrderSummaryDto.builder()
+                .id(orderId)
+                .restaurantId(restaurantId)
+                .status(status)
+                .totalPrice(new BigDecimal("10.00"))
+                .deliveryAddress("1 Side St")
+                .itemCount(1)
+                .createdAt(createdAt)
+                .build();
+    }
+}
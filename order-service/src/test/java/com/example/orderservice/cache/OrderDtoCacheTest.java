@@ -0,0 +1,192 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.dto.order.OrderDto;
+import com.example.orderservice.entity.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDtoCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleMeterRegistry meterRegistry;
+    private OrderDtoCache cache;
+    private UUID orderId;
+    private OrderDto orderDto;
+    // What the mocked template holds; execute() runs the compare-and-set the way the Lua script does
+    private final Map<String, String> redis = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new OrderDtoCache(
+                Caffeine.newBuilder().maximumSize(100).build(),
+                redisTemplate,
+                objectMapper,
+                meterRegistry,
+                true,
+                Duration.ofSeconds(60),
+                "order-cache-invalidation"
+        );
+        orderId = UUID.randomUUID();
+        orderDto = OrderDto.builder().id(orderId).status(OrderStatus.PENDING).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fakeRedis() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.multiGet(anyList())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(redis::get).toList());
+        lenient().when(valueOperations.increment(anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            long next = Long.parseLong(redis.getOrDefault(key, "0")) + 1;
+            redis.put(key, String.valueOf(next));
+            return next;
+        });
+        lenient().when(redisTemplate.delete(anyString())).thenAnswer(invocation ->
+                redis.remove(invocation.<String>getArgument(0)) != null);
+        lenient().when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    List<String> keys = invocation.getArgument(1);
+                    if (!redis.getOrDefault(keys.get(0), "").equals(invocation.getArgument(2))) {
+                        return false;
+                    }
+                    redis.put(keys.get(1), invocation.getArgument(3));
+                    return true;
+                });
+    }
+
+    @Test
+    @DisplayName("Should load once and serve repeated reads from the local tier")
+    void get_LoadsOnceThenHitsLocal() {
+        fakeRedis();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(orderId, () -> {
+            loads.incrementAndGet();
+            return orderDto;
+        });
+        OrderDto second = cache.get(orderId, () -> {
+            loads.incrementAndGet();
+            return orderDto;
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getId()).isEqualTo(orderId);
+        assertThat(redis).containsKey("order-dto:" + orderId);
+        assertThat(meterRegistry.counter("order.cache.redis.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve from Redis when the local tier is cold")
+    void get_RedisHit() throws Exception {
+        fakeRedis();
+        redis.put("order-dto:" + orderId, objectMapper.writeValueAsString(orderDto));
+
+        OrderDto result = cache.get(orderId, () -> {
+            throw new AssertionError("loader should not be called");
+        });
+
+        assertThat(result.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(meterRegistry.counter("order.cache.redis.requests", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall through to the loader when Redis is unavailable")
+    void get_RedisDown_FallsBackToLoader() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        OrderDto result = cache.get(orderId, () -> orderDto);
+
+        assertThat(result).isSameAs(orderDto);
+    }
+
+    @Test
+    @DisplayName("Should evict both tiers and notify other instances")
+    void evict_RemovesAndPublishes() {
+        fakeRedis();
+        cache.get(orderId, () -> orderDto);
+
+        cache.evict(orderId);
+
+        assertThat(redis).doesNotContainKey("order-dto:" + orderId);
+        verify(redisTemplate).expire("order-dto-gen:" + orderId, Duration.ofMinutes(10));
+        verify(redisTemplate).convertAndSend("order-cache-invalidation", orderId.toString());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(orderId, () -> {
+            loads.incrementAndGet();
+            return orderDto;
+        });
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that read the order before an eviction")
+    void get_EvictedWhileLoading_NotCached() {
+        fakeRedis();
+        OrderDto stale = OrderDto.builder().id(orderId).status(OrderStatus.PENDING).build();
+        OrderDto committed = OrderDto.builder().id(orderId).status(OrderStatus.CONFIRMED).build();
+
+        OrderDto loaded = cache.get(orderId, () -> {
+            // The row is read, then a write commits and evicts before the reader caches it
+            cache.evict(orderId);
+            return stale;
+        });
+
+        assertThat(loaded).isSameAs(stale);
+        assertThat(redis).doesNotContainKey("order-dto:" + orderId);
+        assertThat(cache.get(orderId, () -> committed).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(redis).containsKey("order-dto:" + orderId);
+    }
+
+    @Test
+    @DisplayName("Should not cache locally a load that another instance's invalidation overtook")
+    void get_InvalidatedWhileLoading_NotCachedLocally() {
+        cache = new OrderDtoCache(Caffeine.newBuilder().maximumSize(100).build(), redisTemplate, objectMapper,
+                meterRegistry, false, Duration.ofSeconds(60), "order-cache-invalidation");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(orderId, () -> {
+            loads.incrementAndGet();
+            cache.evictLocal(orderId);
+            return orderDto;
+        });
+        cache.get(orderId, () -> {
+            loads.incrementAndGet();
+            return orderDto;
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+}
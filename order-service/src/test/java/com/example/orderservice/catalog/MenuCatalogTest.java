@@ -0,0 +1,132 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.dto.event.MenuItemChangedEvent;
+import com.example.orderservice.dto.order.CreateOrderRequest;
+import com.example.orderservice.exception.InvalidOrderItemException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MenuCatalogTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MenuCatalog catalog;
+    private UUID restaurantId;
+    private UUID menuItemId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new MenuCatalog(meterRegistry);
+        restaurantId = UUID.randomUUID();
+        menuItemId = UUID.randomUUID();
+        now = Instant.now();
+    }
+
+    @Test
+    @DisplayName("Should price items from the catalog and take the catalog's name")
+    void priceItems_UsesCatalogNameAndPrice() {
+        loaded(event("12.99", true, now));
+        CreateOrderRequest.OrderItemRequest item = item("12.990", "Client name");
+
+        catalog.priceItems(restaurantId, List.of(item));
+
+        assertThat(item.getName()).isEqualTo("Margherita");
+        assertThat(item.getPrice()).isEqualTo(new BigDecimal("12.99"));
+    }
+
+    @Test
+    @DisplayName("Should reject an order placed at an outdated price")
+    void priceItems_PriceChanged_Rejects() {
+        loaded(event("13.49", true, now));
+
+        assertThatThrownBy(() -> catalog.priceItems(restaurantId, List.of(item("12.99", "Margherita"))))
+                .isInstanceOf(InvalidOrderItemException.class)
+                .hasMessageContaining("changed to 13.49");
+    }
+
+    @Test
+    @DisplayName("Should reject unavailable items and items from another restaurant")
+    void priceItems_UnavailableOrForeign_Rejects() {
+        loaded(event("12.99", false, now));
+
+        assertThatThrownBy(() -> catalog.priceItems(restaurantId, List.of(item("12.99", "Margherita"))))
+                .isInstanceOf(InvalidOrderItemException.class)
+                .hasMessageContaining("not available");
+        assertThatThrownBy(() -> catalog.priceItems(UUID.randomUUID(), List.of(item("12.99", "Margherita"))))
+                .isInstanceOf(InvalidOrderItemException.class)
+                .hasMessageContaining("not on the menu");
+    }
+
+    @Test
+    @DisplayName("Should keep the newest version when an older one arrives later")
+    void apply_OlderVersion_Ignored() {
+        loaded(event("13.49", true, now));
+        catalog.apply(menuItemId, event("12.99", true, now.minusSeconds(60)));
+
+        assertThatThrownBy(() -> catalog.priceItems(restaurantId, List.of(item("12.99", "Margherita"))))
+                .isInstanceOf(InvalidOrderItemException.class);
+    }
+
+    @Test
+    @DisplayName("Should drop an item on a tombstone")
+    void apply_Tombstone_RemovesItem() {
+        loaded(event("12.99", true, now));
+        catalog.apply(UUID.randomUUID(), event("5.00", true, now));
+
+        catalog.apply(menuItemId, null);
+
+        assertThat(meterRegistry.get("order.menu.catalog.items").gauge().value()).isEqualTo(1.0);
+        assertThatThrownBy(() -> catalog.priceItems(restaurantId, List.of(item("12.99", "Margherita"))))
+                .isInstanceOf(InvalidOrderItemException.class);
+    }
+
+    @Test
+    @DisplayName("Should accept client prices and count the order until the catalog is loaded")
+    void priceItems_NotLoaded_AcceptsClientPrices() {
+        catalog.apply(menuItemId, event("13.49", true, now));
+        CreateOrderRequest.OrderItemRequest item = item("12.99", "Margherita");
+
+        catalog.priceItems(restaurantId, List.of(item));
+
+        assertThat(catalog.isReady()).isFalse();
+        assertThat(item.getPrice()).isEqualByComparingTo("12.99");
+        assertThat(meterRegistry.get("order.menu.catalog.unvalidated").counter().count()).isEqualTo(1.0);
+    }
+
+    private void loaded(MenuItemChangedEvent event) {
+        catalog.apply(menuItemId, event);
+        catalog.markLoaded();
+    }
+
+    private MenuItemChangedEvent event(String price, boolean available, Instant updatedAt) {
+        return MenuItemChangedEvent.builder()
+                .eventType("MENU_ITEM_CHANGED")
+                .menuItemId(menuItemId)
+                .restaurantId(restaurantId)
+                .name("Margherita")
+                .price(new BigDecimal(price))
+                .available(available)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private CreateOrderRequest.OrderItemRequest item(String price, String name) {
+        return CreateOrderRequest.OrderItemRequest.builder()
+                .menuItemId(menuItemId)
+                .name(name)
+                .price(new BigDecimal(price))
+                .quantity(1)
+                .build();
+    }
+}
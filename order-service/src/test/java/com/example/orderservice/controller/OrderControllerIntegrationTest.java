@@ -4,7 +4,10 @@ import com.example.orderservice.config.SecurityConfig;
 import com.example.orderservice.dto.order.*;
 import com.example.orderservice.entity.OrderStatus;
 import com.example.orderservice.entity.PaymentMethod;
+import com.example.orderservice.idempotency.IdempotencyStore;
+import com.example.orderservice.service.OrderExportService;
 import com.example.orderservice.service.OrderService;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,8 +18,11 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -24,8 +30,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -44,6 +53,15 @@ class OrderControllerIntegrationTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Test
     @DisplayName("Should create order when user is customer")
     void createOrder_AsCustomer_Success() throws Exception {
@@ -158,6 +176,127 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].status").value("PENDING"));
     }
 
+    @Test
+    @DisplayName("Should stream status events for the customer's own order")
+    void streamOrderEvents_AsCustomer_Success() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+
+        OrderDto order = OrderDto.builder()
+                .id(orderId)
+                .customerId(customerId)
+                .status(OrderStatus.PENDING)
+                .build();
+        OrderStatusEvent event = OrderStatusEvent.builder()
+                .orderId(orderId)
+                .status(OrderStatus.PENDING)
+                .build();
+
+        when(orderService.getOrderByIdForCustomer(orderId, customerId)).thenReturn(order);
+        when(orderStatusBroadcaster.stream(eq(orderId), any()))
+                .thenReturn(Flux.just(ServerSentEvent.builder(event).event("status").build()));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/{orderId}/events", orderId)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .with(jwt().jwt(jwt -> jwt
+                                .subject(customerId.toString())
+                                .claim("realm_access", Map.of("roles", List.of("CUSTOMER"))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_CUSTOMER"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:status")))
+                .andExpect(content().string(containsString("\"status\":\"PENDING\"")));
+    }
+
+    @Test
+    @DisplayName("Should look up orders in bulk when user is admin")
+    void lookupOrders_AsAdmin_Success() throws Exception {
+        UUID foundId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+
+        OrderLookupResponse response = OrderLookupResponse.builder()
+                .results(List.of(
+                        OrderLookupResponse.OrderLookupResult.builder()
+                                .orderId(foundId)
+                                .found(true)
+                                .order(OrderDto.builder().id(foundId).status(OrderStatus.PENDING).build())
+                                .build(),
+                        OrderLookupResponse.OrderLookupResult.builder()
+                                .orderId(missingId)
+                                .found(false)
+                                .build()
+                ))
+                .missingIds(List.of(missingId))
+                .build();
+
+        when(orderService.lookupOrders(List.of(foundId, missingId))).thenReturn(response);
+
+        mockMvc.perform(post("/api/orders/lookup")
+                        .with(jwt().jwt(jwt -> jwt
+                                .subject(UUID.randomUUID().toString())
+                                .claim("realm_access", Map.of("roles", List.of("ADMIN"))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                OrderLookupRequest.builder().orderIds(List.of(foundId, missingId)).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].found").value(true))
+                .andExpect(jsonPath("$.results[1].orderId").value(missingId.toString()))
+                .andExpect(jsonPath("$.missingIds[0]").value(missingId.toString()));
+    }
+
+    @Test
+    @DisplayName("Should reject bulk lookup when user is customer")
+    void lookupOrders_AsCustomer_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/orders/lookup")
+                        .with(jwt().jwt(jwt -> jwt
+                                .subject(UUID.randomUUID().toString())
+                                .claim("realm_access", Map.of("roles", List.of("CUSTOMER"))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_CUSTOMER")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                OrderLookupRequest.builder().orderIds(List.of(UUID.randomUUID())).build())))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Should stream the order export as CSV when user is admin")
+    void exportOrders_AsAdmin_Csv() throws Exception {
+        mockMvc.perform(get("/api/orders/export")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z")
+                        .param("format", "CSV")
+                        .with(jwt().jwt(jwt -> jwt
+                                .subject(UUID.randomUUID().toString())
+                                .claim("realm_access", Map.of("roles", List.of("ADMIN"))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("orders-export.csv")));
+
+        verify(orderExportService).exportOrders(eq(Instant.parse("2024-01-01T00:00:00Z")),
+                eq(Instant.parse("2024-02-01T00:00:00Z")), eq(OrderExportFormat.CSV), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an export whose range is empty")
+    void exportOrders_InvalidRange_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/orders/export")
+                        .param("from", "2024-02-01T00:00:00Z")
+                        .param("to", "2024-01-01T00:00:00Z")
+                        .with(jwt().jwt(jwt -> jwt
+                                .subject(UUID.randomUUID().toString())
+                                .claim("realm_access", Map.of("roles", List.of("ADMIN"))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderExportService);
+    }
+
     @Test
     @DisplayName("Should update order status when user is restaurant")
     void updateOrderStatus_AsRestaurant_Success() throws Exception {
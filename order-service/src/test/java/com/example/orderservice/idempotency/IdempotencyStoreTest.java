@@ -0,0 +1,259 @@
+package com.example.orderservice.idempotency;
+
+import com.example.orderservice.dto.order.CancelOrderRequest;
+import com.example.orderservice.dto.order.OrderDto;
+import com.example.orderservice.entity.IdempotencyRecord;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.exception.IdempotencyKeyInProgressException;
+import com.example.orderservice.exception.InvalidIdempotencyKeyException;
+import com.example.orderservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs against the real repository so claims race on the actual primary key
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore store;
+    private CancelOrderRequest request;
+    private OrderDto orderDto;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        store = newStore();
+
+        request = CancelOrderRequest.builder().reason("Changed my mind").build();
+        orderDto = OrderDto.builder().id(UUID.randomUUID()).status(OrderStatus.PENDING).build();
+    }
+
+    @Test
+    @DisplayName("Should run the action once and replay the stored response for a retry")
+    void execute_RetryIsReplayed() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<OrderDto> first = store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+                });
+        ResponseEntity<OrderDto> retry = store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+                });
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody().getId()).isEqualTo(orderDto.getId());
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(repository.findById("create-order:customer:key-1").orElseThrow().getResponseStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should replay a response persisted by another instance")
+    void execute_ReplaysPersistedResponse() throws Exception {
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(orderDto));
+        IdempotencyStore otherInstance = newStore();
+
+        ResponseEntity<OrderDto> replay = otherInstance.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> {
+                    throw new AssertionError("write path should not run again");
+                });
+
+        assertThat(replay.getBody().getId()).isEqualTo(orderDto.getId());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different request body")
+    void execute_DifferentBody_Rejected() {
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(orderDto));
+
+        CancelOrderRequest other = CancelOrderRequest.builder().reason("Something else").build();
+        assertThatThrownBy(() -> store.execute("create-order", "customer", "key-1", other, OrderDto.class,
+                () -> ResponseEntity.ok(orderDto)))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+    }
+
+    @Test
+    @DisplayName("Should report a conflict while the first request is still running")
+    void execute_InProgress_Conflict() {
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class, () -> {
+            assertThatThrownBy(() -> store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                    () -> ResponseEntity.ok(orderDto)))
+                    .isInstanceOf(IdempotencyKeyInProgressException.class);
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+        });
+    }
+
+    @Test
+    @DisplayName("Should release the key when the write path fails")
+    void execute_Failure_ReleasesKey() {
+        assertThatThrownBy(() -> store.execute("create-order", "customer", "key-1", request, OrderDto.class,
+                () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reclaim an expired key")
+    void execute_ExpiredKey_RunsAgain() {
+        repository.save(IdempotencyRecord.builder()
+                .id("create-order:customer:key-1")
+                .requestHash("stale")
+                .responseStatus(201)
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+        });
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should let only one of many concurrent requests with the same key run the action")
+    void execute_ConcurrentClaims_RunOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<OrderDto>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return newStore().execute("create-order", "customer", "key-1", request, OrderDto.class, () -> {
+                        calls.incrementAndGet();
+                        sleep(200);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+                    });
+                }));
+            }
+            start.countDown();
+
+            int ran = 0;
+            for (Future<ResponseEntity<OrderDto>> result : results) {
+                try {
+                    ResponseEntity<OrderDto> response = result.get(10, TimeUnit.SECONDS);
+                    if (!response.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)) {
+                        ran++;
+                    }
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IdempotencyKeyInProgressException.class);
+                }
+            }
+            assertThat(ran).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(repository.findById("create-order:customer:key-1").orElseThrow().getResponseStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should take over a key whose unfinished claim outlived its lease")
+    void execute_AbandonedClaim_RunsAgain() {
+        repository.save(IdempotencyRecord.builder()
+                .id("create-order:customer:key-1")
+                .requestHash("abandoned")
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .leaseToken(UUID.randomUUID())
+                .leaseExpiresAt(Instant.now().minusSeconds(1))
+                .build());
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+        });
+
+        assertThat(calls).hasValue(1);
+        IdempotencyRecord record = repository.findById("create-order:customer:key-1").orElseThrow();
+        assertThat(record.getResponseStatus()).isEqualTo(201);
+        assertThat(record.getLeaseToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not store the response of a request whose claim was taken over")
+    void execute_LeaseLost_KeepsNewOwnersResponse() {
+        OrderDto takenOver = OrderDto.builder().id(UUID.randomUUID()).status(OrderStatus.PENDING).build();
+
+        store.execute("create-order", "customer", "key-1", request, OrderDto.class, () -> {
+            expireLease("create-order:customer:key-1");
+            newStore().execute("create-order", "customer", "key-1", request, OrderDto.class,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(takenOver));
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+        });
+
+        ResponseEntity<OrderDto> replay = newStore().execute("create-order", "customer", "key-1", request,
+                OrderDto.class, () -> {
+                    throw new AssertionError("write path should not run again");
+                });
+        assertThat(replay.getBody().getId()).isEqualTo(takenOver.getId());
+    }
+
+    private void expireLease(String id) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> repository.findById(id)
+                .ifPresent(record -> record.setLeaseExpiresAt(Instant.now().minusSeconds(1))));
+    }
+
+    private IdempotencyStore newStore() {
+        return new IdempotencyStore(repository, new TransactionTemplate(transactionManager),
+                new ObjectMapper().registerModule(new JavaTimeModule()), Duration.ofHours(24), Duration.ofMinutes(1),
+                100, Duration.ofMinutes(10));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.dto.event.OrderAcceptedEvent;
+import com.example.orderservice.dto.event.OrderCreatedEvent;
+import com.example.orderservice.dto.event.OrderReadyEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private ObjectMapper objectMapper;
+    private EventCodec codec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        codec = new EventCodec(objectMapper, OrderCreatedEvent.class.getPackageName());
+    }
+
+    @Test
+    @DisplayName("Should round-trip an event with nested items, much smaller than its JSON")
+    void encodeDecode_RoundTrip() throws Exception {
+        OrderCreatedEvent event = orderCreatedEvent();
+
+        EventCodec.EncodedEvent encoded = codec.encode(event);
+
+        assertThat(encoded.eventType()).isEqualTo("ORDER_CREATED");
+        assertThat(codec.decode(encoded.payload(), OrderCreatedEvent.class)).isEqualTo(event);
+        assertThat(encoded.payload().length).isLessThan(objectMapper.writeValueAsBytes(event).length / 2);
+    }
+
+    @Test
+    @DisplayName("Should take the event type from the header without decoding the payload")
+    void eventType_FromHeader() throws Exception {
+        EventCodec.EncodedEvent encoded = codec.encode(orderCreatedEvent());
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("order-events", 0, 0, "key", encoded.payload());
+        record.headers().add(EventCodec.EVENT_TYPE_HEADER, encoded.eventType().getBytes(StandardCharsets.UTF_8));
+
+        assertThat(codec.eventType(record)).isEqualTo("ORDER_CREATED");
+    }
+
+    @Test
+    @DisplayName("Should still read JSON messages published before the binary format")
+    void decode_LegacyJson() throws Exception {
+        OrderAcceptedEvent event = OrderAcceptedEvent.builder()
+                .eventType("ORDER_ACCEPTED")
+                .orderId(UUID.randomUUID())
+                .estimatedPrepTimeMinutes(20)
+                .build();
+        byte[] json = objectMapper.writeValueAsBytes(event);
+
+        assertThat(codec.eventType(new ConsumerRecord<>("restaurant-events", 0, 0, "key", json)))
+                .isEqualTo("ORDER_ACCEPTED");
+        assertThat(codec.decode(json, OrderAcceptedEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should skip writer fields the local class does not declare")
+    void decode_SkipsUnknownWriterFields() throws Exception {
+        Schema writerSchema = new Schema.Parser().parse(getClass().getResourceAsStream("/avro/OrderReadyEvent.avsc"));
+        UUID orderId = UUID.randomUUID();
+        GenericRecord ready = new GenericData.Record(writerSchema);
+        ready.put("eventType", "ORDER_READY");
+        ready.put("orderId", new GenericData.Fixed(writerSchema.getField("orderId").schema().getTypes().get(1),
+                uuidBytes(orderId)));
+        ready.put("restaurantName", "Pizza Palace");
+        ready.put("readyAt", 1_714_564_800_000_000L);
+        ByteBuffer payload = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), writerSchema).encode(ready);
+
+        OrderReadyEvent event = codec.decode(payload.array(), OrderReadyEvent.class);
+
+        assertThat(event.getOrderId()).isEqualTo(orderId);
+        assertThat(event.getReadyAt()).isEqualTo(Instant.parse("2024-05-01T12:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should reject a class without a schema")
+    void encode_UnknownClass_Throws() {
+        assertThatThrownBy(() -> codec.encode("not an event"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private OrderCreatedEvent orderCreatedEvent() {
+        return OrderCreatedEvent.builder()
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .totalPrice(new BigDecimal("38.47"))
+                .deliveryAddress("221B Baker Street, London")
+                .customerNotes("Ring the bell twice")
+                .items(List.of(
+                        OrderCreatedEvent.OrderItemEvent.builder()
+                                .menuItemId(UUID.randomUUID())
+                                .name("Margherita")
+                                .price(new BigDecimal("12.99"))
+                                .quantity(2)
+                                .build(),
+                        OrderCreatedEvent.OrderItemEvent.builder()
+                                .menuItemId(UUID.randomUUID())
+                                .name("Tiramisu")
+                                .price(new BigDecimal("6.5"))
+                                .quantity(2)
+                                .specialInstructions("Extra cocoa")
+                                .build()))
+                .createdAt(Instant.parse("2024-05-01T12:00:00.123456Z"))
+                .build();
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.orderservice.kafka;
 
+import com.example.kafkasupport.EventCodec;
 import com.example.orderservice.dto.event.OrderCreatedEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.orderservice.entity.Order;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,10 +20,12 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -48,9 +52,12 @@ class OrderEventProducerIntegrationTest {
     private OrderEventProducer orderEventProducer;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private EventCodec eventCodec;
 
-    private Consumer<String, String> consumer;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Consumer<String, byte[]> consumer;
 
     @BeforeEach
     void setUp() {
@@ -58,10 +65,10 @@ class OrderEventProducerIntegrationTest {
                 "test-group", "true", embeddedKafkaBroker
         );
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
-        DefaultKafkaConsumerFactory<String, String> consumerFactory =
+        DefaultKafkaConsumerFactory<String, byte[]> consumerFactory =
                 new DefaultKafkaConsumerFactory<>(consumerProps);
 
         consumer = consumerFactory.createConsumer();
@@ -76,8 +83,8 @@ class OrderEventProducerIntegrationTest {
     }
 
     @Test
-    @DisplayName("Should send OrderCreated event to Kafka topic")
-    void sendOrderCreatedEvent_Success() throws Exception {
+    @DisplayName("Should relay an enqueued OrderCreated event to the Kafka topic")
+    void enqueueOrderCreatedEvent_Relayed() throws Exception {
         UUID orderId = UUID.randomUUID();
         UUID customerId = UUID.randomUUID();
         UUID restaurantId = UUID.randomUUID();
@@ -100,16 +107,17 @@ class OrderEventProducerIntegrationTest {
                 .createdAt(Instant.now())
                 .build();
 
-        orderEventProducer.sendOrderCreatedEvent(event);
+        transactionTemplate.executeWithoutResult(status -> orderEventProducer.enqueueOrderCreatedEvent(event));
 
-        ConsumerRecord<String, String> record = KafkaTestUtils.getSingleRecord(
+        ConsumerRecord<String, byte[]> record = KafkaTestUtils.getSingleRecord(
                 consumer, "order-events", Duration.ofSeconds(10)
         );
 
         assertThat(record).isNotNull();
         assertThat(record.key()).isEqualTo(orderId.toString());
 
-        OrderCreatedEvent receivedEvent = objectMapper.readValue(record.value(), OrderCreatedEvent.class);
+        assertThat(eventCodec.eventType(record)).isEqualTo("OrderCreated");
+        OrderCreatedEvent receivedEvent = eventCodec.decode(record.value(), OrderCreatedEvent.class);
         assertThat(receivedEvent.getEventType()).isEqualTo("OrderCreated");
         assertThat(receivedEvent.getOrderId()).isEqualTo(orderId);
         assertThat(receivedEvent.getCustomerId()).isEqualTo(customerId);
@@ -120,8 +128,8 @@ class OrderEventProducerIntegrationTest {
     }
 
     @Test
-    @DisplayName("Should send multiple order events")
-    void sendMultipleOrderEvents_Success() throws Exception {
+    @DisplayName("Should relay multiple enqueued order events")
+    void enqueueMultipleOrderEvents_Relayed() {
         for (int i = 0; i < 3; i++) {
             OrderCreatedEvent event = OrderCreatedEvent.builder()
                     .eventType("OrderCreated")
@@ -134,11 +142,49 @@ class OrderEventProducerIntegrationTest {
                     .createdAt(Instant.now())
                     .build();
 
-            orderEventProducer.sendOrderCreatedEvent(event);
+            transactionTemplate.executeWithoutResult(status -> orderEventProducer.enqueueOrderCreatedEvent(event));
         }
 
-        var records = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10));
+        assertThat(receive(3)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should relay an order's events in the order they were enqueued")
+    void enqueueOrderEvents_KeepsOrderPerOrder() throws Exception {
+        Order order = Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .build();
+        OrderCreatedEvent created = OrderCreatedEvent.builder()
+                .eventType("ORDER_CREATED")
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .restaurantId(order.getRestaurantId())
+                .totalPrice(BigDecimal.TEN)
+                .deliveryAddress("456 Oak Avenue")
+                .items(List.of())
+                .createdAt(Instant.now())
+                .build();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            orderEventProducer.enqueueOrderCreatedEvent(created);
+            orderEventProducer.enqueueOrderCancelledEvent(order, "Customer changed their mind");
+        });
 
-        assertThat(records.count()).isGreaterThanOrEqualTo(3);
+        List<String> eventTypes = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> record : receive(2)) {
+            eventTypes.add(eventCodec.eventType(record));
+        }
+        assertThat(eventTypes).containsExactly("ORDER_CREATED", "ORDER_CANCELLED");
+    }
+
+    private List<ConsumerRecord<String, byte[]>> receive(int count) {
+        List<ConsumerRecord<String, byte[]>> received = new ArrayList<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (received.size() < count && System.nanoTime() < deadline) {
+            KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(1)).forEach(received::add);
+        }
+        return received;
     }
 }
@@ -0,0 +1,261 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
+import com.example.orderservice.dto.event.OrderCreatedEvent;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderTransition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventsBatchListenerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ProcessedEventStore processedEvents;
+
+    @Captor
+    private ArgumentCaptor<Collection<OrderTransition>> transitionsCaptor;
+
+    private OrderEventsBatchListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EventCodec eventCodec = new EventCodec(new ObjectMapper(), OrderCreatedEvent.class.getPackageName());
+        listener = new OrderEventsBatchListener(orderService, eventCodec, processedEvents);
+        lenient().when(processedEvents.runOnce(anyCollection(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    @DisplayName("Should coalesce a burst of events into one transition per order")
+    void handleEventBatch_CoalescesPerOrder() {
+        UUID firstOrder = UUID.randomUUID();
+        UUID secondOrder = UUID.randomUUID();
+
+        listener.handleEventBatch(List.of(
+                accepted(firstOrder, 15),
+                ready(firstOrder),
+                deliveryStatus(secondOrder, "PICKED_UP"),
+                deliveryStatus(firstOrder, "PICKED_UP"),
+                deliveryStatus(secondOrder, "DELIVERED")
+        ));
+
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        List<OrderTransition> transitions = List.copyOf(transitionsCaptor.getValue());
+
+        assertThat(transitions).hasSize(2);
+        OrderTransition first = transitions.get(0);
+        assertThat(first.getOrderId()).isEqualTo(firstOrder);
+        assertThat(first.getStatus()).isEqualTo(OrderStatus.PICKED_UP);
+        assertThat(first.getConfirmedAt()).isNotNull();
+        assertThat(first.getEstimatedDeliveryTime()).isNotNull();
+
+        OrderTransition second = transitions.get(1);
+        assertThat(second.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(second.getDeliveredAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not move an order backwards when events arrive out of order")
+    void handleEventBatch_OutOfOrderEvents() {
+        UUID orderId = UUID.randomUUID();
+
+        listener.handleEventBatch(List.of(
+                deliveryStatus(orderId, "IN_TRANSIT"),
+                ready(orderId)
+        ));
+
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        assertThat(transitionsCaptor.getValue())
+                .singleElement()
+                .extracting(OrderTransition::getStatus)
+                .isEqualTo(OrderStatus.IN_DELIVERY);
+    }
+
+    @Test
+    @DisplayName("Should leave out events that were already processed and record the rest with the update")
+    void handleEventBatch_SkipsProcessedEvents() {
+        UUID orderId = UUID.randomUUID();
+        ConsumerRecord<String, byte[]> redelivered = ready(orderId);
+        ConsumerRecord<String, byte[]> fresh = deliveryStatus(orderId, "PICKED_UP");
+        fresh.headers().add(EventCodec.EVENT_ID_HEADER, "fresh".getBytes(StandardCharsets.UTF_8));
+        when(processedEvents.isProcessed(redelivered, "ORDER_READY")).thenReturn(true);
+
+        listener.handleEventBatch(List.of(redelivered, fresh));
+
+        verify(processedEvents).runOnce(eq(List.of("DELIVERY_STATUS_CHANGED:fresh")), any());
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        OrderTransition transition = transitionsCaptor.getValue().iterator().next();
+        assertThat(transition.getStatus()).isEqualTo(OrderStatus.PICKED_UP);
+        assertThat(transition.getReadyAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should skip an order another consumer already applied when the batch is retried per order")
+    void handleEventBatch_ConcurrentlyProcessedOrder() {
+        UUID firstOrder = UUID.randomUUID();
+        UUID secondOrder = UUID.randomUUID();
+        doReturn(false)
+                .doReturn(false)
+                .doAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(1).run();
+                    return true;
+                })
+                .when(processedEvents).runOnce(anyCollection(), any());
+
+        listener.handleEventBatch(List.of(ready(firstOrder), ready(secondOrder)));
+
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        assertThat(transitionsCaptor.getValue())
+                .singleElement()
+                .extracting(OrderTransition::getOrderId)
+                .isEqualTo(secondOrder);
+    }
+
+    @Test
+    @DisplayName("Should skip unknown events")
+    void handleEventBatch_IgnoresUnknownEvents() {
+        listener.handleEventBatch(List.of(
+                json("{\"eventType\":\"COURIER_ASSIGNED\",\"orderId\":\"" + UUID.randomUUID() + "\"}")
+        ));
+
+        verify(orderService, never()).applyTransitions(any());
+    }
+
+    @Test
+    @DisplayName("Should apply the events before an undecodable one and report it to the error handler")
+    void handleEventBatch_UndecodableEvent() {
+        UUID orderId = UUID.randomUUID();
+        ConsumerRecord<String, byte[]> poison = json("not json");
+
+        assertThatThrownBy(() -> listener.handleEventBatch(List.of(ready(orderId), poison, ready(UUID.randomUUID()))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(poison))
+                .hasCauseInstanceOf(IOException.class);
+
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        assertThat(transitionsCaptor.getValue())
+                .singleElement()
+                .extracting(OrderTransition::getOrderId)
+                .isEqualTo(orderId);
+    }
+
+    @Test
+    @DisplayName("Should fall back to per-order transactions when the batch fails")
+    void handleEventBatch_FallsBackPerOrder() {
+        UUID firstOrder = UUID.randomUUID();
+        UUID secondOrder = UUID.randomUUID();
+        doThrow(new RuntimeException("deadlock"))
+                .doNothing()
+                .when(orderService).applyTransitions(any());
+
+        listener.handleEventBatch(List.of(ready(firstOrder), ready(secondOrder)));
+
+        verify(orderService, times(3)).applyTransitions(any());
+    }
+
+    @Test
+    @DisplayName("Should report the first event of an order that still fails on its own")
+    void handleEventBatch_OrderFailsAlone() {
+        UUID firstOrder = UUID.randomUUID();
+        UUID secondOrder = UUID.randomUUID();
+        ConsumerRecord<String, byte[]> secondOrderReady = ready(secondOrder);
+        doThrow(new RuntimeException("deadlock"))
+                .doNothing()
+                .doThrow(new RuntimeException("constraint violation"))
+                .when(orderService).applyTransitions(any());
+
+        assertThatThrownBy(() -> listener.handleEventBatch(
+                List.of(ready(firstOrder), secondOrderReady, deliveryStatus(secondOrder, "PICKED_UP"))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(secondOrderReady));
+
+        verify(orderService, times(3)).applyTransitions(any());
+    }
+
+    @Test
+    @DisplayName("Should still apply JSON events published before the binary format")
+    void handleEventBatch_LegacyJson() {
+        UUID orderId = UUID.randomUUID();
+
+        listener.handleEventBatch(List.of(json("{\"eventType\":\"ORDER_READY\",\"orderId\":\"" + orderId + "\"}")));
+
+        verify(orderService).applyTransitions(transitionsCaptor.capture());
+        assertThat(transitionsCaptor.getValue())
+                .singleElement()
+                .extracting(OrderTransition::getStatus)
+                .isEqualTo(OrderStatus.READY_FOR_PICKUP);
+    }
+
+    private ConsumerRecord<String, byte[]> accepted(UUID orderId, int prepMinutes) {
+        return encoded("OrderAcceptedEvent", Map.of(
+                "eventType", "ORDER_ACCEPTED", "orderId", orderId, "estimatedPrepTimeMinutes", prepMinutes));
+    }
+
+    private ConsumerRecord<String, byte[]> ready(UUID orderId) {
+        return encoded("OrderReadyEvent", Map.of("eventType", "ORDER_READY", "orderId", orderId));
+    }
+
+    private ConsumerRecord<String, byte[]> deliveryStatus(UUID orderId, String status) {
+        return encoded("DeliveryStatusChangedEvent", Map.of(
+                "eventType", "DELIVERY_STATUS_CHANGED", "orderId", orderId, "newStatus", status));
+    }
+
+    // Written from the shared schema the way the producing service writes it, including fields this service drops
+    private ConsumerRecord<String, byte[]> encoded(String schemaName, Map<String, Object> fields) {
+        try {
+            Schema schema = new Schema.Parser().parse(getClass().getResourceAsStream("/avro/" + schemaName + ".avsc"));
+            GenericData model = new GenericData();
+            model.addLogicalTypeConversion(new Conversions.UUIDConversion());
+            GenericRecord event = new GenericData.Record(schema);
+            fields.forEach(event::put);
+            byte[] payload = new BinaryMessageEncoder<GenericRecord>(model, schema).encode(event).array();
+            ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("restaurant-events", 0, 0, null, payload);
+            record.headers().add(EventCodec.EVENT_TYPE_HEADER,
+                    fields.get("eventType").toString().getBytes(StandardCharsets.UTF_8));
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ConsumerRecord<String, byte[]> json(String message) {
+        return new ConsumerRecord<>("restaurant-events", 0, 0, null, message.getBytes(StandardCharsets.UTF_8));
+    }
+}
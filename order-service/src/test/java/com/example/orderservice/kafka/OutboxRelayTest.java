@@ -0,0 +1,240 @@
+package com.example.orderservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 200);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "claimLeaseMs", 60000L);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                inTransaction(() -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null)));
+        lenient().doAnswer(invocation -> inTransaction(() -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        })).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should send the whole batch and mark only acknowledged events as published")
+    void relayBatch_MarksAcknowledgedEventsPublished() {
+        OutboxEvent delivered = outboxEvent();
+        OutboxEvent failed = outboxEvent();
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of(delivered, failed));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            return record.key().equals(delivered.getEventKey())
+                    ? CompletableFuture.completedFuture(mock(SendResult.class))
+                    : CompletableFuture.failedFuture(new RuntimeException("broker unavailable"));
+        });
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertThat(relayed).isEqualTo(1);
+        verify(outboxEventRepository).claim(eq(List.of(delivered.getId(), failed.getId())), any(Instant.class));
+        verify(outboxEventRepository).markPublished(eq(List.of(delivered.getId())), any(Instant.class));
+        verify(outboxEventRepository).releaseClaims(List.of(failed.getId()));
+    }
+
+    @Test
+    @DisplayName("Should hold back an order's later events once one of its events fails, and keep sending other orders")
+    void relayBatch_FailureHoldsBackLaterEventsOfTheAggregate() {
+        OutboxEvent created = outboxEvent();
+        OutboxEvent cancelled = outboxEvent(created.getAggregateId());
+        OutboxEvent otherCreated = outboxEvent();
+        OutboxEvent otherCancelled = outboxEvent(otherCreated.getAggregateId());
+        List<UUID> sent = new ArrayList<>();
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any()))
+                .thenReturn(List.of(created, otherCreated, cancelled, otherCancelled));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            UUID eventId = eventId(invocation.getArgument(0));
+            sent.add(eventId);
+            return eventId.equals(created.getId())
+                    ? CompletableFuture.failedFuture(new RuntimeException("broker unavailable"))
+                    : CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertThat(relayed).isEqualTo(2);
+        assertThat(sent).containsExactly(created.getId(), otherCreated.getId(), otherCancelled.getId());
+        verify(outboxEventRepository).markPublished(eq(List.of(otherCreated.getId(), otherCancelled.getId())),
+                any(Instant.class));
+        verify(outboxEventRepository).releaseClaims(List.of(created.getId(), cancelled.getId()));
+    }
+
+    @Test
+    @DisplayName("Should leave an order's events alone while an older one is still pending with another relay")
+    void relayBatch_SkipsAggregatesWithEarlierPendingEvents() {
+        OutboxEvent behindOther = outboxEvent();
+        OutboxEvent free = outboxEvent();
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of(behindOther, free));
+        when(outboxEventRepository.findAggregatesWithEarlierPendingEvents(any()))
+                .thenReturn(List.of(behindOther.getAggregateId()));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertThat(relayed).isEqualTo(1);
+        verify(outboxEventRepository).claim(eq(List.of(free.getId())), any(Instant.class));
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        verify(outboxEventRepository).markPublished(eq(List.of(free.getId())), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should send outside the transactions that claim and mark the rows")
+    void relayBatch_SendsWithoutHoldingLocks() {
+        OutboxEvent event = outboxEvent();
+        List<Boolean> sentInTransaction = new ArrayList<>();
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of(event));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sentInTransaction.add(inTransaction.get());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        outboxRelay.relayBatch();
+
+        assertThat(sentInTransaction).containsExactly(false);
+        verify(transactionTemplate).execute(any());
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should treat a send that throws like a failed one")
+    void relayBatch_SendThrows_ReleasesClaim() {
+        OutboxEvent event = outboxEvent();
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of(event));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new IllegalStateException("buffer exhausted"));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertThat(relayed).isZero();
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        verify(outboxEventRepository).releaseClaims(List.of(event.getId()));
+    }
+
+    @Test
+    @DisplayName("Should send binary rows with their type header and legacy JSON rows without one, both with their id")
+    @SuppressWarnings("unchecked")
+    void relayBatch_BinaryAndLegacyPayloads() {
+        OutboxEvent binary = outboxEvent();
+        OutboxEvent legacy = outboxEvent();
+        legacy.setPayloadBinary(null);
+        legacy.setPayload("{\"eventType\":\"ORDER_CREATED\",\"orderId\":\"" + legacy.getAggregateId() + "\"}");
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of(binary, legacy));
+        when(kafkaTemplate.send(records.capture()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        outboxRelay.relayBatch();
+
+        ProducerRecord<String, byte[]> sentBinary = records.getAllValues().get(0);
+        assertThat(sentBinary.value()).isEqualTo(binary.getPayloadBinary());
+        assertThat(sentBinary.headers().lastHeader(EventCodec.EVENT_TYPE_HEADER).value())
+                .isEqualTo("ORDER_CREATED".getBytes(StandardCharsets.UTF_8));
+        ProducerRecord<String, byte[]> sentLegacy = records.getAllValues().get(1);
+        assertThat(new String(sentLegacy.value(), StandardCharsets.UTF_8)).isEqualTo(legacy.getPayload());
+        assertThat(sentLegacy.headers().lastHeader(EventCodec.EVENT_TYPE_HEADER)).isNull();
+        assertThat(sentBinary.headers().lastHeader(EventCodec.EVENT_ID_HEADER).value())
+                .isEqualTo(binary.getId().toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(sentLegacy.headers().lastHeader(EventCodec.EVENT_ID_HEADER).value())
+                .isEqualTo(legacy.getId().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the outbox is empty")
+    void relayBatch_EmptyOutbox() {
+        when(outboxEventRepository.findClaimableForUpdate(any(), any())).thenReturn(List.of());
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertThat(relayed).isZero();
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).claim(any(), any());
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        inTransaction.set(true);
+        try {
+            return action.get();
+        } finally {
+            inTransaction.set(false);
+        }
+    }
+
+    private static UUID eventId(ProducerRecord<String, byte[]> record) {
+        return UUID.fromString(new String(record.headers().lastHeader(EventCodec.EVENT_ID_HEADER).value(),
+                StandardCharsets.UTF_8));
+    }
+
+    private OutboxEvent outboxEvent() {
+        return outboxEvent(UUID.randomUUID());
+    }
+
+    private OutboxEvent outboxEvent(UUID orderId) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .aggregateId(orderId)
+                .eventType("ORDER_CREATED")
+                .topic("order-events")
+                .eventKey(orderId.toString())
+                .payloadBinary(new byte[]{(byte) 0xC3, 0x01, 0x2A})
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.orderservice.metrics;
+
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BacklogMetricsTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @InjectMocks
+    private BacklogMetrics backlogMetrics;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        backlogMetrics.bindTo(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should publish the outbox backlog and the age of its oldest event")
+    void refreshOutboxBacklog_UpdatesGauges() {
+        when(outboxEventRepository.countByPublishedAtIsNull()).thenReturn(42L);
+        when(outboxEventRepository.findOldestUnpublishedCreatedAt())
+                .thenReturn(Optional.of(Instant.now().minusSeconds(5)));
+
+        backlogMetrics.refreshOutboxBacklog();
+
+        assertThat(meterRegistry.get("order.outbox.backlog").gauge().value()).isEqualTo(42.0);
+        assertThat(meterRegistry.get("order.outbox.oldest.age").gauge().value()).isGreaterThanOrEqualTo(5000.0);
+    }
+
+    @Test
+    @DisplayName("Should keep the last outbox reading when the database is unavailable")
+    void refreshOutboxBacklog_DatabaseDown_KeepsLastValue() {
+        when(outboxEventRepository.countByPublishedAtIsNull()).thenReturn(7L).thenThrow(new RuntimeException("down"));
+        when(outboxEventRepository.findOldestUnpublishedCreatedAt()).thenReturn(Optional.empty());
+
+        backlogMetrics.refreshOutboxBacklog();
+        backlogMetrics.refreshOutboxBacklog();
+
+        assertThat(meterRegistry.get("order.outbox.backlog").gauge().value()).isEqualTo(7.0);
+    }
+
+    @Test
+    @DisplayName("Should sum per-partition records lag across listener containers")
+    void consumerBacklog_SumsRecordsLag() {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        Map<MetricName, Metric> clientMetrics = Map.of(
+                metricName("records-lag", "0"), metric(120.0),
+                metricName("records-lag", "1"), metric(30.0),
+                metricName("records-lag", "2"), metric(Double.NaN),
+                metricName("records-lag-max", "0"), mock(Metric.class));
+        doReturn(Map.of("consumer-0", clientMetrics)).when(container).metrics();
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        assertThat(meterRegistry.get("order.consumer.backlog").gauge().value()).isEqualTo(150.0);
+    }
+
+    private MetricName metricName(String name, String partition) {
+        return new MetricName(name, "consumer-fetch-manager-metrics", "", Map.of("partition", partition));
+    }
+
+    private Metric metric(double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return metric;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.orderservice.metrics;
+
+import com.example.orderservice.entity.OrderStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderMetrics orderMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderMetrics = new OrderMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should count transitions per target status and report untouched statuses as zero")
+    void recordTransition_CountsPerStatus() {
+        orderMetrics.recordTransition(OrderStatus.CONFIRMED);
+        orderMetrics.recordTransition(OrderStatus.CONFIRMED);
+        orderMetrics.recordTransition(OrderStatus.DELIVERED);
+
+        assertThat(transitions(OrderStatus.CONFIRMED)).isEqualTo(2.0);
+        assertThat(transitions(OrderStatus.DELIVERED)).isEqualTo(1.0);
+        assertThat(transitions(OrderStatus.REJECTED)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record every lifecycle leg of a delivered order")
+    void recordDelivered_RecordsLegs() {
+        Instant created = Instant.parse("2026-01-01T12:00:00Z");
+        OrderLifecycle lifecycle = new OrderLifecycle(created, created.plusSeconds(30), created.plusSeconds(120),
+                created.plusSeconds(900), created.plusSeconds(1200), created.plusSeconds(2400));
+
+        orderMetrics.recordDelivered(lifecycle);
+
+        assertThat(leg("created_to_confirmed").totalTime(TimeUnit.SECONDS)).isEqualTo(30);
+        assertThat(leg("confirmed_to_accepted").totalTime(TimeUnit.SECONDS)).isEqualTo(90);
+        assertThat(leg("accepted_to_ready").totalTime(TimeUnit.SECONDS)).isEqualTo(780);
+        assertThat(leg("ready_to_picked_up").totalTime(TimeUnit.SECONDS)).isEqualTo(300);
+        assertThat(leg("picked_up_to_delivered").totalTime(TimeUnit.SECONDS)).isEqualTo(1200);
+        assertThat(leg("created_to_delivered").totalTime(TimeUnit.SECONDS)).isEqualTo(2400);
+    }
+
+    @Test
+    @DisplayName("Should skip legs whose stage timestamps are missing")
+    void recordDelivered_SkipsMissingStages() {
+        Instant created = Instant.parse("2026-01-01T12:00:00Z");
+        OrderLifecycle lifecycle = new OrderLifecycle(created, null, created.plusSeconds(60),
+                null, null, created.plusSeconds(1800));
+
+        orderMetrics.recordDelivered(lifecycle);
+
+        assertThat(leg("created_to_confirmed").count()).isZero();
+        assertThat(leg("confirmed_to_accepted").count()).isZero();
+        assertThat(leg("accepted_to_ready").count()).isZero();
+        assertThat(leg("created_to_delivered").count()).isEqualTo(1);
+    }
+
+    private double transitions(OrderStatus status) {
+        return meterRegistry.get("order.status.transitions").tag("status", status.name()).counter().count();
+    }
+
+    private Timer leg(String leg) {
+        return meterRegistry.get("order.lifecycle").tag("leg", leg).timer();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.orderservice.money;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should convert to and from BigDecimal without losing cents")
+    void of_RoundTrips() {
+        assertThat(Money.of(new BigDecimal("12.99")).minorUnits()).isEqualTo(1299);
+        assertThat(Money.of(new BigDecimal("7")).minorUnits()).isEqualTo(700);
+        assertThat(Money.of(new BigDecimal("0.50")).toBigDecimal()).isEqualTo(new BigDecimal("0.50"));
+    }
+
+    @Test
+    @DisplayName("Should reject amounts with sub-cent precision")
+    void of_SubCent_Throws() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.005")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should compute line totals, sums and differences exactly")
+    void arithmetic() {
+        Money line = Money.lineTotal(new BigDecimal("0.10"), 3);
+        Money total = line.plus(Money.of(new BigDecimal("0.20")));
+
+        assertThat(line.toBigDecimal()).isEqualByComparingTo("0.30");
+        assertThat(total.toBigDecimal()).isEqualByComparingTo("0.50");
+        assertThat(total.minus(Money.ofMinor(60)).isNegative()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should round percentages half-up to the nearest cent")
+    void percentage_RoundsHalfUp() {
+        assertThat(Money.ofMinor(1999).percentage(1000).minorUnits()).isEqualTo(200);
+        assertThat(Money.ofMinor(1005).percentage(500).minorUnits()).isEqualTo(50);
+        assertThat(Money.ofMinor(-1005).percentage(500).minorUnits()).isEqualTo(-50);
+        assertThat(Money.ofMinor(10).percentage(2500).minorUnits()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should fail loudly on overflow")
+    void times_Overflow_Throws() {
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.entity.Payment;
+import com.example.orderservice.entity.PaymentMethod;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the Flyway migrations, partitioning included, against PostgreSQL; the H2 schema has no partitions
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.defer-datasource-initialization=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class OrderPartitioningTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    private static final List<String> FINAL_STATUSES = List.of(OrderStatus.DELIVERED.name());
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should reject an order id that already exists in another partition")
+    void insert_DuplicateIdAcrossPartitions() {
+        Order order = orderRepository.saveAndFlush(order(Instant.now(), OrderStatus.PENDING));
+        Timestamp nextMonth = Timestamp.from(Instant.now().plus(31, ChronoUnit.DAYS));
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO orders (id, customer_id, restaurant_id, total_price, delivery_address, created_at) " +
+                        "VALUES (?, ?, ?, 10, 'x', ?)",
+                order.getId(), UUID.randomUUID(), UUID.randomUUID(), nextMonth))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Should find archived orders by id and stop guarded updates from touching them")
+    void findById_FollowsOrderIntoArchive() {
+        Order order = orderRepository.saveAndFlush(order(Instant.now().minus(40, ChronoUnit.DAYS), OrderStatus.DELIVERED));
+        order.setCustomerNotes("Leave at the door");
+        orderRepository.saveAndFlush(order);
+
+        int archived = orderRepository.archiveFinalizedBefore(FINAL_STATUSES, Instant.now().minus(30, ChronoUnit.DAYS), 10);
+        entityManager.clear();
+
+        Order stored = orderRepository.findByIdWithItemsAndPayment(order.getId()).orElseThrow();
+        assertThat(archived).isEqualTo(1);
+        assertThat(stored.isArchived()).isTrue();
+        assertThat(stored.getCustomerNotes()).isEqualTo("Leave at the door");
+        assertThat(stored.getVersion()).isEqualTo(1);
+        assertThat(stored.getItems()).hasSize(1);
+        assertThat(stored.getPayment()).isNotNull();
+        assertThat(orderRepository.existsById(order.getId())).isTrue();
+        assertThat(orderRepository.transitionStatus(order.getId(), List.of(OrderStatus.DELIVERED),
+                OrderStatus.CANCELLED, null, null, null, null, null, null, Instant.now(), Instant.now())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load live and archived orders by id in bulk")
+    void findAllWithPaymentByIdIn_RoutesThroughKeys() {
+        Order archived = orderRepository.saveAndFlush(order(Instant.now().minus(40, ChronoUnit.DAYS), OrderStatus.DELIVERED));
+        Order live = orderRepository.saveAndFlush(order(Instant.now(), OrderStatus.PENDING));
+        orderRepository.archiveFinalizedBefore(FINAL_STATUSES, Instant.now().minus(30, ChronoUnit.DAYS), 10);
+        entityManager.clear();
+
+        List<Order> orders = orderRepository.findAllWithPaymentByIdIn(List.of(archived.getId(), live.getId()));
+
+        assertThat(orders).extracting(Order::getId).containsExactlyInAnyOrder(archived.getId(), live.getId());
+        assertThat(orders).allSatisfy(order -> assertThat(order.getPayment()).isNotNull());
+    }
+
+    @Test
+    @DisplayName("Should delete an order together with its key, items and payment")
+    void deleteOrderKey_CascadesToItemsAndPayment() {
+        Order order = orderRepository.saveAndFlush(order(Instant.now(), OrderStatus.PENDING));
+
+        orderRepository.deleteOrderKey(order.getId());
+        orderRepository.deleteOrderRow(order.getId(), order.getCreatedAt());
+
+        assertThat(countRows("orders", "id", order.getId())).isZero();
+        assertThat(countRows("order_keys", "id", order.getId())).isZero();
+        assertThat(countRows("order_items", "order_id", order.getId())).isZero();
+        assertThat(countRows("payments", "order_id", order.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop emptied live months and expired archive months with their items and payments")
+    void dropExpiredPartitions_DropsOldMonths() {
+        jdbcTemplate.execute("CREATE TABLE orders_live_2020_01 PARTITION OF orders_live " +
+                "FOR VALUES FROM ('2020-01-01') TO ('2020-02-01')");
+        jdbcTemplate.execute("CREATE TABLE orders_archive_2020_01 PARTITION OF orders_archive " +
+                "FOR VALUES FROM ('2020-01-01') TO ('2020-02-01')");
+        Order order = orderRepository.saveAndFlush(order(Instant.parse("2020-01-10T12:00:00Z"), OrderStatus.DELIVERED));
+        orderRepository.archiveFinalizedBefore(FINAL_STATUSES, Instant.now().minus(30, ChronoUnit.DAYS), 10);
+
+        int dropped = orderRepository.dropExpiredPartitions(Instant.now(), Instant.now());
+
+        assertThat(dropped).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('orders_archive_2020_01') IS NULL " +
+                "AND to_regclass('orders_live_2020_01') IS NULL", Boolean.class)).isTrue();
+        assertThat(countRows("order_keys", "id", order.getId())).isZero();
+        assertThat(countRows("order_items", "order_id", order.getId())).isZero();
+        assertThat(countRows("payments", "order_id", order.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep live months that still hold orders and archive months without a retention")
+    void dropExpiredPartitions_KeepsLiveOrdersAndArchive() {
+        jdbcTemplate.execute("CREATE TABLE orders_live_2020_02 PARTITION OF orders_live " +
+                "FOR VALUES FROM ('2020-02-01') TO ('2020-03-01')");
+        jdbcTemplate.execute("CREATE TABLE orders_archive_2020_02 PARTITION OF orders_archive " +
+                "FOR VALUES FROM ('2020-02-01') TO ('2020-03-01')");
+        Order stuck = orderRepository.saveAndFlush(order(Instant.parse("2020-02-10T12:00:00Z"), OrderStatus.PENDING));
+        orderRepository.saveAndFlush(order(Instant.parse("2020-02-11T12:00:00Z"), OrderStatus.DELIVERED));
+        orderRepository.archiveFinalizedBefore(FINAL_STATUSES, Instant.now().minus(30, ChronoUnit.DAYS), 10);
+
+        int dropped = orderRepository.dropExpiredPartitions(Instant.now(), null);
+        entityManager.clear();
+
+        assertThat(dropped).isZero();
+        assertThat(orderRepository.findById(stuck.getId())).isPresent();
+        assertThat(countRows("orders_archive_2020_02", "status", OrderStatus.DELIVERED.name())).isEqualTo(1);
+    }
+
+    private long countRows(String table, String column, Object value) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Long.class, value);
+    }
+
+    private static Order order(Instant createdAt, OrderStatus status) {
+        Order order = Order.builder()
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .status(status)
+                .totalPrice(new BigDecimal("10.00"))
+                .deliveryAddress("123 Main St")
+                .createdAt(createdAt)
+                .build();
+        order.addItem(OrderItem.builder()
+                .menuItemId(UUID.randomUUID())
+                .name("Margherita")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .build());
+        order.setPayment(Payment.builder()
+                .order(order)
+                .amount(new BigDecimal("10.00"))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build());
+        return order;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.order.OrderExportRow;
+import com.example.orderservice.dto.order.OrderSummaryDto;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.metrics.OrderLifecycle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID customerId;
+    private Instant baseTime;
+
+    @BeforeEach
+    void setUp() {
+        customerId = UUID.randomUUID();
+        baseTime = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Keyset scrolling should visit every order exactly once, newest first")
+    void keysetScroll_VisitsEveryOrderOnce() {
+        List<Order> saved = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Pairs share a timestamp so the id tie-breaker is exercised
+            saved.add(orderRepository.save(order(customerId, baseTime.minusSeconds(i / 2), 1)));
+        }
+        orderRepository.save(order(UUID.randomUUID(), baseTime, 1));
+
+        List<OrderSummaryDto> visited = new ArrayList<>(
+                orderRepository.findFirstSummariesByCustomerId(customerId, PageRequest.of(0, 3)));
+        while (true) {
+            OrderSummaryDto last = visited.get(visited.size() - 1);
+            List<OrderSummaryDto> next = orderRepository.findSummariesByCustomerIdBefore(
+                    customerId, last.getCreatedAt(), last.getId(), PageRequest.of(0, 3));
+            if (next.isEmpty()) {
+                break;
+            }
+            visited.addAll(next);
+        }
+
+        assertThat(visited).extracting(OrderSummaryDto::getId)
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(saved.stream().map(Order::getId).toList());
+        assertThat(visited).extracting(OrderSummaryDto::getCreatedAt)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+
+    @Test
+    @DisplayName("A page of order summaries should be served by a single statement")
+    void summaryPage_SingleStatement() {
+        for (int i = 0; i < 5; i++) {
+            orderRepository.save(order(customerId, baseTime.minusSeconds(i), i + 1));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderSummaryDto> page = orderRepository.findSummariesByCustomerId(customerId, PageRequest.of(0, 50));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).extracting(OrderSummaryDto::getItemCount)
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Bulk lookup should load orders, payments and items without a statement per order")
+    void findAllWithPaymentByIdIn_BatchFetchesItems() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(orderRepository.save(order(customerId, baseTime.minusSeconds(i), i + 1)).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Order> orders = orderRepository.findAllWithPaymentByIdIn(ids);
+        int itemCount = orders.stream().mapToInt(order -> order.getItems().size()).sum();
+
+        assertThat(orders).hasSize(5);
+        assertThat(itemCount).isEqualTo(15);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Export stream should flatten items and honour the half-open range in creation order")
+    void streamExportRows_FlattensItemsInRange() {
+        Order older = orderRepository.save(order(customerId, baseTime.minusSeconds(60), 2));
+        Order newer = orderRepository.save(order(customerId, baseTime.minusSeconds(30), 1));
+        orderRepository.save(order(customerId, baseTime, 3));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderExportRow> rows;
+        try (Stream<OrderExportRow> stream = orderRepository.streamExportRows(baseTime.minusSeconds(60), baseTime)) {
+            rows = stream.toList();
+        }
+
+        assertThat(rows).extracting(OrderExportRow::getOrderId)
+                .containsExactly(older.getId(), older.getId(), newer.getId());
+        assertThat(rows).allSatisfy(row -> assertThat(row.getItemName()).startsWith("Item "));
+    }
+
+    @Test
+    @DisplayName("Guarded status update should only apply from allowed source statuses")
+    void transitionStatus_GuardedBySourceStatus() {
+        Order order = orderRepository.save(order(customerId, baseTime, 1));
+        entityManager.flush();
+        Long initialVersion = order.getVersion();
+
+        int first = orderRepository.transitionStatus(order.getId(),
+                List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED), OrderStatus.ACCEPTED_BY_RESTAURANT,
+                baseTime, baseTime, null, null, null, null, null, baseTime);
+        int duplicate = orderRepository.transitionStatus(order.getId(),
+                List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED), OrderStatus.ACCEPTED_BY_RESTAURANT,
+                baseTime, baseTime, null, null, null, null, null, baseTime);
+        entityManager.clear();
+
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(first).isEqualTo(1);
+        assertThat(duplicate).isZero();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.ACCEPTED_BY_RESTAURANT);
+        assertThat(reloaded.getConfirmedAt()).isEqualTo(baseTime);
+        assertThat(reloaded.getAcceptedAt()).isEqualTo(baseTime);
+        assertThat(reloaded.getVersion()).isEqualTo(initialVersion + 1);
+    }
+
+    @Test
+    @DisplayName("Guarded status update should keep the payment confirmation and expose stage timestamps")
+    void transitionStatus_KeepsConfirmedAt_AndLifecycleIsReadBack() {
+        Order order = order(customerId, baseTime, 1);
+        order.setConfirmedAt(baseTime.plusSeconds(30));
+        order = orderRepository.save(order);
+        entityManager.flush();
+
+        orderRepository.transitionStatus(order.getId(), List.of(OrderStatus.CONFIRMED, OrderStatus.PENDING),
+                OrderStatus.ACCEPTED_BY_RESTAURANT, baseTime.plusSeconds(90), baseTime.plusSeconds(90),
+                null, null, null, null, null, baseTime.plusSeconds(90));
+        orderRepository.transitionStatus(order.getId(), List.of(OrderStatus.ACCEPTED_BY_RESTAURANT),
+                OrderStatus.READY_FOR_PICKUP, null, null, null, baseTime.plusSeconds(600),
+                null, null, null, baseTime.plusSeconds(600));
+        entityManager.clear();
+
+        OrderLifecycle lifecycle = orderRepository.findLifecycleById(order.getId()).orElseThrow();
+        assertThat(lifecycle.createdAt()).isEqualTo(baseTime);
+        assertThat(lifecycle.confirmedAt()).isEqualTo(baseTime.plusSeconds(30));
+        assertThat(lifecycle.acceptedAt()).isEqualTo(baseTime.plusSeconds(90));
+        assertThat(lifecycle.readyAt()).isEqualTo(baseTime.plusSeconds(600));
+        assertThat(lifecycle.pickedUpAt()).isNull();
+        assertThat(lifecycle.deliveredAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("A late transition should only fill in the stage timestamps the order has not recorded")
+    void fillMissingStageTimestamps_LateAcceptance() {
+        Order order = orderRepository.save(order(customerId, baseTime, 1));
+        entityManager.flush();
+        orderRepository.transitionStatus(order.getId(), List.of(OrderStatus.PENDING), OrderStatus.READY_FOR_PICKUP,
+                null, null, null, baseTime.plusSeconds(600), null, null, null, baseTime.plusSeconds(600));
+
+        int late = orderRepository.fillMissingStageTimestamps(order.getId(), baseTime.plusSeconds(90),
+                baseTime.plusSeconds(90), baseTime.plusSeconds(3000), baseTime.plusSeconds(700), null,
+                baseTime.plusSeconds(900));
+        int duplicate = orderRepository.fillMissingStageTimestamps(order.getId(), baseTime.plusSeconds(90),
+                baseTime.plusSeconds(90), baseTime.plusSeconds(3000), null, null, baseTime.plusSeconds(900));
+        entityManager.clear();
+
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(late).isEqualTo(1);
+        assertThat(duplicate).isZero();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.READY_FOR_PICKUP);
+        assertThat(reloaded.getAcceptedAt()).isEqualTo(baseTime.plusSeconds(90));
+        assertThat(reloaded.getEstimatedDeliveryTime()).isEqualTo(baseTime.plusSeconds(3000));
+        assertThat(reloaded.getReadyAt()).isEqualTo(baseTime.plusSeconds(600));
+        assertThat(reloaded.getPickedUpAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deleting an order's key should take its items along and leave nothing behind")
+    void deleteOrderKey_CascadesToItems() {
+        Order order = orderRepository.save(order(customerId, baseTime, 2));
+        entityManager.flush();
+
+        int keys = orderRepository.deleteOrderKey(order.getId());
+        int orders = orderRepository.deleteOrderRow(order.getId(), order.getCreatedAt());
+
+        assertThat(keys).isEqualTo(1);
+        assertThat(orders).isEqualTo(1);
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+        assertThat(countRows("order_items", "order_id", order.getId())).isZero();
+        assertThat(countRows("order_keys", "id", order.getId())).isZero();
+    }
+
+    private long countRows(String table, String column, UUID id) {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?1")
+                .setParameter(1, id)
+                .getSingleResult()).longValue();
+    }
+
+    private Order order(UUID customerId, Instant createdAt, int itemCount) {
+        Order order = Order.builder()
+                .customerId(customerId)
+                .restaurantId(UUID.randomUUID())
+                .status(OrderStatus.PENDING)
+                .totalPrice(BigDecimal.valueOf(10))
+                .deliveryAddress("123 Main St")
+                .createdAt(createdAt)
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            order.addItem(OrderItem.builder()
+                    .menuItemId(UUID.randomUUID())
+                    .name("Item " + i)
+                    .price(BigDecimal.valueOf(5))
+                    .quantity(1)
+                    .build());
+        }
+        return order;
+    }
+}
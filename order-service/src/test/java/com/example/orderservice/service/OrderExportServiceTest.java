@@ -0,0 +1,127 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.order.OrderExportFormat;
+import com.example.orderservice.dto.order.OrderExportRow;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.impl.OrderExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderExportServiceImpl orderExportService;
+    private Instant from;
+    private Instant to;
+    private OrderExportRow row;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderExportService = new OrderExportServiceImpl(orderRepository, objectMapper);
+        from = Instant.parse("2024-01-01T00:00:00Z");
+        to = Instant.parse("2024-02-01T00:00:00Z");
+
+        row = OrderExportRow.builder()
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .status(OrderStatus.DELIVERED)
+                .totalPrice(new BigDecimal("31.98"))
+                .createdAt(Instant.parse("2024-01-15T10:30:00Z"))
+                .itemId(UUID.randomUUID())
+                .menuItemId(UUID.randomUUID())
+                .itemName("Pizza \"Special\", large")
+                .quantity(2)
+                .itemPrice(new BigDecimal("15.99"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and escape item names")
+    void exportOrders_Csv() throws Exception {
+        when(orderRepository.streamExportRows(from, to)).thenReturn(Stream.of(row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = orderExportService.exportOrders(from, to, OrderExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("order_id,customer_id");
+        assertThat(lines[1])
+                .startsWith(row.getOrderId() + ",")
+                .contains(",DELIVERED,31.98,2024-01-15T10:30:00Z,,,")
+                .endsWith(",\"Pizza \"\"Special\"\", large\",2,15.99");
+    }
+
+    @Test
+    @DisplayName("Should keep item names that look like formulas from running in a spreadsheet")
+    void exportOrders_Csv_NeutralisesFormulas() throws Exception {
+        OrderExportRow formula = rowNamed("=HYPERLINK(\"http://evil\",\"x\")");
+        OrderExportRow negative = rowNamed("-2+3");
+        OrderExportRow mention = rowNamed("@SUM(A1)");
+        when(orderRepository.streamExportRows(from, to)).thenReturn(Stream.of(formula, negative, mention));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(from, to, OrderExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[1]).endsWith(",\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",2,15.99");
+        assertThat(lines[2]).endsWith(",'-2+3,2,15.99");
+        assertThat(lines[3]).endsWith(",'@SUM(A1),2,15.99");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void exportOrders_Ndjson() throws Exception {
+        when(orderRepository.streamExportRows(from, to)).thenReturn(Stream.of(row, row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = orderExportService.exportOrders(from, to, OrderExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"status\":\"DELIVERED\"").contains("\"quantity\":2");
+    }
+
+    private OrderExportRow rowNamed(String itemName) {
+        return OrderExportRow.builder()
+                .orderId(row.getOrderId())
+                .customerId(row.getCustomerId())
+                .restaurantId(row.getRestaurantId())
+                .status(row.getStatus())
+                .totalPrice(row.getTotalPrice())
+                .createdAt(row.getCreatedAt())
+                .itemId(row.getItemId())
+                .menuItemId(row.getMenuItemId())
+                .itemName(itemName)
+                .quantity(row.getQuantity())
+                .itemPrice(row.getItemPrice())
+                .build();
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.cache.ActiveOrderIndex;
+import com.example.orderservice.cache.OrderDtoCache;
+import com.example.orderservice.catalog.MenuCatalog;
 import com.example.orderservice.dto.order.*;
 import com.example.orderservice.entity.*;
+import com.example.orderservice.exception.InvalidCursorException;
 import com.example.orderservice.exception.InvalidOrderStateException;
 import com.example.orderservice.exception.OrderNotFoundException;
 import com.example.orderservice.exception.UnauthorizedAccessException;
 import com.example.orderservice.kafka.OrderEventProducer;
 import com.example.orderservice.mapper.OrderItemMapper;
 import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.metrics.OrderLifecycle;
+import com.example.orderservice.metrics.OrderMetrics;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
 import com.example.orderservice.service.impl.OrderServiceImpl;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,6 +34,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -51,6 +59,21 @@ class OrderServiceTest {
     @Mock
     private OrderEventProducer orderEventProducer;
 
+    @Mock
+    private OrderDtoCache orderDtoCache;
+
+    @Mock
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+
+    @Mock
+    private ActiveOrderIndex activeOrderIndex;
+
+    @Mock
+    private OrderMetrics orderMetrics;
+
+    @Mock
+    private MenuCatalog menuCatalog;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -89,6 +112,7 @@ class OrderServiceTest {
     @Test
     @DisplayName("Should get order by ID successfully")
     void getOrderById_Success() {
+        cacheMiss();
         when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
         when(orderMapper.toDto(order)).thenReturn(orderDto);
 
@@ -100,9 +124,21 @@ class OrderServiceTest {
         verify(orderRepository).findByIdWithItemsAndPayment(orderId);
     }
 
+    @Test
+    @DisplayName("Should serve a cached order without touching the repository")
+    void getOrderById_CacheHit() {
+        when(orderDtoCache.get(eq(orderId), any())).thenReturn(orderDto);
+
+        OrderDto result = orderService.getOrderById(orderId);
+
+        assertThat(result).isSameAs(orderDto);
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     @DisplayName("Should throw OrderNotFoundException when order not found")
     void getOrderById_NotFound() {
+        cacheMiss();
         when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> orderService.getOrderById(orderId))
@@ -113,6 +149,7 @@ class OrderServiceTest {
     @Test
     @DisplayName("Should get order for customer when customer owns the order")
     void getOrderByIdForCustomer_Success() {
+        cacheMiss();
         when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
         when(orderMapper.toDto(order)).thenReturn(orderDto);
 
@@ -125,8 +162,10 @@ class OrderServiceTest {
     @Test
     @DisplayName("Should throw UnauthorizedAccessException when customer doesn't own the order")
     void getOrderByIdForCustomer_Unauthorized() {
+        cacheMiss();
         UUID anotherCustomerId = UUID.randomUUID();
         when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
+        when(orderMapper.toDto(order)).thenReturn(orderDto);
 
         assertThatThrownBy(() -> orderService.getOrderByIdForCustomer(orderId, anotherCustomerId))
                 .isInstanceOf(UnauthorizedAccessException.class)
@@ -137,20 +176,86 @@ class OrderServiceTest {
     @DisplayName("Should get orders by customer with pagination")
     void getOrdersByCustomer_Success() {
         PageRequest pageable = PageRequest.of(0, 10);
-        Page<Order> orderPage = new PageImpl<>(List.of(order));
         OrderSummaryDto summaryDto = OrderSummaryDto.builder()
                 .id(orderId)
                 .status(OrderStatus.PENDING)
                 .totalPrice(BigDecimal.valueOf(25.99))
                 .build();
 
-        when(orderRepository.findByCustomerId(customerId, pageable)).thenReturn(orderPage);
-        when(orderMapper.toSummaryDto(order)).thenReturn(summaryDto);
+        when(orderRepository.findSummariesByCustomerId(customerId, pageable))
+                .thenReturn(new PageImpl<>(List.of(summaryDto)));
 
         Page<OrderSummaryDto> result = orderService.getOrdersByCustomer(customerId, pageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getId()).isEqualTo(orderId);
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("Should return first slice with next cursor when more orders exist")
+    void scrollOrdersByCustomer_FirstSlice() {
+        OrderSummaryDto newest = OrderSummaryDto.builder()
+                .id(orderId)
+                .createdAt(order.getCreatedAt())
+                .build();
+        OrderSummaryDto older = OrderSummaryDto.builder()
+                .id(UUID.randomUUID())
+                .createdAt(order.getCreatedAt().minusSeconds(60))
+                .build();
+
+        when(orderRepository.findFirstSummariesByCustomerId(customerId, PageRequest.of(0, 2)))
+                .thenReturn(List.of(newest, older));
+
+        OrderSummarySlice result = orderService.scrollOrdersByCustomer(customerId, null, 1);
+
+        assertThat(result.getContent()).containsExactly(newest);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(OrderCursor.decode(result.getNextCursor())).isEqualTo(OrderCursor.of(newest));
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor position without a count query")
+    void scrollOrdersByCustomer_WithCursor() {
+        OrderCursor cursor = new OrderCursor(Instant.now(), UUID.randomUUID());
+
+        when(orderRepository.findSummariesByCustomerIdBefore(
+                customerId, cursor.createdAt(), cursor.id(), PageRequest.of(0, 21)))
+                .thenReturn(List.of(OrderSummaryDto.builder().id(orderId).build()));
+
+        OrderSummarySlice result = orderService.scrollOrdersByCustomer(customerId, cursor.encode(), 20);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+        verify(orderRepository, never()).findSummariesByCustomerId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void scrollOrdersByCustomer_InvalidCursor() {
+        assertThatThrownBy(() -> orderService.scrollOrdersByCustomer(customerId, "not-a-cursor", 20))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Should return looked-up orders in request order and flag missing IDs")
+    void lookupOrders_KeepsOrderAndFlagsMissing() {
+        UUID missingId = UUID.randomUUID();
+        Order otherOrder = Order.builder().id(UUID.randomUUID()).customerId(customerId).build();
+        OrderDto otherDto = OrderDto.builder().id(otherOrder.getId()).build();
+
+        when(orderRepository.findAllWithPaymentByIdIn(any())).thenReturn(List.of(order, otherOrder));
+        when(orderMapper.toDto(order)).thenReturn(orderDto);
+        when(orderMapper.toDto(otherOrder)).thenReturn(otherDto);
+
+        OrderLookupResponse result = orderService.lookupOrders(List.of(otherOrder.getId(), missingId, orderId));
+
+        assertThat(result.getResults()).extracting(OrderLookupResponse.OrderLookupResult::getOrderId)
+                .containsExactly(otherOrder.getId(), missingId, orderId);
+        assertThat(result.getResults()).extracting(OrderLookupResponse.OrderLookupResult::isFound)
+                .containsExactly(true, false, true);
+        assertThat(result.getMissingIds()).containsExactly(missingId);
     }
 
     @Test
@@ -172,6 +277,7 @@ class OrderServiceTest {
 
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
         verify(orderRepository).save(any(Order.class));
+        verify(orderDtoCache).evict(orderId);
     }
 
     @Test
@@ -207,7 +313,7 @@ class OrderServiceTest {
         OrderDto result = orderService.cancelOrder(orderId, customerId, request);
 
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CANCELLED);
-        verify(orderEventProducer).sendOrderCancelledEvent(any(Order.class), eq("Customer changed mind"));
+        verify(orderEventProducer).enqueueOrderCancelledEvent(any(Order.class), eq("Customer changed mind"));
     }
 
     @Test
@@ -225,17 +331,98 @@ class OrderServiceTest {
     }
 
     @Test
-    @DisplayName("Should handle order accepted event")
+    @DisplayName("Should handle order accepted event with a guarded update")
     void handleOrderAccepted_Success() {
-        when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.transitionStatus(eq(orderId), any(), eq(OrderStatus.ACCEPTED_BY_RESTAURANT),
+                any(Instant.class), any(Instant.class), any(Instant.class), isNull(), isNull(), isNull(), isNull(),
+                any(Instant.class)))
+                .thenReturn(1);
 
         orderService.handleOrderAccepted(orderId, 30);
 
-        verify(orderRepository).save(argThat(savedOrder ->
-                savedOrder.getStatus() == OrderStatus.ACCEPTED_BY_RESTAURANT &&
-                savedOrder.getConfirmedAt() != null
-        ));
+        verify(orderRepository).transitionStatus(eq(orderId),
+                argThat(from -> from.contains(OrderStatus.CONFIRMED) && !from.contains(OrderStatus.ACCEPTED_BY_RESTAURANT)),
+                eq(OrderStatus.ACCEPTED_BY_RESTAURANT), any(Instant.class), any(Instant.class), any(Instant.class),
+                isNull(), isNull(), isNull(), isNull(), any(Instant.class));
+        verify(orderRepository, never()).findByIdWithItemsAndPayment(any());
+        verify(orderRepository, never()).save(any());
+        verify(activeOrderIndex).updateStatus(eq(orderId), eq(OrderStatus.ACCEPTED_BY_RESTAURANT), any(Instant.class));
+        verify(orderMetrics).recordTransition(OrderStatus.ACCEPTED_BY_RESTAURANT);
+        verify(orderMetrics, never()).recordDelivered(any());
+    }
+
+    @Test
+    @DisplayName("Should serve active orders from the in-memory index")
+    void getActiveOrdersByRestaurant_ReadsIndex() {
+        UUID restaurantId = UUID.randomUUID();
+        OrderSummaryDto summaryDto = OrderSummaryDto.builder()
+                .id(orderId)
+                .restaurantId(restaurantId)
+                .status(OrderStatus.PREPARING)
+                .build();
+        when(activeOrderIndex.findByRestaurant(restaurantId)).thenReturn(List.of(summaryDto));
+
+        List<OrderSummaryDto> result = orderService.getActiveOrdersByRestaurant(restaurantId);
+
+        assertThat(result).containsExactly(summaryDto);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should treat a duplicate order accepted event as a no-op")
+    void handleOrderAccepted_Duplicate_NoOp() {
+        when(orderRepository.transitionStatus(eq(orderId), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(orderRepository.existsById(orderId)).thenReturn(true);
+
+        orderService.handleOrderAccepted(orderId, 30);
+
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should keep the acceptance timestamps of an acceptance retried after the order moved on")
+    void handleOrderAccepted_LateRetry_RecordsTimestamps() {
+        when(orderRepository.transitionStatus(eq(orderId), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(orderRepository.fillMissingStageTimestamps(eq(orderId), any(Instant.class), any(Instant.class),
+                any(Instant.class), isNull(), isNull(), any(Instant.class)))
+                .thenReturn(1);
+
+        orderService.handleOrderAccepted(orderId, 30);
+
+        verify(orderDtoCache).evict(orderId);
+        verify(orderRepository, never()).existsById(any());
+        verifyNoInteractions(orderStatusBroadcaster, orderMetrics, activeOrderIndex);
+    }
+
+    @Test
+    @DisplayName("Should fill in the timestamps of a coalesced transition the order has moved past")
+    void applyTransitions_LateTransition_FillsTimestamps() {
+        order.setStatus(OrderStatus.READY_FOR_PICKUP);
+        Instant readyAt = Instant.now().minusSeconds(60);
+        order.setReadyAt(readyAt);
+        when(orderRepository.findAllWithPaymentByIdIn(List.of(orderId))).thenReturn(List.of(order));
+
+        orderService.applyTransitions(List.of(OrderTransition.accepted(orderId, 20, Instant.now())));
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY_FOR_PICKUP);
+        assertThat(order.getAcceptedAt()).isNotNull();
+        assertThat(order.getEstimatedDeliveryTime()).isNotNull();
+        assertThat(order.getReadyAt()).isEqualTo(readyAt);
+        verify(orderDtoCache).evict(orderId);
+        verifyNoInteractions(orderStatusBroadcaster, orderMetrics);
+    }
+
+    @Test
+    @DisplayName("Should throw OrderNotFoundException when transitioning an unknown order")
+    void handleOrderReady_UnknownOrder() {
+        when(orderRepository.transitionStatus(eq(orderId), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(orderRepository.existsById(orderId)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.handleOrderReady(orderId))
+                .isInstanceOf(OrderNotFoundException.class);
     }
 
     @Test
@@ -248,7 +435,7 @@ class OrderServiceTest {
                 .build();
         order.setPayment(payment);
 
-        when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdWithPayment(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         orderService.handleOrderRejected(orderId, "Restaurant busy");
@@ -260,17 +447,42 @@ class OrderServiceTest {
         ));
     }
 
+    @Test
+    @DisplayName("Should ignore a rejection for an order that is already finalized")
+    void handleOrderRejected_FinalizedOrder_NoOp() {
+        order.setStatus(OrderStatus.DELIVERED);
+        when(orderRepository.findByIdWithPayment(orderId)).thenReturn(Optional.of(order));
+
+        orderService.handleOrderRejected(orderId, "Restaurant busy");
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        verify(orderRepository, never()).save(any());
+        verify(orderDtoCache, never()).evict(any());
+    }
+
     @Test
     @DisplayName("Should handle delivery status change to DELIVERED")
     void handleDeliveryStatusChanged_Delivered() {
-        when(orderRepository.findByIdWithItemsAndPayment(orderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.transitionStatus(eq(orderId), any(), eq(OrderStatus.DELIVERED),
+                isNull(), isNull(), isNull(), isNull(), isNull(), any(Instant.class), isNull(), any(Instant.class)))
+                .thenReturn(1);
+        OrderLifecycle lifecycle = new OrderLifecycle(Instant.now(), null, null, null, null, Instant.now());
+        when(orderRepository.findLifecycleById(orderId)).thenReturn(Optional.of(lifecycle));
 
         orderService.handleDeliveryStatusChanged(orderId, "DELIVERED");
 
-        verify(orderRepository).save(argThat(savedOrder ->
-                savedOrder.getStatus() == OrderStatus.DELIVERED &&
-                savedOrder.getDeliveredAt() != null
-        ));
+        verify(orderRepository).transitionStatus(eq(orderId),
+                argThat(from -> from.contains(OrderStatus.IN_DELIVERY) && !from.contains(OrderStatus.DELIVERED)),
+                eq(OrderStatus.DELIVERED), isNull(), isNull(), isNull(), isNull(), isNull(), any(Instant.class), isNull(),
+                any(Instant.class));
+        verify(orderDtoCache).evict(orderId);
+        verify(orderMetrics).recordTransition(OrderStatus.DELIVERED);
+        verify(orderMetrics).recordDelivered(lifecycle);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cacheMiss() {
+        when(orderDtoCache.get(eq(orderId), any()))
+                .thenAnswer(invocation -> ((Supplier<OrderDto>) invocation.getArgument(1)).get());
     }
 }
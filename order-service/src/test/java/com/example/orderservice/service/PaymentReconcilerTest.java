@@ -0,0 +1,70 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.entity.PaymentStatus;
+import com.example.orderservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReconcilerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @InjectMocks
+    private PaymentReconciler paymentReconciler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentReconciler, "staleAfter", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(paymentReconciler, "batchSize", 100);
+    }
+
+    @Test
+    @DisplayName("Should reconcile every payment stuck in PROCESSING, carrying on past one that fails")
+    void reconcileStalePayments_ReconcilesEach() {
+        UUID failing = UUID.randomUUID();
+        UUID stuck = UUID.randomUUID();
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+
+        when(paymentRepository.findIdsByStatusUpdatedBefore(eq(PaymentStatus.PROCESSING), cutoff.capture(), any()))
+                .thenReturn(List.of(failing, stuck));
+        doThrow(new IllegalStateException("provider unavailable")).when(paymentService).reconcilePayment(failing);
+
+        paymentReconciler.reconcileStalePayments();
+
+        verify(paymentService).reconcilePayment(failing);
+        verify(paymentService).reconcilePayment(stuck);
+        assertThat(cutoff.getValue()).isBefore(Instant.now().minus(Duration.ofMinutes(9)));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no payment is stuck")
+    void reconcileStalePayments_NoneStuck() {
+        when(paymentRepository.findIdsByStatusUpdatedBefore(any(), any(), any())).thenReturn(List.of());
+
+        paymentReconciler.reconcileStalePayments();
+
+        verifyNoInteractions(paymentService);
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.cache.ActiveOrderIndex;
+import com.example.orderservice.cache.OrderDtoCache;
 import com.example.orderservice.dto.payment.*;
 import com.example.orderservice.entity.*;
 import com.example.orderservice.exception.OrderNotFoundException;
 import com.example.orderservice.exception.PaymentNotFoundException;
+import com.example.orderservice.exception.PaymentQueueFullException;
 import com.example.orderservice.exception.InvalidPaymentStateException;
 import com.example.orderservice.kafka.OrderEventProducer;
 import com.example.orderservice.mapper.PaymentMapper;
+import com.example.orderservice.metrics.OrderMetrics;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
 import com.example.orderservice.service.impl.PaymentServiceImpl;
+import com.example.orderservice.stream.OrderStatusBroadcaster;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,11 +22,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,6 +55,27 @@ class PaymentServiceTest {
     @Mock
     private OrderEventProducer orderEventProducer;
 
+    @Mock
+    private OrderDtoCache orderDtoCache;
+
+    @Mock
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+
+    @Mock
+    private ActiveOrderIndex activeOrderIndex;
+
+    @Mock
+    private OrderMetrics orderMetrics;
+
+    @Mock
+    private PaymentProvider paymentProvider;
+
+    @Mock
+    private PaymentExecutor paymentExecutor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -54,6 +87,8 @@ class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(paymentService, "recordMaxAttempts", 3);
+        ReflectionTestUtils.setField(paymentService, "recordBackoff", Duration.ZERO);
         orderId = UUID.randomUUID();
         paymentId = UUID.randomUUID();
 
@@ -117,15 +152,6 @@ class PaymentServiceTest {
 
         order.setPayment(payment);
 
-        Payment processedPayment = Payment.builder()
-                .id(paymentId)
-                .order(order)
-                .amount(BigDecimal.valueOf(50.00))
-                .status(PaymentStatus.COMPLETED)
-                .transactionId("TXN-12345678")
-                .paidAt(Instant.now())
-                .build();
-
         PaymentDto processedDto = PaymentDto.builder()
                 .id(paymentId)
                 .orderId(orderId)
@@ -133,15 +159,219 @@ class PaymentServiceTest {
                 .transactionId("TXN-12345678")
                 .build();
 
+        runTransactionsInline();
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(processedPayment);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentProvider.charge(paymentId, request)).thenReturn(true);
         when(paymentMapper.toDto(any(Payment.class))).thenReturn(processedDto);
 
         PaymentDto result = paymentService.processPayment(request);
 
         assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
-        verify(paymentRepository).save(any(Payment.class));
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(paymentRepository, times(2)).save(any(Payment.class));
+        verify(orderEventProducer).enqueuePaymentCompletedEvent(payment);
+        verify(orderMetrics).recordTransition(OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    @DisplayName("Should record a declined payment and enqueue its failure event in the same transaction")
+    void processPayment_Declined_EnqueuesFailedEvent() {
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentProvider.charge(paymentId, request)).thenReturn(false);
+        when(paymentMapper.toDto(any(Payment.class))).thenReturn(paymentDto);
+
+        paymentService.processPayment(request);
+
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(orderEventProducer).enqueuePaymentFailedEvent(payment, "Payment processing failed");
+        verify(transactionTemplate, times(2)).execute(any());
+        verifyNoInteractions(orderMetrics);
+    }
+
+    @Test
+    @DisplayName("Should retry recording a charge after a transient database failure without charging again")
+    void processPayment_RecordFailsOnce_Retries() {
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.findById(paymentId))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentProvider.charge(paymentId, request)).thenReturn(true);
+        when(paymentMapper.toDto(any(Payment.class))).thenReturn(paymentDto);
+
+        paymentService.processPayment(request);
+
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentProvider, times(1)).charge(paymentId, request);
+        verify(orderEventProducer).enqueuePaymentCompletedEvent(payment);
+    }
+
+    @Test
+    @DisplayName("Should leave the payment PROCESSING for the reconciler when recording keeps failing")
+    void processPayment_RecordKeepsFailing_LeavesProcessing() {
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.findById(paymentId)).thenThrow(new QueryTimeoutException("statement timeout"));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentProvider.charge(paymentId, request)).thenReturn(true);
+        when(paymentMapper.toDto(any(Payment.class))).thenReturn(paymentDto);
+
+        assertThatThrownBy(() -> paymentService.processPayment(request))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        verify(paymentRepository, times(3)).findById(paymentId);
+        verify(paymentProvider, times(1)).charge(paymentId, request);
+        verifyNoInteractions(orderEventProducer);
+    }
+
+    @Test
+    @DisplayName("Should leave the payment PROCESSING when the provider call fails, then complete it once the charge shows up")
+    void processPayment_ProviderError_ReconcilerCompletesCharge() {
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toDto(payment)).thenAnswer(invocation -> PaymentDto.builder()
+                .id(paymentId)
+                .status(payment.getStatus())
+                .build());
+        when(paymentProvider.charge(paymentId, request)).thenThrow(new IllegalStateException("read timed out"));
+
+        PaymentDto result = paymentService.processPayment(request);
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+        verifyNoInteractions(orderEventProducer);
+
+        when(paymentProvider.findCharge(paymentId)).thenReturn(PaymentProvider.ChargeStatus.SUCCEEDED);
+
+        paymentService.reconcilePayment(paymentId);
+
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(orderEventProducer).enqueuePaymentCompletedEvent(payment);
+        verify(orderEventProducer, never()).enqueuePaymentFailedEvent(any(), any());
+        verify(paymentProvider, times(1)).charge(paymentId, request);
+    }
+
+    @Test
+    @DisplayName("Should complete a stuck payment the provider charged")
+    void reconcilePayment_Charged_Completes() {
+        payment.setStatus(PaymentStatus.PROCESSING);
+
+        runTransactionsInline();
+        when(paymentProvider.findCharge(paymentId)).thenReturn(PaymentProvider.ChargeStatus.SUCCEEDED);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toDto(any(Payment.class))).thenReturn(paymentDto);
+
+        paymentService.reconcilePayment(paymentId);
+
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(orderEventProducer).enqueuePaymentCompletedEvent(payment);
+        verify(paymentProvider, never()).charge(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should release a stuck payment the provider never received")
+    void reconcilePayment_NeverCharged_ReleasesReservation() {
+        payment.setStatus(PaymentStatus.PROCESSING);
+
+        runTransactionsInline();
+        when(paymentProvider.findCharge(paymentId)).thenReturn(PaymentProvider.ChargeStatus.NOT_FOUND);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+
+        paymentService.reconcilePayment(paymentId);
+
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        verify(paymentRepository).save(payment);
+        verifyNoInteractions(orderEventProducer);
+    }
+
+    @Test
+    @DisplayName("Should accept payment and hand the provider call to the worker pool in async mode")
+    void processPayment_Async_ReturnsProcessing() {
+        ReflectionTestUtils.setField(paymentService, "asyncEnabled", true);
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toDto(payment)).thenAnswer(invocation -> PaymentDto.builder()
+                .id(paymentId)
+                .status(payment.getStatus())
+                .build());
+
+        PaymentDto result = paymentService.processPayment(request);
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        verify(paymentExecutor).submit(any(Runnable.class));
+        verifyNoInteractions(paymentProvider, orderEventProducer);
+    }
+
+    @Test
+    @DisplayName("Should release the reservation when the payment worker queue is full")
+    void processPayment_Async_QueueFull() {
+        ReflectionTestUtils.setField(paymentService, "asyncEnabled", true);
+        ProcessPaymentRequest request = ProcessPaymentRequest.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.valueOf(50.00))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build();
+        order.setPayment(payment);
+
+        runTransactionsInline();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toDto(payment)).thenReturn(PaymentDto.builder().id(paymentId).build());
+        doThrow(new PaymentQueueFullException("full")).when(paymentExecutor).submit(any(Runnable.class));
+
+        assertThatThrownBy(() -> paymentService.processPayment(request))
+                .isInstanceOf(PaymentQueueFullException.class);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
     }
 
     @Test
@@ -156,6 +386,7 @@ class PaymentServiceTest {
                 .paymentMethod(PaymentMethod.CREDIT_CARD)
                 .build();
 
+        runTransactionsInline();
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
 
         assertThatThrownBy(() -> paymentService.processPayment(request))
@@ -208,4 +439,14 @@ class PaymentServiceTest {
                 .isInstanceOf(InvalidPaymentStateException.class)
                 .hasMessageContaining("Only completed payments can be refunded");
     }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
 }
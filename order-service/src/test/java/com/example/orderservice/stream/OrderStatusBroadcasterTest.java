@@ -0,0 +1,195 @@
+package com.example.orderservice.stream;
+
+import com.example.orderservice.dto.order.OrderStatusEvent;
+import com.example.orderservice.entity.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStatusBroadcasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusBroadcaster broadcaster;
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new OrderStatusBroadcaster(meterRegistry, Duration.ofMinutes(1));
+        orderId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should push published statuses to every subscriber and complete on a final status")
+    void stream_FansOutUntilFinalStatus() {
+        List<OrderStatus> first = new CopyOnWriteArrayList<>();
+        List<OrderStatus> second = new CopyOnWriteArrayList<>();
+
+        broadcaster.stream(orderId, () -> current(OrderStatus.PENDING)).subscribe(event -> first.add(event.data().getStatus()));
+        broadcaster.stream(orderId, () -> current(OrderStatus.PENDING)).subscribe(event -> second.add(event.data().getStatus()));
+        assertThat(subscriberGauge()).isEqualTo(2);
+
+        broadcaster.publish(orderId, OrderStatus.ACCEPTED_BY_RESTAURANT);
+        broadcaster.publish(orderId, OrderStatus.DELIVERED);
+
+        assertThat(first).containsExactly(OrderStatus.PENDING, OrderStatus.ACCEPTED_BY_RESTAURANT, OrderStatus.DELIVERED);
+        assertThat(second).containsExactly(OrderStatus.PENDING, OrderStatus.ACCEPTED_BY_RESTAURANT, OrderStatus.DELIVERED);
+        assertThat(subscriberGauge()).isZero();
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should send only the snapshot for an order that is already final")
+    void stream_FinalOrder_CompletesImmediately() {
+        List<ServerSentEvent<OrderStatusEvent>> events = broadcaster.stream(orderId, () -> current(OrderStatus.CANCELLED))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        assertThat(events).hasSize(1);
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release the channel when the last subscriber disconnects")
+    void stream_Cancel_ReleasesChannel() {
+        Disposable subscription = broadcaster.stream(orderId, () -> current(OrderStatus.PENDING)).subscribe();
+        assertThat(channelGauge()).isEqualTo(1);
+
+        subscription.dispose();
+
+        assertThat(subscriberGauge()).isZero();
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should complete when the order reaches a final status while the stream is opening")
+    void stream_FinalStatusBeforeRead_Completes() {
+        List<ServerSentEvent<OrderStatusEvent>> events = broadcaster.stream(orderId, () -> {
+                    // Delivered commits after the listener is registered but the read still returns the old row
+                    broadcaster.publish(orderId, OrderStatus.DELIVERED);
+                    return current(OrderStatus.PICKED_UP);
+                })
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        assertThat(events).extracting(event -> event.data().getStatus())
+                .containsExactly(OrderStatus.PICKED_UP, OrderStatus.DELIVERED);
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not repeat a status the snapshot already shows")
+    void stream_UpdateReflectedInSnapshot_SentOnce() {
+        List<OrderStatus> statuses = new CopyOnWriteArrayList<>();
+        broadcaster.stream(orderId, () -> {
+            broadcaster.publish(orderId, OrderStatus.ACCEPTED_BY_RESTAURANT);
+            return current(OrderStatus.ACCEPTED_BY_RESTAURANT);
+        }).subscribe(event -> statuses.add(event.data().getStatus()));
+
+        broadcaster.publish(orderId, OrderStatus.DELIVERED);
+
+        assertThat(statuses).containsExactly(OrderStatus.ACCEPTED_BY_RESTAURANT, OrderStatus.DELIVERED);
+    }
+
+    @Test
+    @DisplayName("Should release the channel when reading the current status fails")
+    void stream_ReadFails_ReleasesChannel() {
+        Flux<ServerSentEvent<OrderStatusEvent>> stream = broadcaster.stream(orderId, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertThatThrownBy(() -> stream.blockLast(Duration.ofSeconds(1)))
+                .hasMessageContaining("database down");
+        assertThat(subscriberGauge()).isZero();
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not throw to publishers racing on the same order")
+    void publish_Concurrent_NeverThrows() throws Exception {
+        List<OrderStatus> statuses = new CopyOnWriteArrayList<>();
+        broadcaster.stream(orderId, () -> current(OrderStatus.PENDING))
+                .subscribe(event -> statuses.add(event.data().getStatus()));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> publishes = IntStream.range(0, 200)
+                    .mapToObj(i -> executor.submit(() -> broadcaster.publish(orderId, OrderStatus.PREPARING)))
+                    .collect(Collectors.toList());
+            for (Future<?> publish : publishes) {
+                publish.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        broadcaster.publish(orderId, OrderStatus.CANCELLED);
+        broadcaster.publish(orderId, OrderStatus.CANCELLED);
+
+        assertThat(statuses).startsWith(OrderStatus.PENDING, OrderStatus.PREPARING).endsWith(OrderStatus.CANCELLED);
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should push a status another instance committed, once even if it is also published here")
+    void relay_StreamedOrder_PushesCurrentStatus() {
+        List<OrderStatus> statuses = new CopyOnWriteArrayList<>();
+        broadcaster.stream(orderId, () -> current(OrderStatus.PENDING))
+                .subscribe(event -> statuses.add(event.data().getStatus()));
+
+        broadcaster.relay(orderId, () -> Optional.of(OrderStatus.ACCEPTED_BY_RESTAURANT));
+        broadcaster.publish(orderId, OrderStatus.ACCEPTED_BY_RESTAURANT);
+        broadcaster.relay(orderId, () -> Optional.of(OrderStatus.DELIVERED));
+
+        assertThat(statuses).containsExactly(OrderStatus.PENDING, OrderStatus.ACCEPTED_BY_RESTAURANT, OrderStatus.DELIVERED);
+        assertThat(channelGauge()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not read the status of an order nobody streams from this instance")
+    void relay_NotStreamed_SkipsRead() {
+        AtomicInteger reads = new AtomicInteger();
+
+        broadcaster.relay(orderId, () -> {
+            reads.incrementAndGet();
+            return Optional.of(OrderStatus.PREPARING);
+        });
+
+        assertThat(reads).hasValue(0);
+    }
+
+    private OrderStatusEvent current(OrderStatus status) {
+        return OrderStatusEvent.builder()
+                .orderId(orderId)
+                .status(status)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    private double subscriberGauge() {
+        return meterRegistry.get("order.stream.subscribers").gauge().value();
+    }
+
+    private double channelGauge() {
+        return meterRegistry.get("order.stream.channels").gauge().value();
+    }
+}
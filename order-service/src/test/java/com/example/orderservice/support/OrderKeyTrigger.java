@@ -0,0 +1,21 @@
+package com.example.orderservice.support;
+
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// H2 stand-in for the orders_live trigger from V15, so id lookups that go through order_keys work on the test schema
+public class OrderKeyTrigger extends TriggerAdapter {
+
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO order_keys (id, created_at) VALUES (?, ?)")) {
+            insert.setObject(1, newRow.getObject("ID"));
+            insert.setObject(2, newRow.getObject("CREATED_AT"));
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Mirrors V15 on the H2 schema: inserted orders register their key, and items and payments hang off that key
+CREATE TRIGGER IF NOT EXISTS orders_register_key AFTER INSERT ON orders FOR EACH ROW
+    CALL 'com.example.orderservice.support.OrderKeyTrigger';
+
+ALTER TABLE order_items ADD CONSTRAINT IF NOT EXISTS fk_order_items_order_key
+    FOREIGN KEY (order_id) REFERENCES order_keys(id) ON DELETE CASCADE;
+ALTER TABLE payments ADD CONSTRAINT IF NOT EXISTS fk_payments_order_key
+    FOREIGN KEY (order_id) REFERENCES order_keys(id) ON DELETE CASCADE;
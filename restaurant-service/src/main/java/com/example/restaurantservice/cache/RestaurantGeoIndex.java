@@ -0,0 +1,255 @@
+package com.example.restaurantservice.cache;
+
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
+import com.example.restaurantservice.dto.restaurant.RestaurantDto;
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.mapper.RestaurantMapper;
+import com.example.restaurantservice.repository.RestaurantRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Active restaurants with coordinates, bucketed into a fixed grid of lat/lng cells, so "near me" searches scan
+// the few cells around the point instead of every restaurant. Cells are about cellSizeKm tall and tile the globe
+// exactly, so the scan can wrap across the antimeridian; they narrow towards the poles, which the search makes up
+// for by widening its longitude span.
+@Component
+@Slf4j
+public class RestaurantGeoIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private static final Comparator<NearbyRestaurantDto> NEAREST_FIRST =
+            Comparator.comparingDouble(NearbyRestaurantDto::getDistanceKm)
+                    .thenComparing(nearby -> nearby.getRestaurant().getId());
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantMapper restaurantMapper;
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lngCells;
+
+    // Rebuilds swap in a fresh grid, so readers never see it half loaded
+    private volatile Grid grid = new Grid();
+
+    // Writers hold the lock; changes committed while a rebuild loads are kept here and replayed onto the fresh grid
+    private final Object writeLock = new Object();
+    private Map<UUID, Optional<Entry>> changesDuringLoad;
+
+    public RestaurantGeoIndex(
+            RestaurantRepository restaurantRepository,
+            RestaurantMapper restaurantMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.restaurants.geo-index.cell-size-km:2}") double cellSizeKm
+    ) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Geo index cell size must be positive");
+        }
+        this.restaurantRepository = restaurantRepository;
+        this.restaurantMapper = restaurantMapper;
+        // A whole number of cells per half circle, so the last longitude cell is as wide as the rest
+        this.latCells = Math.max(1, (int) Math.round(180 * KM_PER_DEGREE / cellSizeKm));
+        this.lngCells = latCells * 2;
+        this.cellDegrees = 180.0 / latCells;
+        Gauge.builder("restaurant.geo.index.restaurants", this, index -> index.grid.byId.size())
+                .register(meterRegistry);
+        Gauge.builder("restaurant.geo.index.cells", this, index -> index.grid.byCell.size())
+                .register(meterRegistry);
+    }
+
+    // Runs before the web server starts; the refresh also picks up changes made through other instances
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.restaurants.geo-index.refresh-interval:PT5M}",
+            initialDelayString = "${app.restaurants.geo-index.refresh-interval:PT5M}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            changesDuringLoad = new HashMap<>();
+        }
+        Grid fresh = new Grid();
+        try {
+            restaurantRepository.findByIsActiveTrue().stream()
+                    .map(this::toEntry)
+                    .filter(Objects::nonNull)
+                    .forEach(fresh::put);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            // The load may have read these restaurants before the changes committed; the last change wins
+            changesDuringLoad.forEach((id, entry) -> fresh.apply(id, entry.orElse(null)));
+            changesDuringLoad = null;
+            grid = fresh;
+        }
+        log.debug("Indexed {} restaurants across {} cells", fresh.byId.size(), fresh.byCell.size());
+    }
+
+    // Every active restaurant within radiusKm of the point, nearest first
+    public List<NearbyRestaurantDto> findNearby(double latitude, double longitude, double radiusKm) {
+        Grid current = grid;
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        int fromLat = latCell(Math.max(-90, latitude - latSpan));
+        int toLat = latCell(Math.min(90, latitude + latSpan));
+
+        // Degrees of longitude shrink with the cosine of the latitude; at the widest latitude covered, which is
+        // the one nearest a pole, one degree is the fewest kilometres
+        double widestLatitude = Math.min(90, Math.abs(latitude) + latSpan);
+        double cos = Math.cos(Math.toRadians(widestLatitude));
+        double lngSpan = cos > 1e-9 ? radiusKm / (KM_PER_DEGREE * cos) : 180;
+        int fromLng = lngCell(longitude - lngSpan);
+        int lngRange = 2 * lngSpan + cellDegrees >= 360
+                ? lngCells
+                : Math.floorMod(lngCell(longitude + lngSpan) - fromLng, lngCells) + 1;
+
+        List<NearbyRestaurantDto> nearby = new ArrayList<>();
+        for (int lat = fromLat; lat <= toLat; lat++) {
+            for (int offset = 0; offset < lngRange; offset++) {
+                Map<UUID, Entry> cell = current.byCell.get(cellKey(lat, Math.floorMod(fromLng + offset, lngCells)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell.values()) {
+                    double distance = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+                    if (distance <= radiusKm) {
+                        nearby.add(new NearbyRestaurantDto(entry.restaurant(), distance));
+                    }
+                }
+            }
+        }
+        nearby.sort(NEAREST_FIRST);
+        return nearby;
+    }
+
+    // Snapshot is taken now and applied once the transaction commits
+    public void track(Restaurant restaurant) {
+        UUID restaurantId = restaurant.getId();
+        Entry entry = Boolean.TRUE.equals(restaurant.getIsActive()) ? toEntry(restaurant) : null;
+        afterCommit(() -> apply(restaurantId, entry));
+    }
+
+    public void untrack(UUID restaurantId) {
+        afterCommit(() -> apply(restaurantId, null));
+    }
+
+    static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dLat = Math.toRadians(toLatitude - fromLatitude);
+        double dLng = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
+                * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void apply(UUID restaurantId, Entry entry) {
+        synchronized (writeLock) {
+            grid.apply(restaurantId, entry);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.put(restaurantId, Optional.ofNullable(entry));
+            }
+        }
+    }
+
+    private Entry toEntry(Restaurant restaurant) {
+        if (restaurant.getLatitude() == null || restaurant.getLongitude() == null) {
+            return null;
+        }
+        double latitude = restaurant.getLatitude().doubleValue();
+        double longitude = restaurant.getLongitude().doubleValue();
+        return new Entry(restaurant.getId(), latitude, longitude,
+                cellKey(latCell(latitude), lngCell(longitude)), restaurantMapper.toDto(restaurant));
+    }
+
+    private int latCell(double latitude) {
+        return Math.min(latCells - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int lngCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lngCells);
+    }
+
+    private long cellKey(int latCell, int lngCell) {
+        return (long) latCell * lngCells + lngCell;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(UUID id, double latitude, double longitude, long cell, RestaurantDto restaurant) {
+    }
+
+    // Readers only touch byCell and never block
+    private static final class Grid {
+
+        private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+        private final Map<Long, Map<UUID, Entry>> byCell = new ConcurrentHashMap<>();
+
+        void apply(UUID restaurantId, Entry entry) {
+            if (entry != null) {
+                put(entry);
+            } else {
+                remove(restaurantId);
+            }
+        }
+
+        void put(Entry entry) {
+            byId.compute(entry.id(), (id, existing) -> {
+                if (existing != null && existing.cell() != entry.cell()) {
+                    unlink(existing);
+                }
+                link(entry);
+                return entry;
+            });
+        }
+
+        void remove(UUID restaurantId) {
+            byId.computeIfPresent(restaurantId, (id, existing) -> {
+                unlink(existing);
+                return null;
+            });
+        }
+
+        private void link(Entry entry) {
+            byCell.compute(entry.cell(), (cell, entries) -> {
+                Map<UUID, Entry> target = entries != null ? entries : new ConcurrentHashMap<>();
+                target.put(entry.id(), entry);
+                return target;
+            });
+        }
+
+        private void unlink(Entry entry) {
+            byCell.computeIfPresent(entry.cell(), (cell, entries) -> {
+                entries.remove(entry.id());
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class SecurityConfig {
                                 "/actuator/health",
                                 "/actuator/info"
                         ).permitAll()
+                        .requestMatchers("/actuator/deadletters/**").hasRole("ADMIN")
 
                         // Current restaurant (must be authenticated)
                         .requestMatchers(HttpMethod.GET, "/api/restaurants/me").hasAnyRole("RESTAURANT_OWNER", "ADMIN")
@@ -3,6 +3,7 @@ package com.example.restaurantservice.controller;
 import com.example.restaurantservice.dto.menu.CreateMenuItemRequest;
 import com.example.restaurantservice.dto.menu.MenuItemDto;
 import com.example.restaurantservice.dto.restaurant.CreateRestaurantRequest;
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
 import com.example.restaurantservice.dto.restaurant.RestaurantDto;
 import com.example.restaurantservice.dto.restaurant.UpdateRestaurantRequest;
 import com.example.restaurantservice.service.MenuItemService;
@@ -16,6 +17,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -70,6 +74,22 @@ public class RestaurantController {
         return ResponseEntity.ok(restaurant);
     }
 
+    @GetMapping("/nearby")
+    @Operation(summary = "Get nearby restaurants", description = "Returns active restaurants within a radius, nearest first")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Restaurants found"),
+            @ApiResponse(responseCode = "400", description = "Invalid coordinates or radius")
+    })
+    public ResponseEntity<Page<NearbyRestaurantDto>> getNearbyRestaurants(
+            @Parameter(description = "Latitude of the search point") @RequestParam double lat,
+            @Parameter(description = "Longitude of the search point") @RequestParam double lng,
+            @Parameter(description = "Search radius in kilometres, at most 50") @RequestParam(defaultValue = "5") double radiusKm,
+            @PageableDefault(size = 20) Pageable pageable) {
+        log.debug("REST request to get restaurants within {} km of {}, {}", radiusKm, lat, lng);
+        Page<NearbyRestaurantDto> restaurants = restaurantService.getNearbyRestaurants(lat, lng, radiusKm, pageable);
+        return ResponseEntity.ok(restaurants);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get restaurant by ID", description = "Returns restaurant details by ID")
     @ApiResponses({
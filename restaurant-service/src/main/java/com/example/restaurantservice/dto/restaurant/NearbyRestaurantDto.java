@@ -0,0 +1,15 @@
+package com.example.restaurantservice.dto.restaurant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyRestaurantDto {
+    private RestaurantDto restaurant;
+    private double distanceKm;
+}
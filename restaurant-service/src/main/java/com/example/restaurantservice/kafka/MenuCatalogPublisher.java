@@ -0,0 +1,106 @@
+package com.example.restaurantservice.kafka;
+
+import com.example.kafkasupport.KafkaBackpressureException;
+import com.example.kafkasupport.KafkaEventSender;
+import com.example.restaurantservice.dto.event.MenuItemChangedEvent;
+import com.example.restaurantservice.entity.MenuItem;
+import com.example.restaurantservice.repository.MenuItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+// Keeps the compacted menu-catalog topic holding the latest state of every menu item, keyed by item id,
+// so consumers can rebuild a full price catalog by reading it from the beginning
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MenuCatalogPublisher {
+
+    private static final int SNAPSHOT_PAGE_SIZE = 500;
+
+    private final KafkaEventSender eventSender;
+    private final MenuItemRepository menuItemRepository;
+
+    @Value("${app.kafka.topics.menu-catalog}")
+    private String menuCatalogTopic;
+
+    @Value("${app.menu-catalog.publish-snapshot-on-startup:true}")
+    private boolean publishSnapshotOnStartup;
+
+    // Built and sent after commit, once the flush has stamped updatedAt and the price can no longer roll back
+    public void publishChanged(MenuItem menuItem) {
+        afterCommit(() -> send(toEvent(menuItem)));
+    }
+
+    // A null value is a tombstone: compaction drops the key, and consumers drop the item
+    public void publishRemoved(UUID menuItemId) {
+        afterCommit(() -> eventSender.send(menuCatalogTopic, menuItemId.toString(), null));
+    }
+
+    // Seeds items written before the topic existed or while publishing failed; re-sending the latest
+    // state is harmless because consumers keep whichever version of an item is newest
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void publishSnapshot() {
+        if (!publishSnapshotOnStartup) {
+            return;
+        }
+        Pageable pageable = PageRequest.of(0, SNAPSHOT_PAGE_SIZE, Sort.by("id"));
+        long published = 0;
+        Page<MenuItem> page;
+        try {
+            do {
+                page = menuItemRepository.findAll(pageable);
+                page.forEach(menuItem -> send(toEvent(menuItem)));
+                published += page.getNumberOfElements();
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+        } catch (KafkaBackpressureException e) {
+            // A stalled broker must not fail startup; the next restart re-sends the full snapshot
+            log.warn("Menu catalog snapshot stopped after {} items: {}", published, e.getMessage());
+            return;
+        }
+        log.info("Published menu catalog snapshot of {} items", published);
+    }
+
+    private void send(MenuItemChangedEvent event) {
+        eventSender.send(menuCatalogTopic, event.getMenuItemId().toString(), event);
+    }
+
+    private MenuItemChangedEvent toEvent(MenuItem menuItem) {
+        return MenuItemChangedEvent.builder()
+                .eventType("MENU_ITEM_CHANGED")
+                .menuItemId(menuItem.getId())
+                .restaurantId(menuItem.getRestaurant().getId())
+                .name(menuItem.getName())
+                .price(menuItem.getPrice())
+                .available(Boolean.TRUE.equals(menuItem.getIsAvailable()))
+                .updatedAt(menuItem.getUpdatedAt())
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
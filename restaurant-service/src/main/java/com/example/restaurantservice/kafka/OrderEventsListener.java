@@ -1,56 +1,52 @@
 package com.example.restaurantservice.kafka;
 
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
 import com.example.restaurantservice.dto.event.OrderCreatedEvent;
 import com.example.restaurantservice.service.RestaurantOrderService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.UUID;
 
+// Failures propagate to the container: KafkaConfig routes them through the retry topics and on to the DLT.
+// Each event is applied once: ProcessedEventStore skips redeliveries and records the event with the order.
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventsListener {
 
     private final RestaurantOrderService orderService;
-    private final ObjectMapper objectMapper;
+    private final EventCodec eventCodec;
+    private final ProcessedEventStore processedEvents;
 
     @KafkaListener(
             topics = "${app.kafka.topics.order-events}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void handleOrderEvent(String message) {
-        try {
-            log.info("Received order event: {}", message);
-
-            JsonNode jsonNode = objectMapper.readTree(message);
-            String eventType = jsonNode.has("eventType") ? jsonNode.get("eventType").asText() : "";
-
-            if ("ORDER_CREATED".equals(eventType)) {
-                handleOrderCreated(message);
-            } else {
-                log.debug("Ignoring event type: {}", eventType);
-            }
-        } catch (Exception e) {
-            log.error("Error processing order event: {}", message, e);
+    public void handleOrderEvent(ConsumerRecord<String, byte[]> record) throws IOException {
+        String eventType = eventCodec.eventType(record);
+
+        log.info("Received order event: {} from {}", eventType, record.topic());
+
+        if ("ORDER_CREATED".equals(eventType)) {
+            OrderCreatedEvent event = eventCodec.decode(record.value(), OrderCreatedEvent.class);
+            processedEvents.runOnce(record, eventType, () -> handleOrderCreated(event));
+        } else {
+            log.debug("Ignoring event type: {}", eventType);
         }
     }
 
-    private void handleOrderCreated(String message) {
-        try {
-            OrderCreatedEvent event = objectMapper.readValue(message, OrderCreatedEvent.class);
-            log.info("Processing OrderCreatedEvent for order: {}", event.getOrderId());
+    private void handleOrderCreated(OrderCreatedEvent event) {
+        log.info("Processing OrderCreatedEvent for order: {}", event.getOrderId());
 
-            UUID restaurantId = event.getRestaurantId();
-            orderService.createOrderFromEvent(event, restaurantId);
+        UUID restaurantId = event.getRestaurantId();
+        orderService.createOrderFromEvent(event, restaurantId);
 
-            log.info("Restaurant order created successfully for order: {}", event.getOrderId());
-        } catch (Exception e) {
-            log.error("Error handling OrderCreatedEvent", e);
-        }
+        log.info("Restaurant order created successfully for order: {}", event.getOrderId());
     }
 }
@@ -1,12 +1,12 @@
 package com.example.restaurantservice.kafka;
 
+import com.example.kafkasupport.KafkaEventSender;
 import com.example.restaurantservice.dto.event.OrderAcceptedEvent;
 import com.example.restaurantservice.dto.event.OrderReadyEvent;
 import com.example.restaurantservice.dto.event.OrderRejectedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -14,26 +14,26 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class RestaurantEventProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaEventSender eventSender;
 
     @Value("${app.kafka.topics.restaurant-events}")
     private String restaurantEventsTopic;
 
     public void sendOrderAcceptedEvent(OrderAcceptedEvent event) {
         log.info("Sending OrderAcceptedEvent for order: {}", event.getOrderId());
-        kafkaTemplate.send(restaurantEventsTopic, event.getOrderId().toString(), event);
+        eventSender.send(restaurantEventsTopic, event.getOrderId().toString(), event);
         log.debug("OrderAcceptedEvent sent successfully");
     }
 
     public void sendOrderRejectedEvent(OrderRejectedEvent event) {
         log.info("Sending OrderRejectedEvent for order: {}", event.getOrderId());
-        kafkaTemplate.send(restaurantEventsTopic, event.getOrderId().toString(), event);
+        eventSender.send(restaurantEventsTopic, event.getOrderId().toString(), event);
         log.debug("OrderRejectedEvent sent successfully");
     }
 
     public void sendOrderReadyEvent(OrderReadyEvent event) {
         log.info("Sending OrderReadyEvent for order: {}", event.getOrderId());
-        kafkaTemplate.send(restaurantEventsTopic, event.getOrderId().toString(), event);
+        eventSender.send(restaurantEventsTopic, event.getOrderId().toString(), event);
         log.debug("OrderReadyEvent sent successfully");
     }
 }
@@ -0,0 +1,10 @@
+package com.example.restaurantservice.repository;
+
+import com.example.restaurantservice.entity.RestaurantOrder;
+
+public interface RestaurantOrderIngestion {
+
+    // Inserts the order and its items unless an order with the same orderId exists or the restaurant does not;
+    // false if nothing was inserted
+    boolean insertIfAbsent(RestaurantOrder order);
+}
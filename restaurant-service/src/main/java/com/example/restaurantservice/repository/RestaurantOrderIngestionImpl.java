@@ -0,0 +1,98 @@
+package com.example.restaurantservice.repository;
+
+import com.example.restaurantservice.entity.RestaurantOrder;
+import com.example.restaurantservice.entity.RestaurantOrderItem;
+import com.example.restaurantservice.entity.RestaurantOrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// Order intake bypasses the persistence context: one INSERT ... ON CONFLICT for the order, taking the restaurant
+// id from the restaurants table so a missing restaurant inserts nothing instead of failing, and one JDBC batch
+// for its items. Defaults are applied here because the entities' @PrePersist callbacks do not run.
+@RequiredArgsConstructor
+class RestaurantOrderIngestionImpl implements RestaurantOrderIngestion {
+
+    private static final String INSERT_ORDER = """
+            INSERT INTO restaurant_orders (id, order_id, restaurant_id, customer_id, total_price, status,
+                                           delivery_address, customer_notes, received_at, created_at, updated_at)
+            SELECT ?, ?, r.id, ?, ?, ?, ?, ?, ?, ?, ?
+            FROM restaurants r
+            WHERE r.id = ?
+            ON CONFLICT (order_id) DO NOTHING
+            """;
+
+    private static final String INSERT_ITEM = """
+            INSERT INTO restaurant_order_items (id, restaurant_order_id, menu_item_id, name_snapshot, price_snapshot,
+                                                quantity, special_instructions, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(RestaurantOrder order) {
+        Instant now = Instant.now();
+        if (order.getId() == null) {
+            order.setId(UUID.randomUUID());
+        }
+        if (order.getStatus() == null) {
+            order.setStatus(RestaurantOrderStatus.PENDING);
+        }
+        if (order.getReceivedAt() == null) {
+            order.setReceivedAt(now);
+        }
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+
+        int inserted = jdbcTemplate.update(INSERT_ORDER, ps -> {
+            ps.setObject(1, order.getId());
+            ps.setObject(2, order.getOrderId());
+            ps.setObject(3, order.getCustomerId());
+            ps.setBigDecimal(4, order.getTotalPrice());
+            ps.setString(5, order.getStatus().name());
+            ps.setObject(6, order.getDeliveryAddress(), Types.VARCHAR);
+            ps.setObject(7, order.getCustomerNotes(), Types.VARCHAR);
+            ps.setObject(8, utc(order.getReceivedAt()));
+            ps.setObject(9, utc(now));
+            ps.setObject(10, utc(now));
+            ps.setObject(11, order.getRestaurant().getId());
+        });
+        if (inserted == 0) {
+            return false;
+        }
+        if (order.getItems().isEmpty()) {
+            return true;
+        }
+
+        for (RestaurantOrderItem item : order.getItems()) {
+            if (item.getId() == null) {
+                item.setId(UUID.randomUUID());
+            }
+            if (item.getQuantity() == null) {
+                item.setQuantity(1);
+            }
+            item.setCreatedAt(now);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM, order.getItems(), order.getItems().size(), (ps, item) -> {
+            ps.setObject(1, item.getId());
+            ps.setObject(2, order.getId());
+            ps.setObject(3, item.getMenuItemId());
+            ps.setString(4, item.getNameSnapshot());
+            ps.setBigDecimal(5, item.getPriceSnapshot());
+            ps.setInt(6, item.getQuantity());
+            ps.setObject(7, item.getSpecialInstructions(), Types.VARCHAR);
+            ps.setObject(8, utc(now));
+        });
+        return true;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
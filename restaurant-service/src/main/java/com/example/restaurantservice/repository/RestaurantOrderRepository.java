@@ -12,7 +12,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RestaurantOrderRepository extends JpaRepository<RestaurantOrder, UUID> {
+public interface RestaurantOrderRepository extends JpaRepository<RestaurantOrder, UUID>, RestaurantOrderIngestion {
 
     Optional<RestaurantOrder> findByOrderId(UUID orderId);
 
@@ -32,8 +32,6 @@ public interface RestaurantOrderRepository extends JpaRepository<RestaurantOrder
     @Query("SELECT o FROM RestaurantOrder o LEFT JOIN FETCH o.items WHERE o.orderId = :orderId")
     Optional<RestaurantOrder> findByOrderIdWithItems(@Param("orderId") UUID orderId);
 
-    boolean existsByOrderId(UUID orderId);
-
     @Query("SELECT COUNT(o) FROM RestaurantOrder o WHERE o.restaurant.id = :restaurantId AND o.status IN ('PENDING', 'ACCEPTED', 'PREPARING')")
     long countActiveOrdersByRestaurantId(@Param("restaurantId") UUID restaurantId);
 }
@@ -1,8 +1,11 @@
 package com.example.restaurantservice.service;
 
 import com.example.restaurantservice.dto.restaurant.CreateRestaurantRequest;
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
 import com.example.restaurantservice.dto.restaurant.RestaurantDto;
 import com.example.restaurantservice.dto.restaurant.UpdateRestaurantRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,6 +26,9 @@ public interface RestaurantService {
 
     List<RestaurantDto> getRestaurantsByCity(String city);
 
+    Page<NearbyRestaurantDto> getNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                   Pageable pageable);
+
     RestaurantDto updateRestaurant(UUID id, UpdateRestaurantRequest request);
 
     RestaurantDto activateRestaurant(UUID id);
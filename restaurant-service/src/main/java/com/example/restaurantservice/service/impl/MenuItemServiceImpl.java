@@ -7,6 +7,7 @@ import com.example.restaurantservice.entity.MenuItem;
 import com.example.restaurantservice.entity.Restaurant;
 import com.example.restaurantservice.exception.ConflictException;
 import com.example.restaurantservice.exception.ResourceNotFoundException;
+import com.example.restaurantservice.kafka.MenuCatalogPublisher;
 import com.example.restaurantservice.mapper.MenuItemMapper;
 import com.example.restaurantservice.repository.MenuItemRepository;
 import com.example.restaurantservice.repository.RestaurantRepository;
@@ -28,6 +29,7 @@ public class MenuItemServiceImpl implements MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemMapper menuItemMapper;
+    private final MenuCatalogPublisher menuCatalogPublisher;
 
     @Override
     public MenuItemDto createMenuItem(UUID restaurantId, CreateMenuItemRequest request) {
@@ -43,6 +45,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         MenuItem menuItem = menuItemMapper.toEntity(request);
         menuItem.setRestaurant(restaurant);
         MenuItem savedItem = menuItemRepository.save(menuItem);
+        menuCatalogPublisher.publishChanged(savedItem);
 
         log.info("Menu item created with ID: {}", savedItem.getId());
         return menuItemMapper.toDto(savedItem);
@@ -118,6 +121,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         }
 
         MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuCatalogPublisher.publishChanged(updatedItem);
         log.info("Menu item {} updated successfully", id);
         return menuItemMapper.toDto(updatedItem);
     }
@@ -128,6 +132,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         MenuItem menuItem = findMenuItemById(id);
         menuItem.setIsAvailable(available);
         MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuCatalogPublisher.publishChanged(updatedItem);
         return menuItemMapper.toDto(updatedItem);
     }
 
@@ -136,6 +141,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Deleting menu item: {}", id);
         MenuItem menuItem = findMenuItemById(id);
         menuItemRepository.delete(menuItem);
+        menuCatalogPublisher.publishRemoved(id);
         log.info("Menu item {} deleted successfully", id);
     }
 
@@ -42,20 +42,20 @@ public class RestaurantOrderServiceImpl implements RestaurantOrderService {
     public RestaurantOrderDto createOrderFromEvent(OrderCreatedEvent event, UUID restaurantId) {
         log.info("Creating restaurant order from event for order: {}", event.getOrderId());
 
-        if (orderRepository.existsByOrderId(event.getOrderId())) {
+        RestaurantOrder order = orderMapper.fromOrderCreatedEvent(event);
+        // Only the id is needed for the insert, so the restaurant is never loaded
+        order.setRestaurant(restaurantRepository.getReferenceById(restaurantId));
+
+        if (!orderRepository.insertIfAbsent(order)) {
+            if (!restaurantRepository.existsById(restaurantId)) {
+                throw new ResourceNotFoundException("Restaurant", "id", restaurantId);
+            }
             log.warn("Order {} already exists, skipping", event.getOrderId());
-            return orderMapper.toDto(orderRepository.findByOrderId(event.getOrderId()).orElseThrow());
+            return orderMapper.toDto(orderRepository.findByOrderIdWithItems(event.getOrderId()).orElseThrow());
         }
 
-        Restaurant restaurant = restaurantRepository.findById(restaurantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", restaurantId));
-
-        RestaurantOrder order = orderMapper.fromOrderCreatedEvent(event);
-        order.setRestaurant(restaurant);
-        RestaurantOrder savedOrder = orderRepository.save(order);
-
-        log.info("Restaurant order created with ID: {}", savedOrder.getId());
-        return orderMapper.toDto(savedOrder);
+        log.info("Restaurant order created with ID: {}", order.getId());
+        return orderMapper.toDto(order);
     }
 
     @Override
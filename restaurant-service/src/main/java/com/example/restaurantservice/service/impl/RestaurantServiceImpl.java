@@ -1,17 +1,25 @@
 package com.example.restaurantservice.service.impl;
 
+import com.example.restaurantservice.cache.RestaurantGeoIndex;
 import com.example.restaurantservice.dto.restaurant.CreateRestaurantRequest;
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
 import com.example.restaurantservice.dto.restaurant.RestaurantDto;
 import com.example.restaurantservice.dto.restaurant.UpdateRestaurantRequest;
 import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.exception.BadRequestException;
 import com.example.restaurantservice.exception.ConflictException;
 import com.example.restaurantservice.exception.ResourceNotFoundException;
+import com.example.restaurantservice.kafka.MenuCatalogPublisher;
 import com.example.restaurantservice.mapper.RestaurantMapper;
 import com.example.restaurantservice.repository.RestaurantRepository;
 import com.example.restaurantservice.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -23,8 +31,12 @@ import java.util.UUID;
 @Transactional
 public class RestaurantServiceImpl implements RestaurantService {
 
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+
     private final RestaurantRepository restaurantRepository;
     private final RestaurantMapper restaurantMapper;
+    private final MenuCatalogPublisher menuCatalogPublisher;
+    private final RestaurantGeoIndex restaurantGeoIndex;
 
     @Override
     public RestaurantDto createRestaurant(CreateRestaurantRequest request) {
@@ -32,6 +44,7 @@ public class RestaurantServiceImpl implements RestaurantService {
 
         Restaurant restaurant = restaurantMapper.toEntity(request);
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.track(savedRestaurant);
 
         log.info("Restaurant created with ID: {}", savedRestaurant.getId());
         return restaurantMapper.toDto(savedRestaurant);
@@ -48,6 +61,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = restaurantMapper.toEntity(request);
         restaurant.setKeycloakId(keycloakId);
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.track(savedRestaurant);
 
         log.info("Restaurant created with ID: {} for owner: {}", savedRestaurant.getId(), keycloakId);
         return restaurantMapper.toDto(savedRestaurant);
@@ -97,6 +111,24 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .toList();
     }
 
+    // Served from the geo index alone, so no transaction or connection is taken
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<NearbyRestaurantDto> getNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                          Pageable pageable) {
+        log.debug("Getting restaurants within {} km of {}, {}", radiusKm, latitude, longitude);
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_NEARBY_RADIUS_KM)) {
+            throw new BadRequestException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        List<NearbyRestaurantDto> nearby = restaurantGeoIndex.findNearby(latitude, longitude, radiusKm);
+        int from = (int) Math.min(pageable.getOffset(), nearby.size());
+        int to = (int) Math.min((long) from + pageable.getPageSize(), nearby.size());
+        return new PageImpl<>(nearby.subList(from, to), pageable, nearby.size());
+    }
+
     @Override
     public RestaurantDto updateRestaurant(UUID id, UpdateRestaurantRequest request) {
         log.info("Updating restaurant: {}", id);
@@ -137,6 +169,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         }
 
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.track(updatedRestaurant);
         log.info("Restaurant {} updated successfully", id);
         return restaurantMapper.toDto(updatedRestaurant);
     }
@@ -147,6 +180,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = findRestaurantById(id);
         restaurant.setIsActive(true);
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.track(updatedRestaurant);
         return restaurantMapper.toDto(updatedRestaurant);
     }
 
@@ -156,6 +190,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = findRestaurantById(id);
         restaurant.setIsActive(false);
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.track(updatedRestaurant);
         return restaurantMapper.toDto(updatedRestaurant);
     }
 
@@ -163,7 +198,10 @@ public class RestaurantServiceImpl implements RestaurantService {
     public void deleteRestaurant(UUID id) {
         log.info("Deleting restaurant: {}", id);
         Restaurant restaurant = findRestaurantById(id);
+        // Menu items go with the restaurant through the cascade, so their catalog entries are retracted here
+        restaurant.getMenuItems().forEach(menuItem -> menuCatalogPublisher.publishRemoved(menuItem.getId()));
         restaurantRepository.delete(restaurant);
+        restaurantGeoIndex.untrack(id);
         log.info("Restaurant {} deleted successfully", id);
     }
 
@@ -0,0 +1,191 @@
+package com.example.restaurantservice.cache;
+
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.mapper.RestaurantMapper;
+import com.example.restaurantservice.repository.RestaurantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantGeoIndexTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RestaurantGeoIndex(restaurantRepository, new RestaurantMapper(), new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    @DisplayName("Should return restaurants within the radius, nearest first")
+    void findNearby_SortedByDistance() {
+        Restaurant timesSquare = restaurant("Times Square", 40.7580, -73.9855);
+        Restaurant cityHall = restaurant("City Hall", 40.7128, -74.0060);
+        Restaurant brooklyn = restaurant("Brooklyn", 40.6782, -73.9442);
+        Restaurant boston = restaurant("Boston", 42.3601, -71.0589);
+        when(restaurantRepository.findByIsActiveTrue()).thenReturn(List.of(timesSquare, cityHall, brooklyn, boston));
+        index.rebuild();
+
+        List<NearbyRestaurantDto> nearby = index.findNearby(40.7128, -74.0060, 7);
+
+        assertThat(nearby).extracting(result -> result.getRestaurant().getName())
+                .containsExactly("City Hall", "Times Square", "Brooklyn");
+        assertThat(nearby.get(0).getDistanceKm()).isCloseTo(0, within(0.001));
+        assertThat(nearby.get(1).getDistanceKm()).isCloseTo(5.3, within(0.1));
+    }
+
+    @Test
+    @DisplayName("Should find the same restaurants as a scan of all of them")
+    void findNearby_MatchesFullScan() {
+        Random random = new Random(42);
+        List<Restaurant> restaurants = IntStream.range(0, 2_000)
+                .mapToObj(i -> restaurant("r" + i, 52 + random.nextDouble(), 13 + random.nextDouble() * 1.5))
+                .toList();
+        when(restaurantRepository.findByIsActiveTrue()).thenReturn(restaurants);
+        index.rebuild();
+
+        for (int i = 0; i < 50; i++) {
+            assertMatchesFullScan(restaurants, 52 + random.nextDouble(), 13 + random.nextDouble() * 1.5,
+                    0.5 + random.nextDouble() * 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find the same restaurants as a scan of all of them around the antimeridian")
+    void findNearby_MatchesFullScanAcrossAntimeridian() {
+        Random random = new Random(7);
+        List<Restaurant> restaurants = IntStream.range(0, 2_000)
+                .mapToObj(i -> restaurant("r" + i, -17.5 + random.nextDouble(), wrap(179.5 + random.nextDouble())))
+                .toList();
+        when(restaurantRepository.findByIsActiveTrue()).thenReturn(restaurants);
+        index.rebuild();
+
+        for (int i = 0; i < 200; i++) {
+            assertMatchesFullScan(restaurants, -17.5 + random.nextDouble(), wrap(179.8 + random.nextDouble() * 0.4),
+                    0.5 + random.nextDouble() * 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find a restaurant just east of the antimeridian from a point just west of it")
+    void findNearby_WestAcrossAntimeridian() {
+        when(restaurantRepository.findByIsActiveTrue()).thenReturn(List.of(restaurant("Edge", 10, 179.956)));
+        index.rebuild();
+
+        assertThat(index.findNearby(10, -179.999, 5)).singleElement()
+                .satisfies(result -> assertThat(result.getDistanceKm()).isLessThan(5));
+    }
+
+    @Test
+    @DisplayName("Should find restaurants across the antimeridian and near a pole")
+    void findNearby_WrapsAround() {
+        Restaurant east = restaurant("Taveuni", -16.80, 179.99);
+        Restaurant west = restaurant("Lau", -16.80, -179.99);
+        Restaurant polar = restaurant("Station", 89.99, 120);
+        when(restaurantRepository.findByIsActiveTrue()).thenReturn(List.of(east, west, polar));
+        index.rebuild();
+
+        assertThat(index.findNearby(-16.80, 179.995, 5)).hasSize(2);
+        assertThat(index.findNearby(89.995, -60, 5)).singleElement()
+                .satisfies(result -> assertThat(result.getRestaurant().getName()).isEqualTo("Station"));
+    }
+
+    @Test
+    @DisplayName("Should move, drop and skip restaurants as they change")
+    void track_AppliesChanges() {
+        Restaurant restaurant = restaurant("Pizza Palace", 40.7128, -74.0060);
+        index.track(restaurant);
+        assertThat(index.findNearby(40.7128, -74.0060, 1)).hasSize(1);
+
+        restaurant.setLatitude(new BigDecimal("40.7580"));
+        restaurant.setLongitude(new BigDecimal("-73.9855"));
+        index.track(restaurant);
+        assertThat(index.findNearby(40.7128, -74.0060, 1)).isEmpty();
+        assertThat(index.findNearby(40.7580, -73.9855, 1)).hasSize(1);
+
+        restaurant.setIsActive(false);
+        index.track(restaurant);
+        assertThat(index.findNearby(40.7580, -73.9855, 1)).isEmpty();
+
+        Restaurant unplaced = restaurant("No Address", 0, 0);
+        unplaced.setLatitude(null);
+        index.track(unplaced);
+        assertThat(index.findNearby(0, 0, 50)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep changes that commit while a rebuild is loading")
+    void rebuild_KeepsChangesCommittedDuringLoad() {
+        Restaurant restaurant = restaurant("Pizza Palace", 40.7128, -74.0060);
+        Restaurant moved = restaurant("Pizza Palace", 40.7580, -73.9855);
+        moved.setId(restaurant.getId());
+        when(restaurantRepository.findByIsActiveTrue()).thenAnswer(invocation -> {
+            // The load reads the old row, then the move commits before the fresh grid is swapped in
+            index.track(moved);
+            return List.of(restaurant);
+        });
+
+        index.rebuild();
+
+        assertThat(index.findNearby(40.7128, -74.0060, 1)).isEmpty();
+        assertThat(index.findNearby(40.7580, -73.9855, 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should drop deleted restaurants")
+    void untrack_Removes() {
+        Restaurant restaurant = restaurant("Pizza Palace", 40.7128, -74.0060);
+        index.track(restaurant);
+
+        index.untrack(restaurant.getId());
+
+        assertThat(index.findNearby(40.7128, -74.0060, 1)).isEmpty();
+    }
+
+    private void assertMatchesFullScan(List<Restaurant> restaurants, double latitude, double longitude,
+                                       double radiusKm) {
+        List<UUID> expected = restaurants.stream()
+                .filter(r -> RestaurantGeoIndex.distanceKm(latitude, longitude,
+                        r.getLatitude().doubleValue(), r.getLongitude().doubleValue()) <= radiusKm)
+                .map(Restaurant::getId)
+                .toList();
+
+        List<NearbyRestaurantDto> nearby = index.findNearby(latitude, longitude, radiusKm);
+        assertThat(nearby).extracting(result -> result.getRestaurant().getId())
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(nearby).extracting(NearbyRestaurantDto::getDistanceKm).isSorted();
+    }
+
+    private static double wrap(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    private static Restaurant restaurant(String name, double latitude, double longitude) {
+        return Restaurant.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .isActive(true)
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.restaurantservice.controller;
 
 import com.example.restaurantservice.dto.menu.MenuItemDto;
 import com.example.restaurantservice.dto.restaurant.CreateRestaurantRequest;
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
 import com.example.restaurantservice.dto.restaurant.RestaurantDto;
 import com.example.restaurantservice.service.MenuItemService;
 import com.example.restaurantservice.service.RestaurantService;
@@ -11,6 +12,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,6 +23,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -60,6 +64,34 @@ class RestaurantControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].name").value("Pizza Palace"));
     }
 
+    @Test
+    @DisplayName("Should get nearby restaurants nearest first")
+    @WithMockUser
+    void getNearbyRestaurants_Success() throws Exception {
+        NearbyRestaurantDto nearby = new NearbyRestaurantDto(
+                RestaurantDto.builder().id(UUID.randomUUID()).name("Pizza Palace").isActive(true).build(), 1.25);
+
+        when(restaurantService.getNearbyRestaurants(eq(40.7128), eq(-74.006), eq(3.0), any()))
+                .thenReturn(new PageImpl<>(List.of(nearby), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/restaurants/nearby")
+                        .param("lat", "40.7128")
+                        .param("lng", "-74.006")
+                        .param("radiusKm", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].restaurant.name").value("Pizza Palace"))
+                .andExpect(jsonPath("$.content[0].distanceKm").value(1.25))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("Should reject nearby search without coordinates")
+    @WithMockUser
+    void getNearbyRestaurants_MissingCoordinates() throws Exception {
+        mockMvc.perform(get("/api/restaurants/nearby").param("lat", "40.7128"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should create restaurant when user is restaurant owner")
     @WithMockUser(roles = "RESTAURANT")
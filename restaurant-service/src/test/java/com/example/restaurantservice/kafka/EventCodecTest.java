@@ -0,0 +1,77 @@
+package com.example.restaurantservice.kafka;
+
+import com.example.kafkasupport.EventCodec;
+import com.example.restaurantservice.dto.event.MenuItemChangedEvent;
+import com.example.restaurantservice.dto.event.OrderAcceptedEvent;
+import com.example.restaurantservice.dto.event.OrderCreatedEvent;
+import com.example.restaurantservice.dto.event.OrderReadyEvent;
+import com.example.restaurantservice.dto.event.OrderRejectedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventCodecTest {
+
+    private EventCodec codec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        codec = new EventCodec(new ObjectMapper().findAndRegisterModules(), OrderCreatedEvent.class.getPackageName());
+    }
+
+    @Test
+    @DisplayName("Should round-trip every event this service publishes")
+    void encodeDecode_PublishedEvents() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        assertRoundTrip(OrderAcceptedEvent.builder()
+                .eventType("ORDER_ACCEPTED")
+                .orderId(orderId)
+                .restaurantId(restaurantId)
+                .restaurantLat(new BigDecimal("52.52000000"))
+                .restaurantLng(new BigDecimal("13.40500000"))
+                .totalPrice(new BigDecimal("25.99"))
+                .estimatedPrepTimeMinutes(20)
+                .acceptedAt(now)
+                .build(), "ORDER_ACCEPTED");
+        assertRoundTrip(OrderRejectedEvent.builder()
+                .eventType("ORDER_REJECTED")
+                .orderId(orderId)
+                .restaurantId(restaurantId)
+                .rejectionReason("Kitchen closed")
+                .rejectedAt(now)
+                .build(), "ORDER_REJECTED");
+        assertRoundTrip(OrderReadyEvent.builder()
+                .eventType("ORDER_READY")
+                .orderId(orderId)
+                .restaurantId(restaurantId)
+                .restaurantName("Pizza Palace")
+                .readyAt(now)
+                .build(), "ORDER_READY");
+        assertRoundTrip(MenuItemChangedEvent.builder()
+                .eventType("MENU_ITEM_CHANGED")
+                .menuItemId(UUID.randomUUID())
+                .restaurantId(restaurantId)
+                .name("Margherita")
+                .price(new BigDecimal("12.99"))
+                .available(true)
+                .updatedAt(now)
+                .build(), "MENU_ITEM_CHANGED");
+    }
+
+    private void assertRoundTrip(Object event, String eventType) throws Exception {
+        EventCodec.EncodedEvent encoded = codec.encode(event);
+
+        assertThat(encoded.eventType()).isEqualTo(eventType);
+        assertThat(codec.decode(encoded.payload(), event.getClass())).isEqualTo(event);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.restaurantservice.kafka;
+
+import com.example.kafkasupport.KafkaBackpressureException;
+import com.example.kafkasupport.KafkaEventSender;
+import com.example.restaurantservice.dto.event.MenuItemChangedEvent;
+import com.example.restaurantservice.entity.MenuItem;
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.repository.MenuItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuCatalogPublisherTest {
+
+    @Mock
+    private KafkaEventSender eventSender;
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @InjectMocks
+    private MenuCatalogPublisher publisher;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(publisher, "menuCatalogTopic", "menu-catalog");
+        ReflectionTestUtils.setField(publisher, "publishSnapshotOnStartup", true);
+        restaurant = Restaurant.builder().id(UUID.randomUUID()).name("Pizza Palace").build();
+    }
+
+    @Test
+    @DisplayName("Should publish the item's latest state keyed by its id")
+    void publishChanged_SendsKeyedEvent() {
+        MenuItem menuItem = menuItem("Margherita", "12.99", false);
+
+        publisher.publishChanged(menuItem);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventSender).send(eq("menu-catalog"), eq(menuItem.getId().toString()), event.capture());
+        MenuItemChangedEvent changed = (MenuItemChangedEvent) event.getValue();
+        assertThat(changed.getRestaurantId()).isEqualTo(restaurant.getId());
+        assertThat(changed.getPrice()).isEqualByComparingTo("12.99");
+        assertThat(changed.isAvailable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should publish a tombstone for a removed item")
+    void publishRemoved_SendsTombstone() {
+        UUID menuItemId = UUID.randomUUID();
+
+        publisher.publishRemoved(menuItemId);
+
+        verify(eventSender).send("menu-catalog", menuItemId.toString(), null);
+    }
+
+    @Test
+    @DisplayName("Should page through every menu item when publishing the startup snapshot")
+    void publishSnapshot_PagesThroughAllItems() {
+        MenuItem first = menuItem("Margherita", "12.99", true);
+        MenuItem second = menuItem("Calzone", "14.50", true);
+        when(menuItemRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            List<MenuItem> content = pageable.getPageNumber() == 0 ? List.of(first) : List.of(second);
+            return new PageImpl<>(content, pageable, 501);
+        });
+
+        publisher.publishSnapshot();
+
+        verify(menuItemRepository, times(2)).findAll(any(Pageable.class));
+        verify(eventSender).send(eq("menu-catalog"), eq(first.getId().toString()), any(MenuItemChangedEvent.class));
+        verify(eventSender).send(eq("menu-catalog"), eq(second.getId().toString()), any(MenuItemChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should stop the snapshot without failing startup when the producer pushes back")
+    void publishSnapshot_Backpressure_StopsQuietly() {
+        MenuItem first = menuItem("Margherita", "12.99", true);
+        when(menuItemRepository.findAll(any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(first), invocation.getArgument(0), 501));
+        when(eventSender.send(anyString(), anyString(), any())).thenThrow(new KafkaBackpressureException("busy"));
+
+        publisher.publishSnapshot();
+
+        verify(menuItemRepository).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should skip the snapshot when it is disabled")
+    void publishSnapshot_Disabled() {
+        ReflectionTestUtils.setField(publisher, "publishSnapshotOnStartup", false);
+
+        publisher.publishSnapshot();
+
+        verifyNoInteractions(menuItemRepository, eventSender);
+    }
+
+    private MenuItem menuItem(String name, String price, boolean available) {
+        return MenuItem.builder()
+                .id(UUID.randomUUID())
+                .restaurant(restaurant)
+                .name(name)
+                .price(new BigDecimal(price))
+                .isAvailable(available)
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.restaurantservice.kafka;
 
+import com.example.kafkasupport.EventCodec;
+import com.example.kafkasupport.ProcessedEventStore;
 import com.example.restaurantservice.dto.event.OrderCreatedEvent;
 import com.example.restaurantservice.dto.order.RestaurantOrderDto;
 import com.example.restaurantservice.entity.RestaurantOrderStatus;
 import com.example.restaurantservice.service.RestaurantOrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,11 +16,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -28,34 +34,35 @@ class OrderEventsListenerTest {
     @Mock
     private RestaurantOrderService orderService;
 
+    @Mock
+    private ProcessedEventStore processedEvents;
+
     @InjectMocks
     private OrderEventsListener orderEventsListener;
 
     private ObjectMapper objectMapper;
+    private EventCodec eventCodec;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules();
-        orderEventsListener = new OrderEventsListener(orderService, objectMapper);
+        eventCodec = new EventCodec(objectMapper, OrderCreatedEvent.class.getPackageName());
+        orderEventsListener = new OrderEventsListener(orderService, eventCodec, processedEvents);
+        lenient().when(processedEvents.runOnce(any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return true;
+        });
     }
 
     @Test
     @DisplayName("Should process OrderCreated event and create restaurant order")
     void handleOrderEvent_OrderCreated_CreatesOrder() throws Exception {
         UUID restaurantId = UUID.randomUUID();
-        OrderCreatedEvent event = OrderCreatedEvent.builder()
-                .eventType("ORDER_CREATED")
-                .orderId(UUID.randomUUID())
-                .customerId(UUID.randomUUID())
-                .restaurantId(restaurantId)
-                .totalPrice(BigDecimal.valueOf(25.99))
-                .deliveryAddress("123 Main St")
-                .items(List.of())
-                .createdAt(Instant.now())
-                .build();
-
-        String message = objectMapper.writeValueAsString(event);
+        OrderCreatedEvent event = orderCreatedEvent(restaurantId);
+        EventCodec.EncodedEvent encoded = eventCodec.encode(event);
+        ConsumerRecord<String, byte[]> record = record(encoded.payload());
+        record.headers().add(EventCodec.EVENT_TYPE_HEADER, encoded.eventType().getBytes(StandardCharsets.UTF_8));
 
         RestaurantOrderDto orderDto = RestaurantOrderDto.builder()
                 .id(UUID.randomUUID())
@@ -66,9 +73,32 @@ class OrderEventsListenerTest {
         when(orderService.createOrderFromEvent(any(OrderCreatedEvent.class), eq(restaurantId)))
                 .thenReturn(orderDto);
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(record);
+
+        verify(orderService).createOrderFromEvent(eq(event), eq(restaurantId));
+    }
+
+    @Test
+    @DisplayName("Should still process a JSON OrderCreated event published before the binary format")
+    void handleOrderEvent_LegacyJson_CreatesOrder() throws Exception {
+        UUID restaurantId = UUID.randomUUID();
+        OrderCreatedEvent event = orderCreatedEvent(restaurantId);
 
-        verify(orderService).createOrderFromEvent(any(OrderCreatedEvent.class), eq(restaurantId));
+        orderEventsListener.handleOrderEvent(record(objectMapper.writeValueAsBytes(event)));
+
+        verify(orderService).createOrderFromEvent(eq(event), eq(restaurantId));
+    }
+
+    @Test
+    @DisplayName("Should not create the order again for a redelivered event")
+    void handleOrderEvent_Redelivered_Skips() throws Exception {
+        OrderCreatedEvent event = orderCreatedEvent(UUID.randomUUID());
+        ConsumerRecord<String, byte[]> record = record(objectMapper.writeValueAsBytes(event));
+        doReturn(false).when(processedEvents).runOnce(eq(record), eq("ORDER_CREATED"), any());
+
+        orderEventsListener.handleOrderEvent(record);
+
+        verifyNoInteractions(orderService);
     }
 
     @Test
@@ -76,18 +106,18 @@ class OrderEventsListenerTest {
     void handleOrderEvent_UnknownEventType_Ignores() throws Exception {
         String message = "{\"eventType\":\"UnknownEvent\",\"data\":\"test\"}";
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(record(message.getBytes(StandardCharsets.UTF_8)));
 
         verifyNoInteractions(orderService);
     }
 
     @Test
-    @DisplayName("Should handle malformed JSON gracefully")
-    void handleOrderEvent_MalformedJson_DoesNotThrow() {
+    @DisplayName("Should surface malformed payloads so they are dead-lettered")
+    void handleOrderEvent_MalformedJson_Throws() {
         String malformedMessage = "not a valid json";
 
-        // Should not throw exception
-        orderEventsListener.handleOrderEvent(malformedMessage);
+        assertThatThrownBy(() -> orderEventsListener.handleOrderEvent(record(malformedMessage.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IOException.class);
 
         verifyNoInteractions(orderService);
     }
@@ -97,8 +127,30 @@ class OrderEventsListenerTest {
     void handleOrderEvent_OtherEvents_Ignores() throws Exception {
         String message = "{\"eventType\":\"ORDER_ACCEPTED\",\"orderId\":\"" + UUID.randomUUID() + "\"}";
 
-        orderEventsListener.handleOrderEvent(message);
+        orderEventsListener.handleOrderEvent(record(message.getBytes(StandardCharsets.UTF_8)));
 
         verifyNoInteractions(orderService);
     }
+
+    private OrderCreatedEvent orderCreatedEvent(UUID restaurantId) {
+        return OrderCreatedEvent.builder()
+                .eventType("ORDER_CREATED")
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(restaurantId)
+                .totalPrice(new BigDecimal("25.99"))
+                .deliveryAddress("123 Main St")
+                .items(List.of(OrderCreatedEvent.OrderItemEvent.builder()
+                        .menuItemId(UUID.randomUUID())
+                        .name("Margherita")
+                        .price(new BigDecimal("12.99"))
+                        .quantity(2)
+                        .build()))
+                .createdAt(Instant.parse("2024-05-01T12:00:00Z"))
+                .build();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(byte[] value) {
+        return new ConsumerRecord<>("order-events", 0, 0, "key", value);
+    }
 }
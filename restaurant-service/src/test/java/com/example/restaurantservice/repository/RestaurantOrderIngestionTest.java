@@ -0,0 +1,140 @@
+package com.example.restaurantservice.repository;
+
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.entity.RestaurantOrder;
+import com.example.restaurantservice.entity.RestaurantOrderItem;
+import com.example.restaurantservice.entity.RestaurantOrderStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the hand-written ON CONFLICT upsert against PostgreSQL with the Flyway schema; H2 cannot parse it
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class RestaurantOrderIngestionTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private RestaurantOrderRepository orderRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.saveAndFlush(Restaurant.builder()
+                .name("Pizza Palace")
+                .address("123 Main St")
+                .city("New York")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should insert the order and batch its items on first delivery")
+    void insertIfAbsent_FirstDelivery() {
+        UUID orderId = UUID.randomUUID();
+
+        boolean inserted = orderRepository.insertIfAbsent(order(orderId, restaurant, 2));
+        entityManager.clear();
+
+        assertThat(inserted).isTrue();
+        RestaurantOrder stored = orderRepository.findByOrderIdWithItems(orderId).orElseThrow();
+        assertThat(stored.getRestaurant().getId()).isEqualTo(restaurant.getId());
+        assertThat(stored.getStatus()).isEqualTo(RestaurantOrderStatus.PENDING);
+        assertThat(stored.getTotalPrice()).isEqualByComparingTo("25.98");
+        assertThat(stored.getReceivedAt()).isNotNull();
+        assertThat(stored.getItems()).hasSize(2)
+                .allSatisfy(item -> assertThat(item.getQuantity()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("Should leave the first order and its items untouched on redelivery")
+    void insertIfAbsent_Redelivery() {
+        UUID orderId = UUID.randomUUID();
+        RestaurantOrder first = order(orderId, restaurant, 2);
+        orderRepository.insertIfAbsent(first);
+
+        boolean inserted = orderRepository.insertIfAbsent(order(orderId, restaurant, 3));
+        entityManager.clear();
+
+        assertThat(inserted).isFalse();
+        assertThat(countRows("restaurant_orders", orderId)).isEqualTo(1);
+        RestaurantOrder stored = orderRepository.findByOrderIdWithItems(orderId).orElseThrow();
+        assertThat(stored.getId()).isEqualTo(first.getId());
+        assertThat(stored.getItems()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should insert nothing when the restaurant does not exist")
+    void insertIfAbsent_UnknownRestaurant() {
+        UUID orderId = UUID.randomUUID();
+
+        boolean inserted = orderRepository.insertIfAbsent(
+                order(orderId, Restaurant.builder().id(UUID.randomUUID()).build(), 1));
+
+        assertThat(inserted).isFalse();
+        assertThat(countRows("restaurant_orders", orderId)).isZero();
+    }
+
+    private long countRows(String table, UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE order_id = ?", Long.class, orderId);
+    }
+
+    private static RestaurantOrder order(UUID orderId, Restaurant restaurant, int itemCount) {
+        RestaurantOrder order = RestaurantOrder.builder()
+                .orderId(orderId)
+                .restaurant(restaurant)
+                .customerId(UUID.randomUUID())
+                .totalPrice(new BigDecimal("25.98"))
+                .deliveryAddress("456 Oak Ave")
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            order.addItem(RestaurantOrderItem.builder()
+                    .menuItemId(UUID.randomUUID())
+                    .nameSnapshot("Item " + i)
+                    .priceSnapshot(new BigDecimal("12.99"))
+                    .build());
+        }
+        return order;
+    }
+}
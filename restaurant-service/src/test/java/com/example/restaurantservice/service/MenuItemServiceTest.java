@@ -6,6 +6,7 @@ import com.example.restaurantservice.entity.MenuItem;
 import com.example.restaurantservice.entity.Restaurant;
 import com.example.restaurantservice.exception.ConflictException;
 import com.example.restaurantservice.exception.ResourceNotFoundException;
+import com.example.restaurantservice.kafka.MenuCatalogPublisher;
 import com.example.restaurantservice.mapper.MenuItemMapper;
 import com.example.restaurantservice.repository.MenuItemRepository;
 import com.example.restaurantservice.repository.RestaurantRepository;
@@ -41,6 +42,9 @@ class MenuItemServiceTest {
     @Mock
     private MenuItemMapper menuItemMapper;
 
+    @Mock
+    private MenuCatalogPublisher menuCatalogPublisher;
+
     @InjectMocks
     private MenuItemServiceImpl menuItemService;
 
@@ -101,6 +105,7 @@ class MenuItemServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Margherita Pizza");
         verify(menuItemRepository).save(any(MenuItem.class));
+        verify(menuCatalogPublisher).publishChanged(menuItem);
     }
 
     @Test
@@ -114,6 +119,7 @@ class MenuItemServiceTest {
                 .hasMessageContaining("already exists");
 
         verify(menuItemRepository, never()).save(any());
+        verifyNoInteractions(menuCatalogPublisher);
     }
 
     @Test
@@ -144,6 +150,18 @@ class MenuItemServiceTest {
         MenuItemDto result = menuItemService.setAvailability(menuItem.getId(), false);
 
         assertThat(result.getIsAvailable()).isFalse();
+        verify(menuCatalogPublisher).publishChanged(menuItem);
+    }
+
+    @Test
+    @DisplayName("Should retract a deleted menu item from the catalog")
+    void deleteMenuItem_PublishesTombstone() {
+        when(menuItemRepository.findById(menuItem.getId())).thenReturn(Optional.of(menuItem));
+
+        menuItemService.deleteMenuItem(menuItem.getId());
+
+        verify(menuItemRepository).delete(menuItem);
+        verify(menuCatalogPublisher).publishRemoved(menuItem.getId());
     }
 
     @Test
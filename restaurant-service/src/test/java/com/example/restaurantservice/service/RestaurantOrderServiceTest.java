@@ -0,0 +1,118 @@
+package com.example.restaurantservice.service;
+
+import com.example.restaurantservice.dto.event.OrderCreatedEvent;
+import com.example.restaurantservice.dto.order.RestaurantOrderDto;
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.entity.RestaurantOrder;
+import com.example.restaurantservice.entity.RestaurantOrderStatus;
+import com.example.restaurantservice.exception.ResourceNotFoundException;
+import com.example.restaurantservice.kafka.RestaurantEventProducer;
+import com.example.restaurantservice.mapper.RestaurantOrderMapper;
+import com.example.restaurantservice.repository.RestaurantOrderRepository;
+import com.example.restaurantservice.repository.RestaurantRepository;
+import com.example.restaurantservice.service.impl.RestaurantOrderServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantOrderServiceTest {
+
+    @Mock
+    private RestaurantOrderRepository orderRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private RestaurantEventProducer eventProducer;
+
+    private RestaurantOrderServiceImpl orderService;
+    private UUID restaurantId;
+    private OrderCreatedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new RestaurantOrderServiceImpl(orderRepository, restaurantRepository,
+                new RestaurantOrderMapper(), eventProducer);
+        restaurantId = UUID.randomUUID();
+        event = OrderCreatedEvent.builder()
+                .eventType("ORDER_CREATED")
+                .orderId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .restaurantId(restaurantId)
+                .totalPrice(new BigDecimal("25.98"))
+                .deliveryAddress("123 Main St")
+                .items(List.of(OrderCreatedEvent.OrderItemEvent.builder()
+                        .menuItemId(UUID.randomUUID())
+                        .name("Margherita")
+                        .price(new BigDecimal("12.99"))
+                        .quantity(2)
+                        .build()))
+                .createdAt(Instant.now())
+                .build();
+        when(restaurantRepository.getReferenceById(restaurantId))
+                .thenReturn(Restaurant.builder().id(restaurantId).build());
+    }
+
+    @Test
+    @DisplayName("Should insert the order with its items against a restaurant reference")
+    void createOrderFromEvent_Inserts() {
+        ArgumentCaptor<RestaurantOrder> order = ArgumentCaptor.forClass(RestaurantOrder.class);
+        when(orderRepository.insertIfAbsent(order.capture())).thenReturn(true);
+
+        RestaurantOrderDto created = orderService.createOrderFromEvent(event, restaurantId);
+
+        assertThat(order.getValue().getRestaurant().getId()).isEqualTo(restaurantId);
+        assertThat(order.getValue().getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getRestaurantOrder()).isSameAs(order.getValue()));
+        assertThat(created.getOrderId()).isEqualTo(event.getOrderId());
+        assertThat(created.getRestaurantId()).isEqualTo(restaurantId);
+        assertThat(created.getItems()).hasSize(1);
+        verify(restaurantRepository, never()).findById(any());
+        verify(restaurantRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Should return the existing order when the order was already taken in")
+    void createOrderFromEvent_AlreadyExists() {
+        RestaurantOrder existing = RestaurantOrder.builder()
+                .id(UUID.randomUUID())
+                .orderId(event.getOrderId())
+                .status(RestaurantOrderStatus.ACCEPTED)
+                .build();
+        when(orderRepository.insertIfAbsent(any())).thenReturn(false);
+        when(restaurantRepository.existsById(restaurantId)).thenReturn(true);
+        when(orderRepository.findByOrderIdWithItems(event.getOrderId())).thenReturn(Optional.of(existing));
+
+        RestaurantOrderDto result = orderService.createOrderFromEvent(event, restaurantId);
+
+        assertThat(result.getId()).isEqualTo(existing.getId());
+        assertThat(result.getStatus()).isEqualTo(RestaurantOrderStatus.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Should fail when the restaurant does not exist")
+    void createOrderFromEvent_UnknownRestaurant() {
+        when(orderRepository.insertIfAbsent(any())).thenReturn(false);
+        when(restaurantRepository.existsById(restaurantId)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.createOrderFromEvent(event, restaurantId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
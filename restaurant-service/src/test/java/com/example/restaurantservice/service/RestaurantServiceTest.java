@@ -1,10 +1,14 @@
 package com.example.restaurantservice.service;
 
+import com.example.restaurantservice.cache.RestaurantGeoIndex;
 import com.example.restaurantservice.dto.restaurant.CreateRestaurantRequest;
+import com.example.restaurantservice.dto.restaurant.NearbyRestaurantDto;
 import com.example.restaurantservice.dto.restaurant.RestaurantDto;
 import com.example.restaurantservice.dto.restaurant.UpdateRestaurantRequest;
 import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.exception.BadRequestException;
 import com.example.restaurantservice.exception.ResourceNotFoundException;
+import com.example.restaurantservice.kafka.MenuCatalogPublisher;
 import com.example.restaurantservice.mapper.RestaurantMapper;
 import com.example.restaurantservice.repository.RestaurantRepository;
 import com.example.restaurantservice.service.impl.RestaurantServiceImpl;
@@ -15,6 +19,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -36,6 +42,12 @@ class RestaurantServiceTest {
     @Mock
     private RestaurantMapper restaurantMapper;
 
+    @Mock
+    private MenuCatalogPublisher menuCatalogPublisher;
+
+    @Mock
+    private RestaurantGeoIndex restaurantGeoIndex;
+
     @InjectMocks
     private RestaurantServiceImpl restaurantService;
 
@@ -88,6 +100,7 @@ class RestaurantServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Pizza Palace");
         verify(restaurantRepository).save(any(Restaurant.class));
+        verify(restaurantGeoIndex).track(restaurant);
     }
 
     @Test
@@ -168,5 +181,35 @@ class RestaurantServiceTest {
         RestaurantDto result = restaurantService.deactivateRestaurant(restaurant.getId());
 
         assertThat(result.getIsActive()).isFalse();
+        verify(restaurantGeoIndex).track(restaurant);
+    }
+
+    @Test
+    @DisplayName("Should page nearby restaurants from the geo index")
+    void getNearbyRestaurants_Paged() {
+        List<NearbyRestaurantDto> nearby = List.of(
+                new NearbyRestaurantDto(restaurantDto, 0.4),
+                new NearbyRestaurantDto(RestaurantDto.builder().id(UUID.randomUUID()).build(), 1.2),
+                new NearbyRestaurantDto(RestaurantDto.builder().id(UUID.randomUUID()).build(), 3.8));
+        when(restaurantGeoIndex.findNearby(40.7128, -74.0060, 5)).thenReturn(nearby);
+
+        Page<NearbyRestaurantDto> page = restaurantService.getNearbyRestaurants(40.7128, -74.0060, 5,
+                PageRequest.of(1, 2));
+
+        assertThat(page.getContent()).containsExactly(nearby.get(2));
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        verifyNoInteractions(restaurantRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject nearby searches outside the allowed coordinates or radius")
+    void getNearbyRestaurants_InvalidArguments() {
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(91, 0, 5, PageRequest.of(0, 20)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(40.7128, -74.0060, 0, PageRequest.of(0, 20)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(40.7128, -74.0060, 500, PageRequest.of(0, 20)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(restaurantGeoIndex);
     }
 }
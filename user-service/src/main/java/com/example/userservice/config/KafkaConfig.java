@@ -12,10 +12,13 @@ public class KafkaConfig {
     @Value("${app.kafka.topics.user-events}")
     private String userEventsTopic;
 
+    @Value("${app.kafka.partitions.user-events:3}")
+    private int userEventsPartitions;
+
     @Bean
     public NewTopic userEventsTopic() {
         return TopicBuilder.name(userEventsTopic)
-                .partitions(3)
+                .partitions(userEventsPartitions)
                 .replicas(1)
                 .build();
     }
@@ -0,0 +1,8 @@
+package com.example.userservice.exception;
+
+public class KafkaBackpressureException extends RuntimeException {
+
+    public KafkaBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.userservice.kafka;
+
+import com.example.userservice.dto.event.UserCreatedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.specific.SpecificData;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Events travel as Avro single-object messages: a two-byte marker, the fingerprint of the writer schema, then
+// the binary record. The avro/*.avsc files are the contract between services: the file named after a record
+// is the version this service writes, and every version on the classpath can be read, so no registry is needed.
+// The event type rides in a header so listeners dispatch without decoding, next to the event id consumers dedupe
+// on. Messages without the marker predate the binary format and are read as JSON.
+@Component
+@Slf4j
+public class EventCodec {
+
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    public static final String EVENT_ID_HEADER = "event-id";
+
+    private static final String SCHEMA_LOCATION = "classpath*:avro/*.avsc";
+    private static final String EVENT_PACKAGE = UserCreatedEvent.class.getPackageName();
+    private static final byte[] SINGLE_OBJECT_MARKER = {(byte) 0xC3, 0x01};
+
+    private final ObjectMapper objectMapper;
+    private final EventModel model = new EventModel();
+    private final Map<Class<?>, EventWriter> writers = new HashMap<>();
+    private final Map<Class<?>, BinaryMessageDecoder<Object>> decoders = new HashMap<>();
+
+    public EventCodec(ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+
+        Map<String, Schema> current = new HashMap<>();
+        Map<String, List<Schema>> versions = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(SCHEMA_LOCATION)) {
+            Schema schema;
+            try (InputStream in = resource.getInputStream()) {
+                schema = new Schema.Parser().parse(in);
+            }
+            versions.computeIfAbsent(schema.getName(), name -> new ArrayList<>()).add(schema);
+            if ((schema.getName() + ".avsc").equals(resource.getFilename())) {
+                current.put(schema.getName(), schema);
+            }
+        }
+
+        current.forEach((name, schema) -> {
+            String className = EVENT_PACKAGE + "." + name;
+            if (!ClassUtils.isPresent(className, getClass().getClassLoader())) {
+                return;
+            }
+            Class<?> type = ClassUtils.resolveClassName(className, getClass().getClassLoader());
+            // Only a class with every field of the schema can write it; a consumer's trimmed copy only reads
+            if (declaresAllFields(type, schema)) {
+                writers.put(type, new EventWriter(schema.getField("eventType"), header(schema),
+                        model.createDatumWriter(schema)));
+            }
+            BinaryMessageDecoder<Object> decoder = new BinaryMessageDecoder<>(model, model.project(schema, type));
+            versions.get(name).forEach(decoder::addSchema);
+            decoders.put(type, decoder);
+        });
+        log.info("Loaded event schemas for {}", decoders.keySet().stream().map(Class::getSimpleName).sorted().toList());
+    }
+
+    public EncodedEvent encode(Object event) throws IOException {
+        EventWriter writer = writers.get(event.getClass());
+        if (writer == null) {
+            throw new IllegalArgumentException("No event schema for " + event.getClass().getSimpleName());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(writer.header());
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        writer.datumWriter().write(event, encoder);
+        return new EncodedEvent(writer.eventType(model, event), out.toByteArray());
+    }
+
+    public String eventType(ConsumerRecord<String, byte[]> record) throws IOException {
+        Header header = record.headers().lastHeader(EVENT_TYPE_HEADER);
+        if (header != null) {
+            return new String(header.value(), StandardCharsets.UTF_8);
+        }
+        return isBinary(record.value()) ? "" : objectMapper.readTree(record.value()).path("eventType").asText("");
+    }
+
+    public <T> T decode(byte[] payload, Class<T> type) throws IOException {
+        if (!isBinary(payload)) {
+            return objectMapper.readValue(payload, type);
+        }
+        BinaryMessageDecoder<Object> decoder = decoders.get(type);
+        if (decoder == null) {
+            throw new IllegalArgumentException("No event schema for " + type.getSimpleName());
+        }
+        return type.cast(decoder.decode(payload));
+    }
+
+    // Same framing as BinaryMessageEncoder, written straight into the payload instead of through its buffers
+    private static byte[] header(Schema schema) {
+        return ByteBuffer.allocate(SINGLE_OBJECT_MARKER.length + Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(SINGLE_OBJECT_MARKER)
+                .putLong(SchemaNormalization.parsingFingerprint64(schema))
+                .array();
+    }
+
+    private static boolean declaresAllFields(Class<?> type, Schema schema) {
+        return schema.getFields().stream().allMatch(field -> ReflectionUtils.findField(type, field.name()) != null);
+    }
+
+    private static boolean isBinary(byte[] payload) {
+        return payload.length >= SINGLE_OBJECT_MARKER.length
+                && payload[0] == SINGLE_OBJECT_MARKER[0]
+                && payload[1] == SINGLE_OBJECT_MARKER[1];
+    }
+
+    public record EncodedEvent(String eventType, byte[] payload) {
+    }
+
+    private record EventWriter(Schema.Field eventTypeField, byte[] header, DatumWriter<Object> datumWriter) {
+
+        String eventType(GenericData model, Object event) {
+            return eventTypeField != null ? (String) model.getField(event, eventTypeField.name(), eventTypeField.pos()) : null;
+        }
+    }
+
+    // Writes the same bytes as Avro's conversion, which allocates a buffered encoder for every value
+    private static final class BigDecimalConversion extends Conversions.BigDecimalConversion {
+
+        @Override
+        public ByteBuffer toBytes(BigDecimal value, Schema schema, LogicalType type) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            ByteBuffer bytes = ByteBuffer.allocate(unscaled.length + 10);
+            writeInt(bytes, unscaled.length);
+            bytes.put(unscaled);
+            writeInt(bytes, value.scale());
+            return bytes.flip();
+        }
+
+        private static void writeInt(ByteBuffer bytes, int value) {
+            int zigZag = (value << 1) ^ (value >> 31);
+            while ((zigZag & ~0x7F) != 0) {
+                bytes.put((byte) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            bytes.put((byte) zigZag);
+        }
+    }
+
+    // Reflection-based model that reads the shared record names into this service's event classes
+    private static final class EventModel extends ReflectData {
+
+        private final Map<String, Class<?>> recordClasses = new HashMap<>();
+
+        EventModel() {
+            addLogicalTypeConversion(new Conversions.UUIDConversion());
+            addLogicalTypeConversion(new BigDecimalConversion());
+            addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
+        }
+
+        @Override
+        public Class getClass(Schema schema) {
+            Class<?> type = schema.getType() == Schema.Type.RECORD ? recordClasses.get(schema.getFullName()) : null;
+            return type != null ? type : super.getClass(schema);
+        }
+
+        // Every union in the event schemas is an optional field, so the branch follows from null alone
+        @Override
+        public int resolveUnion(Schema union, Object datum) {
+            List<Schema> branches = union.getTypes();
+            if (branches.size() == 2 && branches.get(0).getType() == Schema.Type.NULL) {
+                return datum == null ? 0 : 1;
+            }
+            return super.resolveUnion(union, datum);
+        }
+
+        // The reader schema keeps only the writer's fields that the local class declares; Avro skips the rest
+        Schema project(Schema schema, Type javaType) {
+            return switch (schema.getType()) {
+                case RECORD -> {
+                    Class<?> type = (Class<?>) javaType;
+                    recordClasses.put(schema.getFullName(), type);
+                    List<Schema.Field> fields = new ArrayList<>();
+                    for (Schema.Field field : schema.getFields()) {
+                        Field javaField = ReflectionUtils.findField(type, field.name());
+                        if (javaField != null) {
+                            fields.add(new Schema.Field(field, project(field.schema(), javaField.getGenericType())));
+                        }
+                    }
+                    yield Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+                }
+                case UNION -> Schema.createUnion(schema.getTypes().stream().map(branch -> project(branch, javaType)).toList());
+                case ARRAY -> {
+                    Schema array = Schema.createArray(project(schema.getElementType(),
+                            ((ParameterizedType) javaType).getActualTypeArguments()[0]));
+                    array.addProp(SpecificData.CLASS_PROP, ArrayList.class.getName());
+                    yield array;
+                }
+                case STRING -> {
+                    Schema string = Schema.create(Schema.Type.STRING);
+                    GenericData.setStringType(string, GenericData.StringType.String);
+                    yield string;
+                }
+                default -> schema;
+            };
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.example.userservice.entity.UserStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -18,7 +17,7 @@ import java.time.Instant;
 @Slf4j
 public class UserEventProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaEventSender eventSender;
 
     @Value("${app.kafka.topics.user-events}")
     private String userEventsTopic;
@@ -36,7 +35,7 @@ public class UserEventProducer {
                 .build();
 
         log.info("Sending USER_CREATED event for user: {}", user.getId());
-        kafkaTemplate.send(userEventsTopic, user.getId().toString(), event);
+        eventSender.send(userEventsTopic, user.getId().toString(), event);
     }
 
     public void sendUserUpdatedEvent(User user) {
@@ -51,7 +50,7 @@ public class UserEventProducer {
                 .build();
 
         log.info("Sending USER_UPDATED event for user: {}", user.getId());
-        kafkaTemplate.send(userEventsTopic, user.getId().toString(), event);
+        eventSender.send(userEventsTopic, user.getId().toString(), event);
     }
 
     public void sendUserStatusChangedEvent(User user, UserStatus previousStatus, UserStatus newStatus) {
@@ -64,6 +63,6 @@ public class UserEventProducer {
                 .build();
 
         log.info("Sending USER_STATUS_CHANGED event for user: {}", user.getId());
-        kafkaTemplate.send(userEventsTopic, user.getId().toString(), event);
+        eventSender.send(userEventsTopic, user.getId().toString(), event);
     }
 }
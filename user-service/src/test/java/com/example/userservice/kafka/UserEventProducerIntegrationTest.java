@@ -1,11 +1,15 @@
 package com.example.userservice.kafka;
 
+import com.example.userservice.dto.event.UserCreatedEvent;
+import com.example.userservice.dto.event.UserStatusChangedEvent;
+import com.example.userservice.dto.event.UserUpdatedEvent;
 import com.example.userservice.entity.User;
 import com.example.userservice.entity.UserRole;
 import com.example.userservice.entity.UserStatus;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +19,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
@@ -44,22 +47,22 @@ class UserEventProducerIntegrationTest {
     @Autowired
     private UserEventProducer userEventProducer;
 
+    @Autowired
+    private EventCodec eventCodec;
+
     @Value("${app.kafka.topics.user-events}")
     private String userEventsTopic;
 
-    private Consumer<String, Map<String, Object>> consumer;
+    private Consumer<String, byte[]> consumer;
 
     @BeforeEach
     void setUp() {
         Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("test-group", "true", embeddedKafkaBroker);
         consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        consumerProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        consumerProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        consumerProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "java.util.HashMap");
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
 
-        DefaultKafkaConsumerFactory<String, Map<String, Object>> consumerFactory =
+        DefaultKafkaConsumerFactory<String, byte[]> consumerFactory =
                 new DefaultKafkaConsumerFactory<>(consumerProps);
 
         consumer = consumerFactory.createConsumer();
@@ -75,7 +78,7 @@ class UserEventProducerIntegrationTest {
 
     @Test
     @DisplayName("Should send USER_CREATED event to Kafka")
-    void sendUserCreatedEvent_Success() {
+    void sendUserCreatedEvent_Success() throws Exception {
         UUID userId = UUID.randomUUID();
         User user = User.builder()
                 .id(userId)
@@ -90,23 +93,23 @@ class UserEventProducerIntegrationTest {
 
         userEventProducer.sendUserCreatedEvent(user);
 
-        ConsumerRecord<String, Map<String, Object>> record =
+        ConsumerRecord<String, byte[]> record =
                 KafkaTestUtils.getSingleRecord(consumer, userEventsTopic);
 
         assertThat(record).isNotNull();
         assertThat(record.key()).isEqualTo(userId.toString());
 
-        Map<String, Object> event = record.value();
-        assertThat(event.get("eventType")).isEqualTo("USER_CREATED");
-        assertThat(event.get("email")).isEqualTo("test@example.com");
-        assertThat(event.get("firstName")).isEqualTo("John");
-        assertThat(event.get("lastName")).isEqualTo("Doe");
-        assertThat(event.get("role")).isEqualTo("CUSTOMER");
+        assertThat(eventCodec.eventType(record)).isEqualTo("USER_CREATED");
+        UserCreatedEvent event = eventCodec.decode(record.value(), UserCreatedEvent.class);
+        assertThat(event.getEmail()).isEqualTo("test@example.com");
+        assertThat(event.getFirstName()).isEqualTo("John");
+        assertThat(event.getLastName()).isEqualTo("Doe");
+        assertThat(event.getRole()).isEqualTo("CUSTOMER");
     }
 
     @Test
     @DisplayName("Should send USER_STATUS_CHANGED event to Kafka")
-    void sendUserStatusChangedEvent_Success() {
+    void sendUserStatusChangedEvent_Success() throws Exception {
         UUID userId = UUID.randomUUID();
         User user = User.builder()
                 .id(userId)
@@ -121,21 +124,21 @@ class UserEventProducerIntegrationTest {
 
         userEventProducer.sendUserStatusChangedEvent(user, UserStatus.ACTIVE, UserStatus.SUSPENDED);
 
-        ConsumerRecord<String, Map<String, Object>> record =
+        ConsumerRecord<String, byte[]> record =
                 KafkaTestUtils.getSingleRecord(consumer, userEventsTopic);
 
         assertThat(record).isNotNull();
         assertThat(record.key()).isEqualTo(userId.toString());
 
-        Map<String, Object> event = record.value();
-        assertThat(event.get("eventType")).isEqualTo("USER_STATUS_CHANGED");
-        assertThat(event.get("previousStatus")).isEqualTo("ACTIVE");
-        assertThat(event.get("newStatus")).isEqualTo("SUSPENDED");
+        assertThat(eventCodec.eventType(record)).isEqualTo("USER_STATUS_CHANGED");
+        UserStatusChangedEvent event = eventCodec.decode(record.value(), UserStatusChangedEvent.class);
+        assertThat(event.getPreviousStatus()).isEqualTo("ACTIVE");
+        assertThat(event.getNewStatus()).isEqualTo("SUSPENDED");
     }
 
     @Test
     @DisplayName("Should send USER_UPDATED event to Kafka")
-    void sendUserUpdatedEvent_Success() {
+    void sendUserUpdatedEvent_Success() throws Exception {
         UUID userId = UUID.randomUUID();
         User user = User.builder()
                 .id(userId)
@@ -151,16 +154,16 @@ class UserEventProducerIntegrationTest {
 
         userEventProducer.sendUserUpdatedEvent(user);
 
-        ConsumerRecord<String, Map<String, Object>> record =
+        ConsumerRecord<String, byte[]> record =
                 KafkaTestUtils.getSingleRecord(consumer, userEventsTopic);
 
         assertThat(record).isNotNull();
         assertThat(record.key()).isEqualTo(userId.toString());
 
-        Map<String, Object> event = record.value();
-        assertThat(event.get("eventType")).isEqualTo("USER_UPDATED");
-        assertThat(event.get("email")).isEqualTo("updated@example.com");
-        assertThat(event.get("firstName")).isEqualTo("Updated");
-        assertThat(event.get("phone")).isEqualTo("+1234567890");
+        assertThat(eventCodec.eventType(record)).isEqualTo("USER_UPDATED");
+        UserUpdatedEvent event = eventCodec.decode(record.value(), UserUpdatedEvent.class);
+        assertThat(event.getEmail()).isEqualTo("updated@example.com");
+        assertThat(event.getFirstName()).isEqualTo("Updated");
+        assertThat(event.getPhone()).isEqualTo("+1234567890");
     }
 }